@@ -0,0 +1,84 @@
+package za.co.sanlam.transferservice.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import za.co.sanlam.transferservice.TransferServiceApplication;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * The service running against an in-process {@link StubLedger} and H2, set up like the
+ * integration tests but with background jobs off and logging quiet enough not to be measured.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+  private final StubLedger ledger;
+  private final ConfigurableApplicationContext context;
+
+  // transferIds are unique per context so no call is answered as a duplicate by accident
+  private final String prefix = UUID.randomUUID().toString().substring(0, 8);
+  private final AtomicLong sequence = new AtomicLong();
+
+  private BenchmarkContext(StubLedger ledger, String... properties) {
+    this.ledger = ledger;
+    // As command line arguments, so they win over application.yml and its profiles
+    this.context =
+        new SpringApplicationBuilder(TransferServiceApplication.class)
+            .run(
+                Stream.concat(
+                        Stream.of(
+                            "server.port=0",
+                            "ledger.service.endpoint.baseUrl=" + ledger.baseUrl(),
+                            "ledger.service.endpoint.path=" + StubLedger.PATH,
+                            "transfer.outbox.enabled=false",
+                            "transfer.reconcile.enabled=false",
+                            "transfer.archive.directory=target/benchmark-archive/" + prefix,
+                            "spring.jpa.show-sql=false",
+                            "logging.level.root=WARN",
+                            "logging.level.za.co.sanlam=WARN"),
+                        Stream.of(properties))
+                    .map(property -> "--" + property)
+                    .toArray(String[]::new));
+  }
+
+  /**
+   * @param properties application properties overriding the defaults, as {@code key=value}
+   */
+  static BenchmarkContext start(String... properties) {
+    return new BenchmarkContext(StubLedger.start(), properties);
+  }
+
+  <T> T bean(Class<T> type) {
+    return context.getBean(type);
+  }
+
+  StubLedger ledger() {
+    return ledger;
+  }
+
+  TransferDTO nextTransfer() {
+    final String transferId = prefix + "-" + sequence.incrementAndGet();
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("A-" + transferId)
+        .toAccountId("B-" + transferId)
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  Stream<TransferDTO> nextTransfers(int count) {
+    return Stream.generate(this::nextTransfer).limit(count);
+  }
+
+  @Override
+  public void close() throws IOException {
+    context.close();
+    ledger.close();
+  }
+}
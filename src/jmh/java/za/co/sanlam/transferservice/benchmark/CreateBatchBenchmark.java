@@ -0,0 +1,97 @@
+package za.co.sanlam.transferservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import za.co.sanlam.transferservice.service.TransferService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TransferService#createBatch} fanning a batch out to the transfer executor, one stub
+ * ledger call per transfer: the latency of one batch at a time, and the throughput of many
+ * batches arriving at once. VIRTUAL needs a Java 21 runtime (-Pjava21); the executors are
+ * compared at 1,000 concurrent batches against a slow ledger in {@link CreateBatchBurstBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CreateBatchBenchmark {
+
+  private static final int CONCURRENT_BATCHES = 64;
+
+  @Param({"1", "5", "10", "20"})
+  private int batchSize;
+
+  @Param({"PLATFORM"})
+  private String mode;
+
+  // Platform pool core size, with twice as many threads at most; the batch lane runs as many
+  @Param({"10", "50"})
+  private int corePoolSize;
+
+  // Stub ledger answer time
+  @Param({"0"})
+  private long ledgerDelayMillis;
+
+  private BenchmarkContext context;
+  private TransferService transferService;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context =
+        BenchmarkContext.start(
+            "transfer.executor.mode=" + mode,
+            "transfer.executor.corePoolSize=" + corePoolSize,
+            "transfer.executor.maxPoolSize=" + 2 * corePoolSize,
+            "transfer.lanes.maxConcurrency=" + 2 * corePoolSize,
+            "transfer.lanes.batch.maxConcurrency=" + corePoolSize,
+            // Concurrent batches queue in the lane rather than being shed
+            "transfer.lanes.batch.queueCapacity=100000",
+            "transfer.lanes.batch.queueTimeout=1m");
+    context.ledger().setDelayMillis(ledgerDelayMillis);
+    transferService = context.bean(TransferService.class);
+  }
+
+  // MockWebServer keeps every request it served
+  @TearDown(Level.Iteration)
+  public void forgetRequests() {
+    context.ledger().reset();
+    context.ledger().setDelayMillis(ledgerDelayMillis);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    context.close();
+  }
+
+  @Benchmark
+  public List<String> createBatch() {
+    return transferService.createBatch(context.nextTransfers(batchSize).toList());
+  }
+
+  // Batches from many request threads at once, as when a burst of batch requests arrives
+  @Benchmark
+  @Threads(CONCURRENT_BATCHES)
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public List<String> createBatchConcurrently() {
+    return createBatch();
+  }
+}
@@ -0,0 +1,101 @@
+package za.co.sanlam.transferservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import za.co.sanlam.transferservice.service.TransferService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link TransferService#createBatch}, in batches per second, with 1,000 batch
+ * requests in flight at once against a slow stub ledger: the platform pool against virtual
+ * threads. Each executor runs as many ledger calls as it is sized for; the lanes and the
+ * connection pool are sized to match and the ledger concurrency limit is off, so the executor is
+ * what bounds them. VIRTUAL needs a Java 21 runtime (-Pjava21); pass
+ * {@code -p mode=PLATFORM,VIRTUAL} in jmh.args to compare the two.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class CreateBatchBurstBenchmark {
+
+  private static final int CONCURRENT_BATCHES = 1_000;
+
+  @Param({"5"})
+  private int batchSize;
+
+  @Param({"PLATFORM"})
+  private String mode;
+
+  // Threads of the platform pool, core and max alike
+  @Param({"20"})
+  private int platformThreads;
+
+  // Transfers the virtual-thread executor runs at once
+  @Param({"200"})
+  private int virtualConcurrency;
+
+  // Stub ledger answer time
+  @Param({"50"})
+  private long ledgerDelayMillis;
+
+  private BenchmarkContext context;
+  private TransferService transferService;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final int concurrency = "VIRTUAL".equals(mode) ? virtualConcurrency : platformThreads;
+    context =
+        BenchmarkContext.start(
+            "transfer.executor.mode=" + mode,
+            "transfer.executor.corePoolSize=" + platformThreads,
+            "transfer.executor.maxPoolSize=" + platformThreads,
+            "transfer.executor.maxConcurrency=" + virtualConcurrency,
+            "transfer.lanes.maxConcurrency=" + concurrency,
+            "transfer.lanes.batch.maxConcurrency=" + concurrency,
+            // Batches beyond the executor's capacity queue in the lane rather than being shed
+            "transfer.lanes.batch.queueCapacity=100000",
+            "transfer.lanes.batch.queueTimeout=1m",
+            "ledger.service.endpoint.pool.maxConnectionsPerRoute=" + concurrency,
+            "ledger.service.endpoint.pool.maxConnectionsTotal=" + concurrency,
+            "ledger.service.limit.enabled=false");
+    context.ledger().setDelayMillis(ledgerDelayMillis);
+    transferService = context.bean(TransferService.class);
+  }
+
+  // MockWebServer keeps every request it served
+  @TearDown(Level.Iteration)
+  public void forgetRequests() {
+    context.ledger().reset();
+    context.ledger().setDelayMillis(ledgerDelayMillis);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    context.close();
+  }
+
+  // Each JMH thread stands in for one request thread with a batch in flight
+  @Benchmark
+  @Threads(CONCURRENT_BATCHES)
+  public List<String> createBatch() {
+    return transferService.createBatch(context.nextTransfers(batchSize).toList());
+  }
+}
@@ -0,0 +1,65 @@
+package za.co.sanlam.transferservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.service.TransferService;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TransferService#createTransfer} end to end: insert, a call to the in-process stub ledger
+ * over HTTP and the status update; and a duplicate, answered from the stored status
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CreateTransferBenchmark {
+
+  private BenchmarkContext context;
+  private TransferService transferService;
+  private TransferDTO duplicate;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context = BenchmarkContext.start();
+    transferService = context.bean(TransferService.class);
+    duplicate = context.nextTransfer();
+    transferService.createTransfer(duplicate);
+  }
+
+  // MockWebServer keeps every request it served
+  @TearDown(Level.Iteration)
+  public void forgetRequests() {
+    context.ledger().reset();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    context.close();
+  }
+
+  @Benchmark
+  public String createTransfer() {
+    return transferService.createTransfer(context.nextTransfer());
+  }
+
+  @Benchmark
+  public String createTransferDuplicate() {
+    return transferService.createTransfer(duplicate);
+  }
+}
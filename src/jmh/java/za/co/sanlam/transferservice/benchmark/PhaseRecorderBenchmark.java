@@ -0,0 +1,70 @@
+package za.co.sanlam.transferservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import za.co.sanlam.transferservice.monitoring.PhaseRecorder;
+import za.co.sanlam.transferservice.monitoring.TransferMetrics.Phase;
+import za.co.sanlam.transferservice.properties.TransferLatencyProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the latency anatomy: tracing a single transfer's phases and recording them
+ * when it completes. Compare enabled=true with enabled=false for the overhead tracing adds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PhaseRecorderBenchmark {
+
+  private static final String PATH = "/transfers";
+  private static final Phase[] PHASES = {Phase.INSERT, Phase.LEDGER, Phase.UPDATE};
+
+  @Param({"true", "false"})
+  public boolean enabled;
+
+  private PhaseRecorder phaseRecorder;
+
+  @Setup
+  public void setup() {
+    TransferLatencyProperties properties = new TransferLatencyProperties();
+    properties.setEnabled(enabled);
+    phaseRecorder = new PhaseRecorder(properties);
+  }
+
+  @Benchmark
+  public void traceRequest() {
+    trace();
+  }
+
+  // Request threads trace their own requests; the histograms and slowest requests are shared
+  @Benchmark
+  @Threads(4)
+  public void traceRequestsConcurrently() {
+    trace();
+  }
+
+  // Phases are timed for their Micrometer timers anyway; tracing adds three clock reads
+  private void trace() {
+    phaseRecorder.start(PATH, System.nanoTime());
+    long now = System.nanoTime();
+    for (Phase phase : PHASES) {
+      phaseRecorder.record(phase, now, now += 1_000);
+    }
+    phaseRecorder.serializing(System.nanoTime());
+    phaseRecorder.finish(System.nanoTime());
+  }
+}
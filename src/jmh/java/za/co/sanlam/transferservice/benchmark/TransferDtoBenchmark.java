@@ -0,0 +1,73 @@
+package za.co.sanlam.transferservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** Reading and validating the body of POST /transfers, without the servlet stack around it */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransferDtoBenchmark {
+
+  private static final byte[] BODY =
+      ("{\"transferId\":\"a1b2c3d4-e5f6-7890-abcd-1234567890ef\",\"fromAccountId\":\"1\","
+              + "\"toAccountId\":\"2\",\"amount\":150.75}")
+          .getBytes();
+
+  private ObjectReader reader;
+  private ValidatorFactory validatorFactory;
+  private Validator validator;
+  private TransferDTO transfer;
+
+  @Setup
+  public void setup() throws IOException {
+    // Registers the parameter names module, as Spring Boot does
+    reader = new ObjectMapper().findAndRegisterModules().readerFor(TransferDTO.class);
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    transfer = reader.readValue(BODY);
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Benchmark
+  public TransferDTO deserialize() throws IOException {
+    return reader.readValue(BODY);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<TransferDTO>> validate() {
+    return validator.validate(transfer);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<TransferDTO>> deserializeAndValidate() throws IOException {
+    return validator.validate(reader.<TransferDTO>readValue(BODY));
+  }
+}
@@ -0,0 +1,83 @@
+package za.co.sanlam.transferservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+import za.co.sanlam.transferservice.service.TransferPersistenceService;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a {@link Transfer} and writing it to H2: through JPA, and through the insert-if-absent
+ * statement createTransfer uses
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransferPersistBenchmark {
+
+  private BenchmarkContext context;
+  private TransferRepository transferRepository;
+  private TransferPersistenceService transferPersistenceService;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context = BenchmarkContext.start();
+    transferRepository = context.bean(TransferRepository.class);
+    transferPersistenceService = context.bean(TransferPersistenceService.class);
+  }
+
+  // Each iteration starts from an empty table
+  @Setup(Level.Iteration)
+  public void clear() {
+    transferRepository.deleteAllInBatch();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    context.close();
+  }
+
+  @Benchmark
+  public Transfer build() {
+    return toEntity(context.nextTransfer());
+  }
+
+  @Benchmark
+  public Transfer persist() {
+    return transferRepository.save(toEntity(context.nextTransfer()));
+  }
+
+  @Benchmark
+  public Optional<TransferStatus> insertPending() {
+    return transferPersistenceService.insertPending(context.nextTransfer());
+  }
+
+  private static Transfer toEntity(TransferDTO request) {
+    return Transfer.builder()
+        .id(request.getTransferId())
+        .fromAccountId(request.getFromAccountId())
+        .toAccountId(request.getToAccountId())
+        .amount(request.getAmount())
+        .status(TransferStatus.UNKNOWN)
+        .build();
+  }
+}
@@ -0,0 +1,175 @@
+package za.co.sanlam.transferservice.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import za.co.sanlam.transferservice.client.LedgerConcurrencyLimiter;
+import za.co.sanlam.transferservice.exception.TransferOverloadedException;
+import za.co.sanlam.transferservice.properties.TransferAdmissionProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Decides whether a transfer request is admitted. Admitted requests are counted in ledger calls
+ * they are expected to make; the queueing delay a new request would see is estimated from the
+ * work beyond the ledger's current concurrency limit and the average time a ledger call's worth
+ * of work takes. That average is only sampled from single transfers, whose cost is exactly one
+ * ledger call; batches and streams are admitted with an assumed cost that says nothing about the
+ * calls they actually made. A request whose estimate exceeds its priority's budget is shed up
+ * front rather than accepted and failed later.
+ */
+@Slf4j
+@Component
+public class AdmissionControl {
+
+  /** Request classes; batch work is shed before single transfers */
+  public enum Priority {
+    SINGLE,
+    BATCH
+  }
+
+  /** Outcome of an admission check */
+  public record Decision(boolean admitted, Duration retryAfter) {
+
+    private static final Decision ADMITTED = new Decision(true, Duration.ZERO);
+
+    static Decision shed(Duration retryAfter) {
+      return new Decision(false, retryAfter);
+    }
+  }
+
+  private final TransferAdmissionProperties properties;
+  private final DoubleSupplier capacity;
+  private final AtomicInteger work = new AtomicInteger();
+  private final Map<Priority, Counter> shedCounters = new EnumMap<>(Priority.class);
+  private final Counter rejectedCounter;
+
+  // Average nanos per ledger call's worth of work, 0 until a single transfer completes
+  private volatile double unitNanos;
+
+  @Autowired
+  public AdmissionControl(
+      TransferAdmissionProperties properties,
+      LedgerConcurrencyLimiter limiter,
+      MeterRegistry meterRegistry) {
+    this(properties, limiter::getLimit, meterRegistry);
+  }
+
+  AdmissionControl(
+      TransferAdmissionProperties properties,
+      DoubleSupplier capacity,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.capacity = capacity;
+
+    for (Priority priority : Priority.values()) {
+      shedCounters.put(
+          priority,
+          Counter.builder("transfer.admission.shed")
+              .description("Transfer requests rejected with 429 before any work was done")
+              .tag("priority", priority.name().toLowerCase())
+              .tag("reason", "queue_delay")
+              .register(meterRegistry));
+    }
+    this.rejectedCounter =
+        Counter.builder("transfer.admission.shed")
+            .description("Transfer requests rejected with 429 before any work was done")
+            .tag("priority", Priority.BATCH.name().toLowerCase())
+            .tag("reason", "executor")
+            .register(meterRegistry);
+    Gauge.builder("transfer.admission.work", work, AtomicInteger::get)
+        .description("Ledger calls expected by admitted transfer requests")
+        .register(meterRegistry);
+    Gauge.builder("transfer.admission.queue.delay", this, control -> control.estimateNanos(0) / 1e9)
+        .description("Estimated queueing delay in seconds of the next transfer request")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Admits a request, or sheds it when it would queue for longer than its priority allows. An
+   * admitted request must be {@link #complete completed}.
+   *
+   * @param priority request class
+   * @param cost ledger calls the request is expected to make
+   * @return whether the request is admitted, and otherwise when to retry
+   */
+  public Decision tryAdmit(Priority priority, int cost) {
+    if (!properties.isEnabled()) {
+      return Decision.ADMITTED;
+    }
+
+    final long delayNanos = estimateNanos(cost);
+    if (delayNanos > maxQueueDelay(priority).toNanos()) {
+      shedCounters.get(priority).increment();
+      log.warn("Shedding {} request, queueing delay: {}ms", priority, delayNanos / 1_000_000);
+      return Decision.shed(retryAfter(delayNanos));
+    }
+
+    work.addAndGet(cost);
+    return Decision.ADMITTED;
+  }
+
+  /**
+   * Releases an admitted request; the duration of a single transfer also feeds the service time
+   * estimate
+   *
+   * @param priority request class the request was admitted as
+   * @param cost ledger calls the request was admitted with
+   * @param elapsedNanos time the request took
+   */
+  public void complete(Priority priority, int cost, long elapsedNanos) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    work.addAndGet(-cost);
+    if (priority != Priority.SINGLE) {
+      return;
+    }
+
+    final double sample = (double) elapsedNanos / cost;
+    final double current = unitNanos;
+    unitNanos = current == 0 ? sample : current + (sample - current) * properties.getSmoothing();
+  }
+
+  /**
+   * Counts transfers the transfer executor rejected although their request was admitted
+   *
+   * @param count transfers not sent to the ledger
+   * @return exception telling the client to retry
+   */
+  public TransferOverloadedException executorRejected(int count) {
+    rejectedCounter.increment();
+    log.warn("Transfer executor rejected {} transfers", count);
+    return new TransferOverloadedException(
+        "Transfer executor is saturated, " + count + " transfers not sent to the ledger",
+        properties.getRejectedRetryAfter());
+  }
+
+  int getWork() {
+    return work.get();
+  }
+
+  private long estimateNanos(int cost) {
+    final double slots = Math.max(1, capacity.getAsDouble());
+    final double excess = work.get() + cost - slots;
+    return excess <= 0 ? 0 : (long) (excess / slots * unitNanos);
+  }
+
+  private Duration maxQueueDelay(Priority priority) {
+    return priority == Priority.SINGLE
+        ? properties.getSingleMaxQueueDelay()
+        : properties.getBatchMaxQueueDelay();
+  }
+
+  // Whole seconds, as Retry-After requires, and never zero
+  private static Duration retryAfter(long delayNanos) {
+    return Duration.ofSeconds(Math.max(1, (delayNanos + 999_999_999L) / 1_000_000_000L));
+  }
+}
@@ -0,0 +1,90 @@
+package za.co.sanlam.transferservice.admission;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import za.co.sanlam.transferservice.properties.TransferAdmissionProperties;
+
+import java.util.Objects;
+
+/**
+ * Applies {@link AdmissionControl} to the transfer-creating endpoints before the controller runs.
+ * Shed requests get 429 with Retry-After. Admitted streaming requests are released when their
+ * async dispatch completes, so a stream counts for as long as it runs.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+  private static final String ADMITTED = AdmissionInterceptor.class.getName() + ".ADMITTED";
+  private static final String RESPOND_ASYNC = "respond-async";
+
+  private final AdmissionControl admissionControl;
+  private final TransferAdmissionProperties properties;
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+      throws Exception {
+    if (request.getDispatcherType() == DispatcherType.ASYNC
+        || !HttpMethod.POST.matches(request.getMethod())) {
+      return true;
+    }
+
+    final Admission admission = classify(request);
+    if (Objects.isNull(admission)) {
+      return true;
+    }
+
+    final AdmissionControl.Decision decision =
+        admissionControl.tryAdmit(admission.priority(), admission.cost());
+    if (!decision.admitted()) {
+      response.setHeader(
+          HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfter().toSeconds()));
+      response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+      return false;
+    }
+
+    request.setAttribute(ADMITTED, new Admitted(admission, System.nanoTime()));
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    if (request.getAttribute(ADMITTED) instanceof Admitted admitted) {
+      request.removeAttribute(ADMITTED);
+      admissionControl.complete(
+          admitted.admission().priority(),
+          admitted.admission().cost(),
+          System.nanoTime() - admitted.startNanos());
+    }
+  }
+
+  // Accepted async transfers only write to the database, the outbox calls the ledger later
+  private Admission classify(HttpServletRequest request) {
+    final String path = request.getRequestURI().substring(request.getContextPath().length());
+    return switch (path) {
+      case "/transfers" -> {
+        final String prefer = request.getHeader("Prefer");
+        yield Objects.nonNull(prefer) && prefer.contains(RESPOND_ASYNC)
+            ? null
+            : new Admission(AdmissionControl.Priority.SINGLE, 1);
+      }
+      case "/transfers/batch" ->
+          new Admission(AdmissionControl.Priority.BATCH, properties.getBatchCost());
+      case "/transfers/stream" ->
+          new Admission(AdmissionControl.Priority.BATCH, properties.getStreamCost());
+      default -> null;
+    };
+  }
+
+  private record Admission(AdmissionControl.Priority priority, int cost) {}
+
+  private record Admitted(Admission admission, long startNanos) {}
+}
@@ -0,0 +1,41 @@
+package za.co.sanlam.transferservice.admission;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import za.co.sanlam.transferservice.properties.TransferLaneProperties;
+
+import java.util.Objects;
+
+/**
+ * Sets the {@link TransferClient} of a transfer-creating request: the client header when sent,
+ * else the remote address.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClientInterceptor implements HandlerInterceptor {
+
+  private final TransferLaneProperties properties;
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getDispatcherType() == DispatcherType.REQUEST
+        && HttpMethod.POST.matches(request.getMethod())) {
+      final String header = request.getHeader(properties.getClientHeader());
+      TransferClient.set(
+          Objects.isNull(header) || header.isBlank() ? request.getRemoteAddr() : header.trim());
+    }
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    TransferClient.clear();
+  }
+}
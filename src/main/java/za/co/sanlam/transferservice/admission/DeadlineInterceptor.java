@@ -0,0 +1,65 @@
+package za.co.sanlam.transferservice.admission;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import za.co.sanlam.transferservice.client.LedgerDeadline;
+import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Starts the {@link LedgerDeadline} of a single or batch transfer request: the configured
+ * deadline, or less when the client sends the deadline header. Streams run for as long as their
+ * body lasts and get none.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeadlineInterceptor implements HandlerInterceptor {
+
+  private static final Set<String> PATHS = Set.of("/transfers", "/transfers/batch");
+
+  private final LedgerServiceProperties properties;
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    final String path = request.getRequestURI().substring(request.getContextPath().length());
+    if (request.getDispatcherType() == DispatcherType.REQUEST
+        && HttpMethod.POST.matches(request.getMethod())
+        && PATHS.contains(path)) {
+      LedgerDeadline.set(LedgerDeadline.after(timeout(request)));
+    }
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    LedgerDeadline.clear();
+  }
+
+  private Duration timeout(HttpServletRequest request) {
+    final Duration configured = properties.getDeadline();
+    final String header = request.getHeader(properties.getDeadlineHeader());
+    if (Objects.isNull(header)) {
+      return configured;
+    }
+
+    try {
+      final Duration requested = Duration.ofMillis(Long.parseLong(header.trim()));
+      return requested.compareTo(configured) < 0 ? requested : configured;
+    } catch (NumberFormatException e) {
+      log.warn("Ignoring invalid {} header: {}", properties.getDeadlineHeader(), header);
+      return configured;
+    }
+  }
+}
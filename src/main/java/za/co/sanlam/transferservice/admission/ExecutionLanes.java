@@ -0,0 +1,385 @@
+package za.co.sanlam.transferservice.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import za.co.sanlam.transferservice.client.LedgerDeadline;
+import za.co.sanlam.transferservice.exception.TransferOverloadedException;
+import za.co.sanlam.transferservice.properties.TransferAdmissionProperties;
+import za.co.sanlam.transferservice.properties.TransferLaneProperties;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Separate lanes for single transfers and for the items of batches, so neither can take every
+ * circuit breaker call and database connection from the other. Each lane bounds its running
+ * transfers and its queue, and all lanes share one overall bound. A freed slot goes to the
+ * waiting lane with the lowest pass, which advances by 1/weight per transfer started (stride
+ * scheduling), so while both lanes wait they get slots in proportion to their weights; a lane
+ * that was idle starts from the current pass rather than catching up. Within a lane, waiting
+ * transfers are queued per {@link TransferClient} and served round-robin, so one client's large
+ * batch cannot hold every worker while another client waits.
+ */
+@Slf4j
+@Component
+public class ExecutionLanes {
+
+  /** Kinds of transfer work that are scheduled separately */
+  public enum Lane {
+    // Synchronous single transfers, run on the request thread
+    SINGLE,
+    // Per-item ledger calls of batches, run on the executor they are submitted with
+    BATCH
+  }
+
+  private final boolean enabled;
+  private final int maxConcurrency;
+  private final Duration retryAfter;
+  private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+  private final Object lock = new Object();
+
+  private int running;
+
+  // Pass of the last lane given a slot; a lane becoming busy again starts from here
+  private double virtualTime;
+
+  public ExecutionLanes(
+      TransferLaneProperties properties,
+      TransferAdmissionProperties admissionProperties,
+      MeterRegistry meterRegistry) {
+    this.enabled = properties.isEnabled();
+    this.maxConcurrency = properties.getMaxConcurrency();
+    this.retryAfter = admissionProperties.getRejectedRetryAfter();
+    lanes.put(Lane.SINGLE, new LaneState(Lane.SINGLE, properties.getSingle(), meterRegistry));
+    lanes.put(Lane.BATCH, new LaneState(Lane.BATCH, properties.getBatch(), meterRegistry));
+  }
+
+  /**
+   * Runs work on the calling thread once its lane has a slot for it
+   *
+   * @param lane lane the work belongs to
+   * @param work the transfer
+   * @return what the work returned
+   * @throws TransferOverloadedException when the lane's queue is full, or no slot came within its
+   *     queue timeout or the request deadline
+   */
+  public <T> T run(Lane lane, Supplier<T> work) {
+    if (!enabled) {
+      return work.get();
+    }
+    final LaneState state = lanes.get(lane);
+    final CompletableFuture<Void> granted = new CompletableFuture<>();
+    final Ticket ticket =
+        new Ticket(
+            state,
+            TransferClient.current(),
+            System.nanoTime(),
+            () -> granted.complete(null),
+            granted::completeExceptionally);
+    if (!enqueue(ticket)) {
+      throw new TransferOverloadedException(
+          "The " + state.name + " lane queue is full", retryAfter);
+    }
+
+    await(ticket, granted);
+    try {
+      return work.get();
+    } finally {
+      release(state);
+    }
+  }
+
+  /**
+   * Queues work to run on the executor once its lane has a slot for it. The work keeps the
+   * {@link LedgerDeadline} of the submitting thread.
+   *
+   * @param lane lane the work belongs to
+   * @param work the transfer
+   * @param executor executor the work runs on
+   * @return what the work returned; failed with {@link TransferOverloadedException} when it
+   *     waited longer than the lane's queue timeout
+   * @throws RejectedExecutionException when the lane's queue is full
+   */
+  public <T> CompletableFuture<T> submit(Lane lane, Supplier<T> work, Executor executor) {
+    if (!enabled) {
+      return CompletableFuture.supplyAsync(work, executor);
+    }
+    final LaneState state = lanes.get(lane);
+    final CompletableFuture<T> result = new CompletableFuture<>();
+
+    // The slot is freed before the result is seen, so the caller's next transfer can take it
+    final Runnable task =
+        LedgerDeadline.wrap(
+            () -> {
+              T value = null;
+              RuntimeException failure = null;
+              try {
+                value = work.get();
+              } catch (RuntimeException ex) {
+                failure = ex;
+              } finally {
+                release(state);
+              }
+              if (Objects.isNull(failure)) {
+                result.complete(value);
+              } else {
+                result.completeExceptionally(failure);
+              }
+            });
+    final Runnable start =
+        () -> {
+          try {
+            executor.execute(task);
+          } catch (RejectedExecutionException ex) {
+            release(state);
+            result.completeExceptionally(ex);
+          }
+        };
+
+    final Ticket ticket =
+        new Ticket(
+            state,
+            TransferClient.current(),
+            System.nanoTime(),
+            start,
+            result::completeExceptionally);
+    if (!enqueue(ticket)) {
+      throw new RejectedExecutionException("The " + state.name + " lane queue is full");
+    }
+    return result;
+  }
+
+  int running(Lane lane) {
+    synchronized (lock) {
+      return lanes.get(lane).running;
+    }
+  }
+
+  int queued(Lane lane) {
+    synchronized (lock) {
+      return lanes.get(lane).queued;
+    }
+  }
+
+  // Starts the ticket at once when its lane is idle and has a slot, else queues it
+  private boolean enqueue(Ticket ticket) {
+    final LaneState state = ticket.state();
+    synchronized (lock) {
+      boolean start = false;
+      if (state.queued == 0) {
+        state.pass = Math.max(state.pass, virtualTime);
+        start = state.running < state.maxConcurrency && running < maxConcurrency;
+      }
+      if (!start) {
+        if (state.queued >= state.queueCapacity) {
+          state.rejectedCounter.increment();
+          return false;
+        }
+        state.add(ticket);
+        return true;
+      }
+      charge(state);
+    }
+    grant(ticket, ticket.enqueuedNanos());
+    return true;
+  }
+
+  private void await(Ticket ticket, CompletableFuture<Void> granted) {
+    final LaneState state = ticket.state();
+    final long timeoutNanos =
+        LedgerDeadline.current()
+            .map(deadline -> Math.min(deadline.remaining().toNanos(), state.timeoutNanos))
+            .orElse(state.timeoutNanos);
+    try {
+      granted.get(timeoutNanos, TimeUnit.NANOSECONDS);
+      return;
+    } catch (ExecutionException ex) {
+      throw (RuntimeException) ex.getCause();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (TimeoutException ex) {
+      // Given up below
+    }
+
+    final boolean withdrawn;
+    synchronized (lock) {
+      withdrawn = state.remove(ticket);
+    }
+    if (withdrawn) {
+      state.rejectedCounter.increment();
+      throw timedOut(state);
+    }
+    // Granted or timed out by the dispatcher while this thread was giving up
+    try {
+      granted.join();
+    } catch (CompletionException ex) {
+      throw (RuntimeException) ex.getCause();
+    }
+  }
+
+  // Hands freed slots to waiting transfers; they are started outside the lock
+  private void release(LaneState state) {
+    final List<Ticket> granted = new ArrayList<>();
+    final List<Ticket> timedOut = new ArrayList<>();
+    final long now = System.nanoTime();
+    synchronized (lock) {
+      state.running--;
+      running--;
+
+      while (running < maxConcurrency) {
+        final LaneState next = next();
+        if (Objects.isNull(next)) {
+          break;
+        }
+        final Ticket ticket = next.poll();
+        if (now - ticket.enqueuedNanos() > next.timeoutNanos) {
+          next.rejectedCounter.increment();
+          timedOut.add(ticket);
+        } else {
+          charge(next);
+          granted.add(ticket);
+        }
+      }
+    }
+    timedOut.forEach(ticket -> ticket.reject().accept(timedOut(ticket.state())));
+    granted.forEach(ticket -> grant(ticket, now));
+  }
+
+  // Lowest pass among lanes with transfers waiting and a free slot; ties go to SINGLE
+  private LaneState next() {
+    LaneState next = null;
+    for (LaneState state : lanes.values()) {
+      if (state.queued > 0
+          && state.running < state.maxConcurrency
+          && (Objects.isNull(next) || state.pass < next.pass)) {
+        next = state;
+      }
+    }
+    return next;
+  }
+
+  private void charge(LaneState state) {
+    virtualTime = state.pass;
+    state.pass += state.stride;
+    state.running++;
+    running++;
+  }
+
+  private static void grant(Ticket ticket, long nowNanos) {
+    ticket.state().queueTimer.record(nowNanos - ticket.enqueuedNanos(), TimeUnit.NANOSECONDS);
+    ticket.start().run();
+  }
+
+  private TransferOverloadedException timedOut(LaneState state) {
+    log.warn("Transfer waited too long for a slot in the {} lane", state.name);
+    return new TransferOverloadedException(
+        "No slot in the " + state.name + " lane within its queue timeout", retryAfter);
+  }
+
+  /** A transfer waiting for a slot in its lane */
+  private record Ticket(
+      LaneState state,
+      String client,
+      long enqueuedNanos,
+      Runnable start,
+      Consumer<RuntimeException> reject) {}
+
+  /** Slots, queue and pass of one lane; guarded by the lanes' lock */
+  private static final class LaneState {
+    private final String name;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final double stride;
+    private final long timeoutNanos;
+    private final Timer queueTimer;
+    private final Counter rejectedCounter;
+
+    // Waiting transfers per client, the client served longest ago first
+    private final Map<String, Deque<Ticket>> clients = new LinkedHashMap<>();
+
+    private int running;
+    private int queued;
+    private double pass;
+
+    private LaneState(Lane lane, TransferLaneProperties.Lane properties, MeterRegistry registry) {
+      this.name = lane.name().toLowerCase();
+      this.maxConcurrency = properties.getMaxConcurrency();
+      this.queueCapacity = properties.getQueueCapacity();
+      this.stride = 1.0 / Math.max(1, properties.getWeight());
+      this.timeoutNanos = properties.getQueueTimeout().toNanos();
+
+      this.queueTimer =
+          Timer.builder("transfer.lane.queue")
+              .description("Time transfers waited for a slot in their lane")
+              .tag("lane", name)
+              .publishPercentileHistogram()
+              .minimumExpectedValue(Duration.ofMillis(1))
+              .maximumExpectedValue(Duration.ofSeconds(30))
+              .register(registry);
+      this.rejectedCounter =
+          Counter.builder("transfer.lane.rejected")
+              .description("Transfers rejected by a full lane queue or its queue timeout")
+              .tag("lane", name)
+              .register(registry);
+      Gauge.builder("transfer.lane.active", this, state -> state.running)
+          .description("Transfers running in the lane")
+          .tag("lane", name)
+          .register(registry);
+      Gauge.builder("transfer.lane.queued", this, state -> state.queued)
+          .description("Transfers waiting for a slot in the lane")
+          .tag("lane", name)
+          .register(registry);
+    }
+
+    private void add(Ticket ticket) {
+      clients.computeIfAbsent(ticket.client(), client -> new ArrayDeque<>()).add(ticket);
+      queued++;
+    }
+
+    // Oldest transfer of the client served longest ago, which then moves to the back
+    private Ticket poll() {
+      final Iterator<Map.Entry<String, Deque<Ticket>>> iterator = clients.entrySet().iterator();
+      final Map.Entry<String, Deque<Ticket>> first = iterator.next();
+      iterator.remove();
+      final Ticket ticket = first.getValue().poll();
+      if (!first.getValue().isEmpty()) {
+        clients.put(first.getKey(), first.getValue());
+      }
+      queued--;
+      return ticket;
+    }
+
+    private boolean remove(Ticket ticket) {
+      final Deque<Ticket> waiting = clients.get(ticket.client());
+      if (Objects.isNull(waiting) || !waiting.remove(ticket)) {
+        return false;
+      }
+      if (waiting.isEmpty()) {
+        clients.remove(ticket.client());
+      }
+      queued--;
+      return true;
+    }
+  }
+}
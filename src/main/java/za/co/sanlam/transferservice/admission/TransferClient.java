@@ -0,0 +1,31 @@
+package za.co.sanlam.transferservice.admission;
+
+import java.util.Objects;
+
+/**
+ * Client a transfer request is made for, used by {@link ExecutionLanes} to share a lane fairly
+ * between clients. Set on the request thread by the {@link ClientInterceptor}; work not done for
+ * a request, e.g. outbox and reconciler settling, belongs to the background client.
+ */
+public final class TransferClient {
+
+  public static final String BACKGROUND = "background";
+
+  private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+  private TransferClient() {}
+
+  /** Client of the request handled by this thread, else the background client */
+  public static String current() {
+    final String client = CURRENT.get();
+    return Objects.isNull(client) ? BACKGROUND : client;
+  }
+
+  public static void set(String client) {
+    CURRENT.set(client);
+  }
+
+  public static void clear() {
+    CURRENT.remove();
+  }
+}
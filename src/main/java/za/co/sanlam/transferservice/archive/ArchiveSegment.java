@@ -0,0 +1,490 @@
+package za.co.sanlam.transferservice.archive;
+
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An immutable, memory-mapped file of archived transfers sorted by transferId.
+ *
+ * <pre>
+ * [block]...[bloom filter][sparse index][footer]
+ *   block        int rawLength, int compressedLength, deflated rows
+ *   row          id, fromAccountId, toAccountId, amount, status, created (epoch millis, UTC)
+ *   sparse index first transferId and offset of every block, then the last transferId
+ *   footer       long bloomOffset, int bloomLength, long indexOffset, int blockCount,
+ *                int rowCount, int version, int magic
+ * </pre>
+ *
+ * The id range, sparse index and bloom filter are read onto the heap when the segment is opened,
+ * so a lookup for a transfer the segment does not hold touches no file at all. Otherwise the
+ * blocks are read through a mapping the caller supplies: binary search the sparse index, then
+ * inflate the single block that can hold the transfer.
+ */
+final class ArchiveSegment {
+
+  static final String EXTENSION = ".seg";
+
+  private static final int MAGIC = 0x54524152;
+  private static final int VERSION = 1;
+  private static final int FOOTER_LENGTH = Long.BYTES * 2 + Integer.BYTES * 5;
+  private static final int BLOOM_HASHES = 7;
+  private static final long NO_CREATED = Long.MIN_VALUE;
+
+  private final Path path;
+  private final long bloomOffset;
+  private final byte[] bloom;
+  private final String[] firstIds;
+  private final long[] blockOffsets;
+  private final String lastId;
+  private final int rowCount;
+
+  private ArchiveSegment(
+      Path path,
+      long bloomOffset,
+      byte[] bloom,
+      String[] firstIds,
+      long[] blockOffsets,
+      String lastId,
+      int rowCount) {
+    this.path = path;
+    this.bloomOffset = bloomOffset;
+    this.bloom = bloom;
+    this.firstIds = firstIds;
+    this.blockOffsets = blockOffsets;
+    this.lastId = lastId;
+    this.rowCount = rowCount;
+  }
+
+  /**
+   * Writes transfers to a new segment. The file only becomes visible under {@code target} once it
+   * is complete and synced, so a crash never leaves a partial segment behind.
+   *
+   * @param target segment file to create
+   * @param transfers transfers to archive, in any order
+   * @param blockSize transfers per compressed block
+   * @param bloomBitsPerRow bloom filter size; 10 bits gives about 1% false positives
+   */
+  static void write(Path target, List<Transfer> transfers, int blockSize, int bloomBitsPerRow)
+      throws IOException {
+    final List<Transfer> rows = new ArrayList<>(transfers);
+    rows.sort(Comparator.comparing(Transfer::getId));
+    write(target, rows.iterator(), rows.size(), blockSize, bloomBitsPerRow);
+  }
+
+  /**
+   * Writes transfers that are already sorted by transferId to a new segment, one block at a time
+   *
+   * @param target segment file to create
+   * @param rows transfers sorted by transferId, without duplicates
+   * @param expectedRows upper bound on the number of rows, used to size the bloom filter
+   * @param blockSize transfers per compressed block
+   * @param bloomBitsPerRow bloom filter size; 10 bits gives about 1% false positives
+   */
+  static void write(
+      Path target, Iterator<Transfer> rows, int expectedRows, int blockSize, int bloomBitsPerRow)
+      throws IOException {
+    // Whole bytes, so a reader derives the same bit count from the stored length
+    final int bloomBits =
+        Math.max(1, (expectedRows * bloomBitsPerRow + Byte.SIZE - 1) / Byte.SIZE) * Byte.SIZE;
+    final BitSet bloom = new BitSet(bloomBits);
+    final List<String> firstIds = new ArrayList<>();
+    final List<Long> offsets = new ArrayList<>();
+
+    final Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+    try (FileChannel channel =
+            FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        CountingOutputStream counting =
+            new CountingOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel)));
+        DataOutputStream out = new DataOutputStream(counting)) {
+
+      final List<Transfer> block = new ArrayList<>(blockSize);
+      String lastId = "";
+      int rowCount = 0;
+      while (rows.hasNext()) {
+        block.add(rows.next());
+        if (block.size() == blockSize || !rows.hasNext()) {
+          firstIds.add(block.get(0).getId());
+          offsets.add(counting.count);
+          block.forEach(row -> setBloom(bloom, bloomBits, row.getId()));
+          writeBlock(out, block);
+          lastId = block.get(block.size() - 1).getId();
+          rowCount += block.size();
+          block.clear();
+        }
+      }
+
+      final long bloomOffset = counting.count;
+      final byte[] bloomBytes = Arrays.copyOf(bloom.toByteArray(), bloomBits / Byte.SIZE);
+      out.write(bloomBytes);
+
+      final long indexOffset = counting.count;
+      for (int i = 0; i < firstIds.size(); i++) {
+        out.writeUTF(firstIds.get(i));
+        out.writeLong(offsets.get(i));
+      }
+      out.writeUTF(lastId);
+
+      out.writeLong(bloomOffset);
+      out.writeInt(bloomBytes.length);
+      out.writeLong(indexOffset);
+      out.writeInt(firstIds.size());
+      out.writeInt(rowCount);
+      out.writeInt(VERSION);
+      out.writeInt(MAGIC);
+      out.flush();
+      channel.force(true);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tmp);
+      throw e;
+    }
+    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Merges the sorted rows of several segments into one sorted stream. When a transferId is in
+   * more than one source, the copy from the earliest source wins.
+   *
+   * @param sources rows of each segment, sorted by transferId, newest segment first
+   * @return rows sorted by transferId, without duplicates
+   */
+  static Iterator<Transfer> merge(List<Iterator<Transfer>> sources) {
+    return new MergedRows(sources);
+  }
+
+  /** Reads the footer, sparse index and bloom filter of an existing segment onto the heap */
+  static ArchiveSegment open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final long footer = channel.size() - FOOTER_LENGTH;
+      if (footer < 0) {
+        throw new IOException("Not an archive segment: " + path);
+      }
+      final ByteBuffer footerBytes = read(channel, footer, FOOTER_LENGTH);
+      if (footerBytes.getInt(FOOTER_LENGTH - Integer.BYTES) != MAGIC) {
+        throw new IOException("Not an archive segment: " + path);
+      }
+      final long bloomOffset = footerBytes.getLong(0);
+      final int bloomLength = footerBytes.getInt(Long.BYTES);
+      final long indexOffset = footerBytes.getLong(Long.BYTES + Integer.BYTES);
+      final int blockCount = footerBytes.getInt(Long.BYTES * 2 + Integer.BYTES);
+      final int rowCount = footerBytes.getInt(Long.BYTES * 2 + Integer.BYTES * 2);
+
+      final byte[] bloom = read(channel, bloomOffset, bloomLength).array();
+      final DataInputStream index =
+          new DataInputStream(
+              new ByteArrayInputStream(
+                  read(channel, indexOffset, (int) (footer - indexOffset)).array()));
+      final String[] firstIds = new String[blockCount];
+      final long[] blockOffsets = new long[blockCount];
+      for (int i = 0; i < blockCount; i++) {
+        firstIds[i] = index.readUTF();
+        blockOffsets[i] = index.readLong();
+      }
+      final String lastId = index.readUTF();
+
+      return new ArchiveSegment(
+          path, bloomOffset, bloom, firstIds, blockOffsets, lastId, rowCount);
+    }
+  }
+
+  /** Maps the blocks of the segment, for {@link #find} and {@link #rows} */
+  MappedByteBuffer map() throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, bloomOffset);
+    }
+  }
+
+  Path path() {
+    return path;
+  }
+
+  int rowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Checks the id range and the bloom filter, without touching the file
+   *
+   * @param transferId transfer to find
+   * @return false when the transfer is certainly not in this segment
+   */
+  boolean mightContain(String transferId) {
+    if (firstIds.length == 0
+        || transferId.compareTo(firstIds[0]) < 0
+        || transferId.compareTo(lastId) > 0) {
+      return false;
+    }
+    final int bloomBits = bloom.length * Byte.SIZE;
+    final int h1 = transferId.hashCode();
+    final int h2 = fnv1a(transferId);
+    for (int i = 0; i < BLOOM_HASHES; i++) {
+      final int bit = Math.floorMod(h1 + i * h2, bloomBits);
+      if ((bloom[bit / Byte.SIZE] & (1 << (bit % Byte.SIZE))) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds an archived transfer
+   *
+   * @param transferId transfer to find
+   * @param blocks mapping of this segment, from {@link #map}
+   * @return the archived transfer, or empty when it is not in this segment
+   */
+  Optional<Transfer> find(String transferId, ByteBuffer blocks) throws IOException {
+    if (!mightContain(transferId)) {
+      return Optional.empty();
+    }
+
+    // Last block whose first transferId is not after the one we are looking for
+    int block = Arrays.binarySearch(firstIds, transferId);
+    if (block < 0) {
+      block = -block - 2;
+    }
+
+    for (Transfer row : readBlock(blocks, block)) {
+      final int order = row.getId().compareTo(transferId);
+      if (order == 0) {
+        return Optional.of(row);
+      }
+      if (order > 0) {
+        break;
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Reads every row, one block at a time
+   *
+   * @param blocks mapping of this segment, from {@link #map}
+   * @return rows sorted by transferId; read failures are thrown as {@link UncheckedIOException}
+   */
+  Iterator<Transfer> rows(ByteBuffer blocks) {
+    return IntStream.range(0, blockOffsets.length)
+        .boxed()
+        .flatMap(
+            block -> {
+              try {
+                return readBlock(blocks, block).stream();
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            })
+        .iterator();
+  }
+
+  private List<Transfer> readBlock(ByteBuffer blocks, int block) throws IOException {
+    final int offset = (int) blockOffsets[block];
+    final int rawLength = blocks.getInt(offset);
+    final int compressedLength = blocks.getInt(offset + Integer.BYTES);
+    final int start = offset + Integer.BYTES * 2;
+
+    final byte[] raw = new byte[rawLength];
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(blocks.slice(start, compressedLength));
+      inflater.inflate(raw);
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt block " + block + " in " + path, e);
+    } finally {
+      inflater.end();
+    }
+
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+    final int count = in.readInt();
+    final List<Transfer> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      rows.add(readRow(in));
+    }
+    return rows;
+  }
+
+  private static void writeBlock(DataOutputStream out, List<Transfer> block) throws IOException {
+    final ByteArrayOutputStream raw = new ByteArrayOutputStream();
+    final DataOutputStream rows = new DataOutputStream(raw);
+    rows.writeInt(block.size());
+    for (Transfer row : block) {
+      writeRow(rows, row);
+    }
+    rows.flush();
+
+    final byte[] input = raw.toByteArray();
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream(input.length / 2 + 64);
+    try {
+      deflater.setInput(input);
+      deflater.finish();
+      final byte[] chunk = new byte[8192];
+      while (!deflater.finished()) {
+        compressed.write(chunk, 0, deflater.deflate(chunk));
+      }
+    } finally {
+      deflater.end();
+    }
+
+    out.writeInt(input.length);
+    out.writeInt(compressed.size());
+    compressed.writeTo(out);
+  }
+
+  private static void writeRow(DataOutputStream out, Transfer row) throws IOException {
+    out.writeUTF(row.getId());
+    out.writeUTF(row.getFromAccountId());
+    out.writeUTF(row.getToAccountId());
+    out.writeUTF(row.getAmount().toPlainString());
+    out.writeUTF(row.getStatus().name());
+    out.writeLong(
+        row.getCreated() == null
+            ? NO_CREATED
+            : row.getCreated().toInstant(ZoneOffset.UTC).toEpochMilli());
+  }
+
+  private static Transfer readRow(DataInputStream in) throws IOException {
+    final Transfer row =
+        Transfer.builder()
+            .id(in.readUTF())
+            .fromAccountId(in.readUTF())
+            .toAccountId(in.readUTF())
+            .amount(new BigDecimal(in.readUTF()))
+            .status(TransferStatus.valueOf(in.readUTF()))
+            .build();
+    final long created = in.readLong();
+    if (created != NO_CREATED) {
+      row.setCreated(
+          LocalDateTime.ofInstant(Instant.ofEpochMilli(created), ZoneOffset.UTC));
+    }
+    return row;
+  }
+
+  private static void setBloom(BitSet bloom, int bloomBits, String transferId) {
+    final int h1 = transferId.hashCode();
+    final int h2 = fnv1a(transferId);
+    for (int i = 0; i < BLOOM_HASHES; i++) {
+      bloom.set(Math.floorMod(h1 + i * h2, bloomBits));
+    }
+  }
+
+  // Second, independent hash for double hashing; forced odd so the probe stride is never zero
+  private static int fnv1a(String value) {
+    int hash = 0x811c9dc5;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x01000193;
+    }
+    return hash | 1;
+  }
+
+  private static ByteBuffer read(FileChannel channel, long position, int length)
+      throws IOException {
+    final ByteBuffer bytes = ByteBuffer.allocate(length);
+    while (bytes.hasRemaining()) {
+      if (channel.read(bytes, position + bytes.position()) < 0) {
+        throw new EOFException("Truncated archive segment");
+      }
+    }
+    return bytes;
+  }
+
+  /** Rows of several sorted sources in transferId order; the earliest source wins a tie */
+  private static final class MergedRows implements Iterator<Transfer> {
+    private final List<Iterator<Transfer>> sources;
+    private final PriorityQueue<Head> heads =
+        new PriorityQueue<>(
+            Comparator.comparing((Head head) -> head.row().getId())
+                .thenComparingInt(Head::source));
+
+    private MergedRows(List<Iterator<Transfer>> sources) {
+      this.sources = sources;
+      for (int source = 0; source < sources.size(); source++) {
+        advance(source);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @Override
+    public Transfer next() {
+      final Head head = heads.poll();
+      if (Objects.isNull(head)) {
+        throw new NoSuchElementException();
+      }
+      advance(head.source());
+      // Older copies of the same transfer are skipped
+      while (!heads.isEmpty() && heads.peek().row().getId().equals(head.row().getId())) {
+        advance(heads.poll().source());
+      }
+      return head.row();
+    }
+
+    private void advance(int source) {
+      if (sources.get(source).hasNext()) {
+        heads.add(new Head(sources.get(source).next(), source));
+      }
+    }
+
+    private record Head(Transfer row, int source) {}
+  }
+
+  private static final class CountingOutputStream extends FilterOutputStream {
+    private long count;
+
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+  }
+}
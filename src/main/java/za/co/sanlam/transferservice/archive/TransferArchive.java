@@ -0,0 +1,263 @@
+package za.co.sanlam.transferservice.archive;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.TransferArchiveProperties;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only archive of transfers removed from the hot table, kept as compressed
+ * {@link ArchiveSegment} files in one directory per creation day. Every archive run adds new
+ * segments; once a day is closed, i.e. no transfer created on it can still be archived, its
+ * segments are merged into one, so the archive holds a single segment per past day.
+ *
+ * <p>Lookups search the segments newest first. The id range and bloom filter of every segment are
+ * on the heap, so only a segment that may hold the transfer is read, about one per lookup. Its
+ * blocks are read through a mapping; at most maxMappedSegments mappings are kept, the least
+ * recently used is dropped first. A lookup that runs while a merge replaces segments may find them
+ * gone; it then searches again, and finds the merged segment.
+ */
+@Slf4j
+@Component
+public class TransferArchive {
+
+  private final TransferArchiveProperties properties;
+
+  // Newest first: day directories and segment names both sort by time
+  private final Map<Path, ArchiveSegment> segments =
+      new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+
+  // Least recently used first; guarded by itself
+  private final Map<Path, MappedByteBuffer> mappings;
+
+  private final AtomicLong lastStamp = new AtomicLong();
+
+  // Bumped by every merge before it removes the segments it replaced
+  private final AtomicLong merges = new AtomicLong();
+
+  public TransferArchive(TransferArchiveProperties properties) {
+    this.properties = properties;
+    this.mappings =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Path, MappedByteBuffer> eldest) {
+            return size() > properties.getMaxMappedSegments();
+          }
+        };
+  }
+
+  @PostConstruct
+  void init() throws IOException {
+    if (!properties.isEnabled() || !Files.isDirectory(properties.getDirectory())) {
+      return;
+    }
+    try (Stream<Path> files = Files.walk(properties.getDirectory(), 2)) {
+      for (Path path : files.filter(this::isSegment).toList()) {
+        open(path);
+      }
+    }
+    log.info("Opened {} archive segments in {}", segments.size(), properties.getDirectory());
+  }
+
+  /**
+   * Archives transfers into one new segment per creation day; the segments are complete and
+   * synced to disk when this returns
+   *
+   * @param transfers transfers about to be deleted from the hot table
+   */
+  public void append(List<Transfer> transfers) {
+    if (!properties.isEnabled() || transfers.isEmpty()) {
+      return;
+    }
+
+    final Map<LocalDate, List<Transfer>> days =
+        transfers.stream()
+            .collect(
+                Collectors.groupingBy(
+                    transfer ->
+                        Objects.isNull(transfer.getCreated())
+                            ? LocalDate.now()
+                            : transfer.getCreated().toLocalDate()));
+
+    try {
+      for (Map.Entry<LocalDate, List<Transfer>> day : days.entrySet()) {
+        final Path directory = properties.getDirectory().resolve(day.getKey().toString());
+        Files.createDirectories(directory);
+
+        final Path segment = directory.resolve(nextSegmentName());
+        ArchiveSegment.write(
+            segment, day.getValue(), properties.getBlockSize(), properties.getBloomBitsPerRow());
+        open(segment);
+        log.info("Archived {} transfers to {}", day.getValue().size(), segment);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to archive transfers", e);
+    }
+  }
+
+  /**
+   * Merges the segments of every day before {@code day} into one segment per day, keeping the
+   * most recently archived copy of each transfer. A day that fails to merge keeps its segments
+   * and is merged again on the next call.
+   *
+   * @param day first day that may still get transfers archived
+   */
+  public void seal(LocalDate day) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+
+    // Newest segment first within each day, as the segments are ordered
+    final Map<Path, List<ArchiveSegment>> closed =
+        segments.values().stream()
+            .filter(segment -> isBefore(segment.path().getParent(), day))
+            .collect(
+                Collectors.groupingBy(
+                    segment -> segment.path().getParent(),
+                    LinkedHashMap::new,
+                    Collectors.toList()));
+
+    closed.forEach(
+        (directory, daySegments) -> {
+          if (daySegments.size() > 1) {
+            try {
+              merge(directory, daySegments);
+            } catch (IOException | UncheckedIOException e) {
+              log.error("Failed to merge archive segments in {}: {}", directory, e.getMessage());
+            }
+          }
+        });
+  }
+
+  /**
+   * Finds an archived transfer
+   *
+   * @param transferId transfer to find
+   * @return the most recently archived copy, or empty when the transfer was never archived
+   */
+  public Optional<Transfer> find(String transferId) {
+    long merged;
+    do {
+      merged = merges.get();
+      for (ArchiveSegment segment : segments.values()) {
+        if (!segment.mightContain(transferId)) {
+          continue;
+        }
+        try {
+          final Optional<Transfer> transfer = segment.find(transferId, mapping(segment));
+          if (transfer.isPresent()) {
+            return transfer;
+          }
+        } catch (IOException e) {
+          // A segment replaced by a merge is expected to vanish under a lookup
+          if (merges.get() == merged) {
+            log.error("Failed to read archive segment {}: {}", segment.path(), e.getMessage());
+          }
+        }
+      }
+      // A merge during the lookup may have removed segments it had not reached yet, or deleted
+      // them before they were mapped; the merged segment was visible before, so search again
+    } while (merges.get() != merged);
+    return Optional.empty();
+  }
+
+  public Optional<TransferStatus> findStatus(String transferId) {
+    return find(transferId).map(Transfer::getStatus);
+  }
+
+  int mappedSegments() {
+    synchronized (mappings) {
+      return mappings.size();
+    }
+  }
+
+  // The merged segment is visible before the ones it replaces go, and lookups that overlap their
+  // removal search again, so a transfer is never reported missing while its day is merged
+  private void merge(Path directory, List<ArchiveSegment> daySegments) throws IOException {
+    final List<Iterator<Transfer>> sources = new ArrayList<>();
+    int rows = 0;
+    for (ArchiveSegment segment : daySegments) {
+      sources.add(segment.rows(segment.map()));
+      rows += segment.rowCount();
+    }
+
+    final Path merged = directory.resolve(nextSegmentName());
+    ArchiveSegment.write(
+        merged,
+        ArchiveSegment.merge(sources),
+        rows,
+        properties.getBlockSize(),
+        properties.getBloomBitsPerRow());
+    open(merged);
+
+    merges.incrementAndGet();
+    for (ArchiveSegment segment : daySegments) {
+      segments.remove(segment.path());
+      synchronized (mappings) {
+        mappings.remove(segment.path());
+      }
+      Files.deleteIfExists(segment.path());
+    }
+    log.info("Merged {} archive segments into {}", daySegments.size(), merged);
+  }
+
+  private MappedByteBuffer mapping(ArchiveSegment segment) throws IOException {
+    synchronized (mappings) {
+      MappedByteBuffer mapping = mappings.get(segment.path());
+      if (Objects.isNull(mapping)) {
+        mapping = segment.map();
+        // Not cached once a merge has removed the segment, as nothing would drop it but eviction
+        if (segments.get(segment.path()) == segment) {
+          mappings.put(segment.path(), mapping);
+        }
+      }
+      return mapping;
+    }
+  }
+
+  // Wall-clock millis, bumped so segments written in the same millisecond still sort in order
+  private String nextSegmentName() {
+    final long stamp =
+        lastStamp.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    return String.format("segment-%019d%s", stamp, ArchiveSegment.EXTENSION);
+  }
+
+  private static boolean isBefore(Path directory, LocalDate day) {
+    try {
+      return LocalDate.parse(directory.getFileName().toString()).isBefore(day);
+    } catch (DateTimeParseException e) {
+      return false;
+    }
+  }
+
+  private boolean isSegment(Path path) {
+    return Files.isRegularFile(path)
+        && path.getFileName().toString().endsWith(ArchiveSegment.EXTENSION);
+  }
+
+  private void open(Path path) throws IOException {
+    segments.put(path, ArchiveSegment.open(path));
+  }
+}
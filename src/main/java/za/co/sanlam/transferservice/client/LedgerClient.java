@@ -0,0 +1,36 @@
+package za.co.sanlam.transferservice.client;
+
+import reactor.core.publisher.Mono;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+/** Client for the downstream ledger service */
+public interface LedgerClient {
+
+  /**
+   * Sends a single transfer to the ledger, blocking until it answers
+   *
+   * @param request transfer to post
+   * @return ledger status
+   */
+  String transfer(TransferDTO request);
+
+  /**
+   * Sends a single transfer to the ledger without blocking the caller
+   *
+   * @param request transfer to post
+   * @return ledger status
+   */
+  Mono<String> transferAsync(TransferDTO request);
+
+  /**
+   * Sends a batch of transfers to the ledger bulk path in one request
+   *
+   * @param requests transfers with their transferId resolved
+   * @return per-item ledger results, or empty when the ledger has no bulk path
+   */
+  Optional<List<TransferResultDTO>> transferBatch(List<TransferDTO> requests);
+}
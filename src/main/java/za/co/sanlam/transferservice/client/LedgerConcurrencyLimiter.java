@@ -0,0 +1,369 @@
+package za.co.sanlam.transferservice.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import za.co.sanlam.transferservice.exception.LedgerLimitExceededException;
+import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive limit on ledger calls in flight, applied by both ledger clients to single and batch
+ * calls alike. Additive increase while the ledger answers within tolerance of its baseline
+ * latency, multiplicative decrease when it slows down or fails, so in-flight calls track what the
+ * ledger can absorb rather than the size of the thread pools calling it. Calls over the limit wait
+ * up to maxWait for a slot, blocking callers on a condition and non-blocking ones in a queue served
+ * as slots free up, and are then rejected with {@link LedgerLimitExceededException}, which the
+ * circuit breaker ignores.
+ */
+@Slf4j
+@Component
+public class LedgerConcurrencyLimiter {
+
+  private final LedgerServiceProperties.Limit properties;
+  private final LongSupplier nanoClock;
+  private final Counter rejectedCounter;
+
+  // Not a monitor, so a virtual thread waiting for a slot does not pin its carrier
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition slotFreed = lock.newCondition();
+
+  // Non-blocking callers waiting for a slot, in arrival order; guarded by lock
+  private final Deque<Waiter> waiting = new ArrayDeque<>();
+
+  // Written under lock, read by the gauges without it
+  private volatile double limit;
+  private volatile int inFlight;
+
+  private double baselineNanos;
+  private long lastDecreaseNanos;
+
+  @Autowired
+  public LedgerConcurrencyLimiter(
+      LedgerServiceProperties properties, MeterRegistry meterRegistry) {
+    this(properties.getLimit(), meterRegistry, System::nanoTime);
+  }
+
+  LedgerConcurrencyLimiter(
+      LedgerServiceProperties.Limit properties,
+      MeterRegistry meterRegistry,
+      LongSupplier nanoClock) {
+    this.properties = properties;
+    this.nanoClock = nanoClock;
+    this.limit = properties.getInitialLimit();
+    this.lastDecreaseNanos = nanoClock.getAsLong();
+
+    Gauge.builder("ledger.concurrency.limit", this, LedgerConcurrencyLimiter::getLimit)
+        .description("Current adaptive limit on ledger calls in flight")
+        .register(meterRegistry);
+    Gauge.builder("ledger.concurrency.inflight", this, LedgerConcurrencyLimiter::getInFlight)
+        .description("Ledger calls in flight")
+        .register(meterRegistry);
+    this.rejectedCounter =
+        Counter.builder("ledger.concurrency.rejected")
+            .description("Ledger calls rejected at the concurrency limit")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Runs a blocking ledger call within the limit, waiting up to maxWait for a slot
+   *
+   * @param call ledger call
+   * @param sampleLatency false for calls whose latency scales with their size, e.g. batches;
+   *     their failures still reduce the limit
+   * @return the call's result
+   */
+  public <T> T call(Supplier<T> call, boolean sampleLatency) {
+    final Permit permit = acquire(properties.getMaxWait().toNanos());
+    final T result;
+    try {
+      result = call.get();
+    } catch (RuntimeException ex) {
+      permit.failed(ex);
+      throw ex;
+    }
+    permit.succeeded(sampleLatency);
+    return result;
+  }
+
+  /**
+   * Runs a non-blocking ledger call within the limit, waiting up to maxWait for a slot without
+   * holding a thread
+   *
+   * @param call ledger call, subscribed to once a slot is taken
+   * @return the call's result
+   */
+  public <T> Mono<T> callAsync(Supplier<Mono<T>> call) {
+    return acquireAsync()
+        .flatMap(
+            permit ->
+                call.get()
+                    .doOnSuccess(result -> permit.succeeded(true))
+                    .doOnError(permit::failed)
+                    .doOnCancel(permit::released));
+  }
+
+  public double getLimit() {
+    return limit;
+  }
+
+  public int getInFlight() {
+    return inFlight;
+  }
+
+  Permit acquire(long maxWaitNanos) {
+    if (!properties.isEnabled()) {
+      return new Permit(nanoClock.getAsLong(), false);
+    }
+
+    final long deadline = nanoClock.getAsLong() + maxWaitNanos;
+    lock.lock();
+    try {
+      while (inFlight >= (int) limit) {
+        final long remaining = deadline - nanoClock.getAsLong();
+        if (remaining <= 0) {
+          throw reject();
+        }
+        try {
+          slotFreed.awaitNanos(remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw reject();
+        }
+      }
+      return take();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  Mono<Permit> acquireAsync() {
+    final Duration maxWait = properties.getMaxWait();
+    final Mono<Permit> permit = Mono.create(this::enqueue);
+    return maxWait.isZero() ? permit : permit.timeout(maxWait, Mono.error(this::reject));
+  }
+
+  private void enqueue(MonoSink<Permit> sink) {
+    if (!properties.isEnabled()) {
+      sink.success(new Permit(nanoClock.getAsLong(), false));
+      return;
+    }
+
+    final Waiter waiter = new Waiter(sink);
+    sink.onCancel(() -> abandon(waiter));
+
+    final Permit permit;
+    lock.lock();
+    try {
+      if (waiter.abandoned) {
+        return;
+      } else if (inFlight < (int) limit) {
+        permit = take();
+        waiter.permit = permit;
+      } else if (properties.getMaxWait().isZero()) {
+        sink.error(reject());
+        return;
+      } else {
+        waiting.add(waiter);
+        return;
+      }
+    } finally {
+      lock.unlock();
+    }
+    sink.success(permit);
+  }
+
+  // A waiter that times out or is cancelled leaves the queue, or gives back the slot it was handed
+  private void abandon(Waiter waiter) {
+    final Permit permit;
+    lock.lock();
+    try {
+      waiter.abandoned = true;
+      permit = waiting.remove(waiter) ? null : waiter.permit;
+    } finally {
+      lock.unlock();
+    }
+    if (Objects.nonNull(permit)) {
+      permit.released();
+    }
+  }
+
+  // Called under lock
+  private Permit take() {
+    inFlight++;
+    // Only calls made while the limit is mostly in use show whether it can grow
+    final boolean utilized = inFlight * 2 >= limit;
+    return new Permit(nanoClock.getAsLong(), utilized);
+  }
+
+  // Called under lock; the slots are handed over by the caller once the lock is released
+  private List<Waiter> grantWaiting() {
+    if (waiting.isEmpty() || inFlight >= (int) limit) {
+      return List.of();
+    }
+    final List<Waiter> granted = new ArrayList<>();
+    while (!waiting.isEmpty() && inFlight < (int) limit) {
+      final Waiter waiter = waiting.poll();
+      waiter.permit = take();
+      granted.add(waiter);
+    }
+    return granted;
+  }
+
+  private LedgerLimitExceededException reject() {
+    rejectedCounter.increment();
+    log.warn("Ledger concurrency limit reached: {} in flight", inFlight);
+    return new LedgerLimitExceededException(
+        "Ledger concurrency limit reached: " + (int) limit + " calls in flight");
+  }
+
+  private void onSample(long rttNanos, boolean utilized) {
+    final List<Waiter> granted;
+    lock.lock();
+    try {
+      inFlight--;
+      if (baselineNanos == 0) {
+        baselineNanos = rttNanos;
+      }
+
+      if (rttNanos > baselineNanos * properties.getTolerance()) {
+        decrease();
+      } else if (utilized) {
+        limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+      }
+
+      // Moves slowly, so a lasting change in ledger latency becomes the new baseline
+      baselineNanos += (rttNanos - baselineNanos) * properties.getSmoothing();
+      granted = grantWaiting();
+      slotFreed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    granted.forEach(Waiter::grant);
+  }
+
+  private void onDrop() {
+    final List<Waiter> granted;
+    lock.lock();
+    try {
+      inFlight--;
+      decrease();
+      granted = grantWaiting();
+      slotFreed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    granted.forEach(Waiter::grant);
+  }
+
+  private void onRelease() {
+    final List<Waiter> granted;
+    lock.lock();
+    try {
+      inFlight--;
+      granted = grantWaiting();
+      slotFreed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    granted.forEach(Waiter::grant);
+  }
+
+  // Calls in flight when the ledger slowed down report it together: back off once per RTT
+  private void decrease() {
+    final long now = nanoClock.getAsLong();
+    if (now - lastDecreaseNanos < baselineNanos) {
+      return;
+    }
+    lastDecreaseNanos = now;
+    final double previous = limit;
+    limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+    log.debug("Ledger concurrency limit: {} -> {}", (int) previous, (int) limit);
+  }
+
+  // Client errors say nothing about the ledger's capacity
+  private static boolean isClientError(Throwable ex) {
+    return ex instanceof HttpClientErrorException
+        || (ex instanceof WebClientResponseException response
+            && response.getStatusCode().is4xxClientError());
+  }
+
+  /** A non-blocking caller queued for a slot */
+  private static final class Waiter {
+    private final MonoSink<Permit> sink;
+
+    // Set under lock when the waiter is handed a slot or its caller has gone
+    private Permit permit;
+    private boolean abandoned;
+
+    private Waiter(MonoSink<Permit> sink) {
+      this.sink = sink;
+    }
+
+    private void grant() {
+      sink.success(permit);
+    }
+  }
+
+  /** A slot taken by one ledger call, given back exactly once */
+  final class Permit {
+    private final long startNanos;
+    private final boolean utilized;
+    private final AtomicBoolean done;
+
+    private Permit(long startNanos, boolean utilized) {
+      this.startNanos = startNanos;
+      this.utilized = utilized;
+      // A disabled limiter hands out permits that track nothing
+      this.done = new AtomicBoolean(!properties.isEnabled());
+    }
+
+    void succeeded(boolean sampleLatency) {
+      if (complete()) {
+        if (sampleLatency) {
+          onSample(nanoClock.getAsLong() - startNanos, utilized);
+        } else {
+          onRelease();
+        }
+      }
+    }
+
+    void failed(Throwable ex) {
+      if (complete()) {
+        if (isClientError(ex)) {
+          onRelease();
+        } else {
+          onDrop();
+        }
+      }
+    }
+
+    void released() {
+      if (complete()) {
+        onRelease();
+      }
+    }
+
+    private boolean complete() {
+      return done.compareAndSet(false, true);
+    }
+  }
+}
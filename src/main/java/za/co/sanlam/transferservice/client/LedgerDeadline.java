@@ -0,0 +1,84 @@
+package za.co.sanlam.transferservice.client;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Point in time by which the ledger calls made for an incoming request must finish. Set on the
+ * request thread, carried to transferExecutor threads by {@link #wrap} and to reactive pipelines
+ * through the Reactor context, and read by the ledger clients, which stop waiting at the deadline
+ * and send the time remaining on to the ledger.
+ */
+public final class LedgerDeadline {
+
+  static final String CONTEXT_KEY = LedgerDeadline.class.getName();
+
+  private static final ThreadLocal<LedgerDeadline> CURRENT = new ThreadLocal<>();
+
+  private final long deadlineNanos;
+
+  private LedgerDeadline(long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  public static LedgerDeadline after(Duration timeout) {
+    return new LedgerDeadline(System.nanoTime() + timeout.toNanos());
+  }
+
+  /** Deadline of the request handled by this thread, if any */
+  public static Optional<LedgerDeadline> current() {
+    return Optional.ofNullable(CURRENT.get());
+  }
+
+  /** Deadline carried by a reactive pipeline, else the current thread's */
+  public static Optional<LedgerDeadline> current(ContextView context) {
+    return context.<LedgerDeadline>getOrEmpty(CONTEXT_KEY).or(LedgerDeadline::current);
+  }
+
+  public static void set(LedgerDeadline deadline) {
+    CURRENT.set(deadline);
+  }
+
+  public static void clear() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Binds the submitting thread's deadline to a task run on another thread, e.g. as a task
+   * decorator of the transfer executor
+   */
+  public static Runnable wrap(Runnable task) {
+    final LedgerDeadline deadline = CURRENT.get();
+    return () -> {
+      final LedgerDeadline previous = CURRENT.get();
+      CURRENT.set(deadline);
+      try {
+        task.run();
+      } finally {
+        CURRENT.set(previous);
+      }
+    };
+  }
+
+  /**
+   * Carries the calling thread's deadline into a reactive pipeline, for {@code contextWrite}
+   */
+  public static Function<Context, Context> propagate() {
+    final LedgerDeadline deadline = CURRENT.get();
+    return context -> Objects.isNull(deadline) ? context : context.put(CONTEXT_KEY, deadline);
+  }
+
+  /** Time left, never negative */
+  public Duration remaining() {
+    return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+  }
+
+  public boolean isExpired() {
+    return deadlineNanos - System.nanoTime() <= 0;
+  }
+}
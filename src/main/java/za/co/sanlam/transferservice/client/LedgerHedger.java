@@ -0,0 +1,283 @@
+package za.co.sanlam.transferservice.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import za.co.sanlam.transferservice.exception.LedgerDeadlineExceededException;
+import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounds ledger calls by the request's {@link LedgerDeadline} and, when enabled, hedges single
+ * transfer calls: once a call has been outstanding for the recent percentile latency, the same
+ * transfer is sent again and whichever answers first wins. The losing attempt is cancelled; a
+ * blocking attempt cannot be interrupted mid-request, so its answer is discarded instead. Hedges
+ * are paid for from a budget earned per call, so a slow ledger sees at most budgetRatio more
+ * load rather than double.
+ */
+@Slf4j
+@Component
+public class LedgerHedger {
+
+  // How long a computed hedge delay is reused before the percentile is read again
+  private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final LedgerServiceProperties.Hedge properties;
+  private final Executor executor;
+  private final Timer latency;
+  private final Counter sentCounter;
+  private final Counter wonCounter;
+  private final Counter deadlineCounter;
+  private final Object budgetLock = new Object();
+
+  private double budget;
+
+  // Hedge delay in nanos, 0 until minSamples calls have been observed
+  private volatile long delayNanos;
+  private volatile long delayReadNanos;
+
+  @Autowired
+  public LedgerHedger(LedgerServiceProperties properties, MeterRegistry meterRegistry) {
+    this(properties.getHedge(), meterRegistry, task -> Schedulers.boundedElastic().schedule(task));
+  }
+
+  LedgerHedger(
+      LedgerServiceProperties.Hedge properties, MeterRegistry meterRegistry, Executor executor) {
+    this.properties = properties;
+    this.executor = executor;
+
+    this.latency =
+        Timer.builder("ledger.call.latency")
+            .description("Latency of single transfer calls answered by the ledger")
+            .publishPercentiles(properties.getPercentile())
+            .distributionStatisticExpiry(Duration.ofMinutes(1))
+            .register(meterRegistry);
+    this.sentCounter =
+        Counter.builder("ledger.hedge.sent")
+            .description("Duplicate ledger calls sent because the first was slow")
+            .register(meterRegistry);
+    this.wonCounter =
+        Counter.builder("ledger.hedge.won")
+            .description("Hedged ledger calls answered before the call they duplicated")
+            .register(meterRegistry);
+    this.deadlineCounter =
+        Counter.builder("ledger.deadline.exceeded")
+            .description("Ledger calls abandoned at the request deadline")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Runs a blocking single transfer call within the deadline, hedging it when enabled
+   *
+   * @param deadline deadline of the request the call is made for
+   * @param attempt one ledger call; run again for a hedge
+   * @return the first answer
+   */
+  public <T> T call(Optional<LedgerDeadline> deadline, Supplier<T> attempt) {
+    return block(deadline, attempt, properties.isEnabled());
+  }
+
+  /**
+   * Runs a blocking ledger call within the deadline, never hedged, e.g. a batch
+   *
+   * @param deadline deadline of the request the call is made for
+   * @param attempt the ledger call
+   * @return its answer
+   */
+  public <T> T within(Optional<LedgerDeadline> deadline, Supplier<T> attempt) {
+    return block(deadline, attempt, false);
+  }
+
+  /**
+   * Non-blocking {@link #call}: a losing or abandoned attempt is unsubscribed from
+   *
+   * @param deadline deadline of the request the call is made for
+   * @param attempt one ledger call, subscribed to again for a hedge
+   * @return the first answer
+   */
+  public <T> Mono<T> callAsync(Optional<LedgerDeadline> deadline, Supplier<Mono<T>> attempt) {
+    if (!properties.isEnabled() && deadline.isEmpty()) {
+      return attempt.get();
+    }
+    return Mono.defer(
+        () -> {
+          if (deadline.isPresent() && deadline.get().isExpired()) {
+            return Mono.error(deadlineExceeded());
+          }
+          return Mono.fromFuture(
+              () -> race(deadline, () -> attempt.get().toFuture(), properties.isEnabled()), false);
+        });
+  }
+
+  private <T> T block(Optional<LedgerDeadline> deadline, Supplier<T> attempt, boolean hedge) {
+    if (!hedge && deadline.isEmpty()) {
+      return attempt.get();
+    }
+    if (deadline.isPresent() && deadline.get().isExpired()) {
+      throw deadlineExceeded();
+    }
+
+    try {
+      return race(deadline, () -> CompletableFuture.supplyAsync(attempt, executor), hedge).join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+
+  private <T> CompletableFuture<T> race(
+      Optional<LedgerDeadline> deadline, Supplier<CompletableFuture<T>> attempt, boolean hedge) {
+    final Race<T> race = new Race<>(attempt);
+    race.start(false);
+
+    Disposable hedgeTimer = Disposables.disposed();
+    if (hedge) {
+      earn();
+      final long delay = hedgeDelayNanos();
+      if (delay > 0) {
+        hedgeTimer =
+            Schedulers.parallel().schedule(() -> race.hedge(delay), delay, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    final Disposable deadlineTimer =
+        deadline
+            .map(
+                d ->
+                    Schedulers.parallel()
+                        .schedule(race::expire, d.remaining().toNanos(), TimeUnit.NANOSECONDS))
+            .orElse(Disposables.disposed());
+
+    final Disposable timers = Disposables.composite(hedgeTimer, deadlineTimer);
+    race.result.whenComplete(
+        (value, ex) -> {
+          timers.dispose();
+          race.attempts.forEach(future -> future.cancel(false));
+        });
+    return race.result;
+  }
+
+  /** Attempts at one ledger call; the first to settle the result decides it */
+  private final class Race<T> {
+    private final Supplier<CompletableFuture<T>> attempt;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final List<CompletableFuture<T>> attempts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger running = new AtomicInteger(1);
+    private final AtomicBoolean settled = new AtomicBoolean();
+
+    private Race(Supplier<CompletableFuture<T>> attempt) {
+      this.attempt = attempt;
+    }
+
+    private void hedge(long delayNanos) {
+      if (!settled.get() && spend()) {
+        running.incrementAndGet();
+        sentCounter.increment();
+        log.debug("Ledger call outstanding after {}us, hedging", delayNanos / 1000);
+        start(true);
+      }
+    }
+
+    private void expire() {
+      if (settled.compareAndSet(false, true)) {
+        log.warn("Ledger call abandoned at the request deadline");
+        result.completeExceptionally(deadlineExceeded());
+      }
+    }
+
+    private void start(boolean hedged) {
+      final long startNanos = System.nanoTime();
+      CompletableFuture<T> future;
+      try {
+        future = attempt.get();
+      } catch (RuntimeException ex) {
+        future = CompletableFuture.failedFuture(ex);
+      }
+
+      attempts.add(future);
+      if (result.isDone()) {
+        future.cancel(false);
+      }
+
+      future.whenComplete(
+          (value, ex) -> {
+            if (ex == null) {
+              latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+              if (settled.compareAndSet(false, true)) {
+                // Counted before the caller can see the answer
+                if (hedged) {
+                  wonCounter.increment();
+                }
+                result.complete(value);
+              }
+            } else if (running.decrementAndGet() == 0 && settled.compareAndSet(false, true)) {
+              // Only the last attempt standing reports its failure
+              result.completeExceptionally(
+                  ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            }
+          });
+    }
+  }
+
+  long hedgeDelayNanos() {
+    final long now = System.nanoTime();
+    if (delayNanos == 0 || now - delayReadNanos > DELAY_REFRESH_NANOS) {
+      delayReadNanos = now;
+      delayNanos = readDelayNanos();
+    }
+    return delayNanos;
+  }
+
+  private long readDelayNanos() {
+    if (latency.count() < properties.getMinSamples()) {
+      return 0;
+    }
+    final ValueAtPercentile[] percentiles = latency.takeSnapshot().percentileValues();
+    final long observed =
+        percentiles.length == 0 ? 0 : (long) percentiles[0].value(TimeUnit.NANOSECONDS);
+    return Math.max(properties.getMinDelay().toNanos(), observed);
+  }
+
+  private void earn() {
+    synchronized (budgetLock) {
+      budget = Math.min(properties.getMaxBurst(), budget + properties.getBudgetRatio());
+    }
+  }
+
+  private boolean spend() {
+    synchronized (budgetLock) {
+      if (budget < 1) {
+        return false;
+      }
+      budget--;
+      return true;
+    }
+  }
+
+  private LedgerDeadlineExceededException deadlineExceeded() {
+    deadlineCounter.increment();
+    return new LedgerDeadlineExceededException(
+        "Request deadline passed before the ledger answered");
+  }
+}
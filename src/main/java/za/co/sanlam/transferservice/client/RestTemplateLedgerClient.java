@@ -0,0 +1,100 @@
+package za.co.sanlam.transferservice.client;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
+import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/** Blocking ledger client, the default */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    name = "ledger.service.endpoint.client",
+    havingValue = "BLOCKING",
+    matchIfMissing = true)
+public class RestTemplateLedgerClient implements LedgerClient {
+
+  private final LedgerServiceProperties properties;
+  private final RestTemplate restTemplate;
+  private final LedgerConcurrencyLimiter limiter;
+  private final LedgerHedger hedger;
+
+  @Override
+  public String transfer(TransferDTO request) {
+    return transfer(request, LedgerDeadline.current());
+  }
+
+  @Override
+  public Mono<String> transferAsync(TransferDTO request) {
+    return Mono.deferContextual(
+        context -> {
+          final Optional<LedgerDeadline> deadline = LedgerDeadline.current(context);
+          return Mono.fromCallable(() -> transfer(request, deadline))
+              .subscribeOn(Schedulers.boundedElastic());
+        });
+  }
+
+  private String transfer(TransferDTO request, Optional<LedgerDeadline> deadline) {
+    final String url = String.format("%s%s", properties.getBaseUrl(), properties.getPath());
+    log.info("Create Transfer: url: {}, request: {}", url, request);
+
+    return hedger.call(
+        deadline,
+        () ->
+            limiter.call(
+                () -> restTemplate.postForObject(url, entity(request, deadline), String.class),
+                true));
+  }
+
+  @Override
+  public Optional<List<TransferResultDTO>> transferBatch(List<TransferDTO> requests) {
+    final String url = String.format("%s%s", properties.getBaseUrl(), properties.getBatchPath());
+    log.info("Create Transfer batch: url: {}, size: {}", url, requests.size());
+
+    final Optional<LedgerDeadline> deadline = LedgerDeadline.current();
+    try {
+      final TransferResultDTO[] results =
+          hedger.within(
+              deadline,
+              () ->
+                  limiter.call(
+                      () ->
+                          restTemplate.postForObject(
+                              url, entity(requests, deadline), TransferResultDTO[].class),
+                      false));
+      return Optional.of(Objects.isNull(results) ? List.of() : Arrays.asList(results));
+    } catch (HttpClientErrorException.NotFound
+        | HttpClientErrorException.MethodNotAllowed
+        | HttpServerErrorException.NotImplemented ex) {
+      // Not a ledger failure: the ledger simply does not expose the bulk path
+      log.warn("Ledger has no bulk path: {}, status: {}", url, ex.getStatusCode());
+      return Optional.empty();
+    }
+  }
+
+  // The time left is sent when the attempt is made, so a hedge carries less than the original
+  private <T> HttpEntity<T> entity(T body, Optional<LedgerDeadline> deadline) {
+    final HttpHeaders headers = new HttpHeaders();
+    deadline.ifPresent(
+        d ->
+            headers.set(
+                properties.getDeadlineHeader(), String.valueOf(d.remaining().toMillis())));
+    return new HttpEntity<>(body, headers);
+  }
+}
@@ -0,0 +1,118 @@
+package za.co.sanlam.transferservice.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
+import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Non-blocking ledger client. Ledger calls wait on event-loop threads, so hundreds can be in
+ * flight without holding a thread each.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ledger.service.endpoint.client", havingValue = "REACTIVE")
+public class WebClientLedgerClient implements LedgerClient {
+
+  // Statuses meaning the ledger has no bulk path, rather than that the ledger failed
+  private static final Set<HttpStatus> NO_BULK_PATH =
+      Set.of(HttpStatus.NOT_FOUND, HttpStatus.METHOD_NOT_ALLOWED, HttpStatus.NOT_IMPLEMENTED);
+
+  private final LedgerServiceProperties properties;
+  private final WebClient webClient;
+  private final LedgerConcurrencyLimiter limiter;
+  private final LedgerHedger hedger;
+
+  public WebClientLedgerClient(
+      LedgerServiceProperties properties,
+      @Qualifier("ledgerWebClient") WebClient webClient,
+      LedgerConcurrencyLimiter limiter,
+      LedgerHedger hedger) {
+    this.properties = properties;
+    this.webClient = webClient;
+    this.limiter = limiter;
+    this.hedger = hedger;
+  }
+
+  @Override
+  public String transfer(TransferDTO request) {
+    return transferAsync(request).block();
+  }
+
+  @Override
+  public Mono<String> transferAsync(TransferDTO request) {
+    log.info("Create Transfer: path: {}, request: {}", properties.getPath(), request);
+
+    return Mono.deferContextual(
+        context -> {
+          final Optional<LedgerDeadline> deadline = LedgerDeadline.current(context);
+          return hedger.callAsync(
+              deadline,
+              () ->
+                  limiter.callAsync(
+                      () ->
+                          webClient
+                              .post()
+                              .uri(properties.getPath())
+                              .headers(headers -> setDeadline(headers, deadline))
+                              .bodyValue(request)
+                              .retrieve()
+                              .bodyToMono(String.class)));
+        });
+  }
+
+  @Override
+  public Optional<List<TransferResultDTO>> transferBatch(List<TransferDTO> requests) {
+    log.info(
+        "Create Transfer batch: path: {}, size: {}", properties.getBatchPath(), requests.size());
+
+    final Optional<LedgerDeadline> deadline = LedgerDeadline.current();
+    return hedger.within(deadline, () -> limiter.call(() -> postBatch(requests, deadline), false));
+  }
+
+  private Optional<List<TransferResultDTO>> postBatch(
+      List<TransferDTO> requests, Optional<LedgerDeadline> deadline) {
+    return webClient
+        .post()
+        .uri(properties.getBatchPath())
+        .headers(headers -> setDeadline(headers, deadline))
+        .bodyValue(requests)
+        .retrieve()
+        .bodyToFlux(TransferResultDTO.class)
+        .collectList()
+        .map(Optional::of)
+        .onErrorResume(
+            WebClientResponseException.class,
+            ex -> {
+              if (!NO_BULK_PATH.contains(HttpStatus.resolve(ex.getStatusCode().value()))) {
+                return Mono.error(ex);
+              }
+              log.warn(
+                  "Ledger has no bulk path: {}, status: {}",
+                  properties.getBatchPath(),
+                  ex.getStatusCode());
+              return Mono.just(Optional.empty());
+            })
+        .block();
+  }
+
+  // Computed when the request is built, so a hedge carries the time actually left
+  private void setDeadline(HttpHeaders headers, Optional<LedgerDeadline> deadline) {
+    deadline.ifPresent(
+        d ->
+            headers.set(
+                properties.getDeadlineHeader(), String.valueOf(d.remaining().toMillis())));
+  }
+}
@@ -1,14 +1,140 @@
 package za.co.sanlam.transferservice.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
 
+import java.time.Duration;
+
+@Slf4j
 @Configuration
 public class AppConfig {
 
   @Bean
-  public RestTemplate restTemplate() {
-    return new RestTemplate();
+  public RestTemplate restTemplate(ClientHttpRequestFactory ledgerRequestFactory) {
+    return new RestTemplate(ledgerRequestFactory);
+  }
+
+  /**
+   * Transport for the blocking ledger client: a bounded Apache HttpClient connection pool, or the
+   * JDK client when HTTP/2 is enabled (it multiplexes calls over streams instead of pooling).
+   */
+  @Bean
+  public ClientHttpRequestFactory ledgerRequestFactory(
+      LedgerServiceProperties properties, MeterRegistry meterRegistry) {
+    final LedgerServiceProperties.Pool pool = properties.getPool();
+
+    if (pool.isHttp2()) {
+      log.info("Ledger transport: HTTP/2 JDK client");
+      JdkClientHttpRequestFactory requestFactory =
+          new JdkClientHttpRequestFactory(
+              java.net.http.HttpClient.newBuilder()
+                  .version(java.net.http.HttpClient.Version.HTTP_2)
+                  .connectTimeout(pool.getConnectTimeout())
+                  .build());
+      requestFactory.setReadTimeout(pool.getResponseTimeout());
+      return requestFactory;
+    }
+
+    final PoolingHttpClientConnectionManager connectionManager =
+        PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnPerRoute(pool.getMaxConnectionsPerRoute())
+            .setMaxConnTotal(pool.getMaxConnectionsTotal())
+            .setDefaultConnectionConfig(
+                ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.of(pool.getConnectTimeout()))
+                    .setSocketTimeout(Timeout.of(pool.getReadTimeout()))
+                    .build())
+            .build();
+
+    // leased/available/pending/max gauges under httpcomponents.httpclient.pool.*
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "ledger")
+        .bindTo(meterRegistry);
+
+    log.info(
+        "Ledger transport: pooled HTTP/1.1, max per route: {}, max total: {}",
+        pool.getMaxConnectionsPerRoute(),
+        pool.getMaxConnectionsTotal());
+    return new HttpComponentsClientHttpRequestFactory(
+        HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(
+                RequestConfig.custom()
+                    .setConnectionRequestTimeout(Timeout.of(pool.getAcquireTimeout()))
+                    .setResponseTimeout(Timeout.of(pool.getResponseTimeout()))
+                    .setConnectionKeepAlive(TimeValue.of(pool.getKeepAlive()))
+                    .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(pool.getIdleEviction()))
+            .build());
+  }
+
+  @Bean(destroyMethod = "dispose")
+  @ConditionalOnProperty(name = "ledger.service.endpoint.client", havingValue = "REACTIVE")
+  public ConnectionProvider ledgerConnectionProvider(LedgerServiceProperties properties) {
+    final LedgerServiceProperties.Pool pool = properties.getPool();
+
+    // Reactor Netty pools per remote host; the ledger is a single host, so the total applies
+    // to it as well. active/idle/pending gauges under reactor.netty.connection.provider.*
+    return ConnectionProvider.builder("ledger")
+        .maxConnections(Math.min(pool.getMaxConnectionsPerRoute(), pool.getMaxConnectionsTotal()))
+        .pendingAcquireTimeout(pool.getAcquireTimeout())
+        .maxIdleTime(pool.getKeepAlive())
+        .evictInBackground(pool.getIdleEviction())
+        .metrics(true)
+        .build();
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "ledger.service.endpoint.client", havingValue = "REACTIVE")
+  public WebClient ledgerWebClient(
+      WebClient.Builder webClientBuilder,
+      LedgerServiceProperties properties,
+      ConnectionProvider ledgerConnectionProvider) {
+    final LedgerServiceProperties.Pool pool = properties.getPool();
+
+    // The response timeout bounds the gap between reads of each response and is removed once
+    // it completes, so connections idle in the pool are not closed by it
+    HttpClient httpClient =
+        HttpClient.create(ledgerConnectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+            .responseTimeout(min(pool.getReadTimeout(), pool.getResponseTimeout()));
+
+    if (pool.isHttp2()) {
+      httpClient =
+          properties.getBaseUrl().startsWith("https")
+              ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+              : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+    }
+
+    return webClientBuilder
+        .baseUrl(properties.getBaseUrl())
+        .clientConnector(new ReactorClientHttpConnector(httpClient))
+        .build();
+  }
+
+  private static Duration min(Duration first, Duration second) {
+    return first.compareTo(second) <= 0 ? first : second;
   }
 }
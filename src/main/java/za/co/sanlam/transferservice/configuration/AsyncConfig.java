@@ -1,22 +1,109 @@
 package za.co.sanlam.transferservice.configuration;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import za.co.sanlam.transferservice.client.LedgerDeadline;
+import za.co.sanlam.transferservice.properties.TransferExecutorProperties;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 
+@Slf4j
 @Configuration
+@RequiredArgsConstructor
 public class AsyncConfig {
 
+  private static final String EXECUTOR_NAME = "transfer";
+
+  private final TransferExecutorProperties properties;
+  private final MeterRegistry meterRegistry;
+
   @Bean(name = "transferExecutor")
   public Executor transferExecutor() {
+    if (properties.getMode() == TransferExecutorProperties.Mode.VIRTUAL) {
+      return virtualTransferExecutor();
+    }
+
     ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-    executor.setCorePoolSize(10); // adjust based on load
-    executor.setMaxPoolSize(20);
-    executor.setQueueCapacity(50);
+    executor.setCorePoolSize(properties.getCorePoolSize()); // adjust based on load
+    executor.setMaxPoolSize(properties.getMaxPoolSize());
+    executor.setQueueCapacity(properties.getQueueCapacity());
     executor.setThreadNamePrefix("transfer-exec-");
+    executor.setTaskDecorator(LedgerDeadline::wrap);
+    executor.setRejectedExecutionHandler(countRejections());
     executor.initialize();
+
+    // executor.active, executor.queued, executor.queue.remaining etc. tagged name=transfer
+    new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), EXECUTOR_NAME, Tags.empty())
+        .bindTo(meterRegistry);
     return executor;
   }
+
+  /**
+   * One virtual thread per transfer. Blocked virtual threads are cheap, so concurrency is bounded
+   * by a semaphore acquired on the virtual thread itself rather than by pool and queue size.
+   */
+  private Executor virtualTransferExecutor() {
+    log.info(
+        "Transfer executor on virtual threads, max concurrency: {}",
+        properties.getMaxConcurrency());
+    final Semaphore permits = new Semaphore(properties.getMaxConcurrency(), true);
+
+    // No pool or queue: threads holding a permit are active, threads waiting for one are queued
+    final int maxConcurrency = properties.getMaxConcurrency();
+    Gauge.builder("executor.active", permits, p -> maxConcurrency - p.availablePermits())
+        .tag("name", EXECUTOR_NAME)
+        .baseUnit("threads")
+        .register(meterRegistry);
+    Gauge.builder("executor.queued", permits, Semaphore::getQueueLength)
+        .tag("name", EXECUTOR_NAME)
+        .baseUnit("tasks")
+        .register(meterRegistry);
+
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("transfer-vt-");
+    executor.setVirtualThreads(true);
+    executor.setTaskDecorator(boundedBy(permits));
+    return executor;
+  }
+
+  // Runs each task under a permit, with the submitting thread's ledger deadline
+  static TaskDecorator boundedBy(Semaphore permits) {
+    return task -> {
+      final Runnable bound = LedgerDeadline.wrap(task);
+      return () -> {
+        permits.acquireUninterruptibly();
+        try {
+          bound.run();
+        } finally {
+          permits.release();
+        }
+      };
+    };
+  }
+
+  // Counts tasks turned away by a full queue, then rejects them as the default policy would
+  private RejectedExecutionHandler countRejections() {
+    final Counter rejected =
+        Counter.builder("executor.rejected")
+            .description("Tasks rejected because the pool and its queue were full")
+            .tag("name", EXECUTOR_NAME)
+            .register(meterRegistry);
+    final RejectedExecutionHandler abort = new ThreadPoolExecutor.AbortPolicy();
+    return (task, pool) -> {
+      rejected.increment();
+      abort.rejectedExecution(task, pool);
+    };
+  }
 }
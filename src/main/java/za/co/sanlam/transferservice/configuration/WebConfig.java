@@ -0,0 +1,29 @@
+package za.co.sanlam.transferservice.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import za.co.sanlam.transferservice.admission.AdmissionInterceptor;
+import za.co.sanlam.transferservice.admission.ClientInterceptor;
+import za.co.sanlam.transferservice.admission.DeadlineInterceptor;
+import za.co.sanlam.transferservice.monitoring.PhaseInterceptor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+  private final PhaseInterceptor phaseInterceptor;
+  private final AdmissionInterceptor admissionInterceptor;
+  private final DeadlineInterceptor deadlineInterceptor;
+  private final ClientInterceptor clientInterceptor;
+
+  // Requests are traced from arrival; shed requests are rejected before their deadline starts
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(phaseInterceptor).addPathPatterns("/transfers/**", "/transfers");
+    registry.addInterceptor(admissionInterceptor).addPathPatterns("/transfers/**", "/transfers");
+    registry.addInterceptor(deadlineInterceptor).addPathPatterns("/transfers/**", "/transfers");
+    registry.addInterceptor(clientInterceptor).addPathPatterns("/transfers/**", "/transfers");
+  }
+}
@@ -0,0 +1,43 @@
+package za.co.sanlam.transferservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import za.co.sanlam.transferservice.dto.AccountTransfersPageDTO;
+import za.co.sanlam.transferservice.service.AccountTransferService;
+
+@Slf4j
+@RestController
+@RequestMapping("/accounts")
+@RequiredArgsConstructor
+@Tag(name = "Account API", description = "Lists transfers by account")
+public class AccountController {
+
+  private final AccountTransferService accountTransferService;
+
+  @GetMapping("/{id}/transfers")
+  @Operation(
+      summary = "List an account's transfers",
+      description =
+          "Lists transfers debiting or crediting the account, newest first. Pass the nextCursor"
+              + " of a page to fetch the one after it.",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Page fetched successfully"),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error",
+            content = @Content)
+      })
+  public ResponseEntity<AccountTransfersPageDTO> getTransfers(
+      @PathVariable String id,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit) {
+    log.info("Received request: {}, cursor: {}, limit: {}", id, cursor, limit);
+    return ResponseEntity.ok(accountTransferService.getTransfers(id, cursor, limit));
+  }
+}
@@ -1,18 +1,41 @@
 package za.co.sanlam.transferservice.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import za.co.sanlam.transferservice.admission.ExecutionLanes;
 import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
+import za.co.sanlam.transferservice.dto.TransferStatusRequestDTO;
+import za.co.sanlam.transferservice.dto.TransferStatusesDTO;
+import za.co.sanlam.transferservice.events.TransferEventRegistry;
+import za.co.sanlam.transferservice.exception.TransferOverloadedException;
 import za.co.sanlam.transferservice.service.TransferService;
+import za.co.sanlam.transferservice.service.TransferStatusService;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @RestController
@@ -21,23 +44,51 @@ import java.util.List;
 @Tag(name = "Transfer API", description = "Handles single and batch transfers")
 public class TransferController {
 
+  private static final String PREFER = "Prefer";
+  private static final String RESPOND_ASYNC = "respond-async";
+  private static final String PREFERENCE_APPLIED = "Preference-Applied";
+
   private final TransferService transferService;
+  private final ExecutionLanes executionLanes;
+  private final TransferStatusService transferStatusService;
+  private final TransferEventRegistry transferEventRegistry;
+  private final ObjectMapper objectMapper;
 
   @PostMapping
   @Operation(
       summary = "Create a single transfer",
-      description = "Creates a new transfer with the given request data",
+      description =
+          "Creates a new transfer with the given request data. With \"Prefer: respond-async\" the"
+              + " transfer is accepted and settled in the background; poll GET /transfers/{id}.",
       responses = {
         @ApiResponse(responseCode = "200", description = "Transfer created successfully"),
+        @ApiResponse(responseCode = "202", description = "Transfer accepted"),
         @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content),
+        @ApiResponse(responseCode = "429", description = "Overloaded, retry later"),
         @ApiResponse(
             responseCode = "500",
             description = "Internal server error",
             content = @Content)
       })
-  public ResponseEntity<String> createTransfer(@Valid @RequestBody TransferDTO request) {
+  public ResponseEntity<String> createTransfer(
+      @Valid @RequestBody TransferDTO request,
+      @RequestHeader(value = PREFER, required = false) String prefer) {
     log.info("Received request: {}", request);
-    String status = transferService.createTransfer(request);
+
+    if (Objects.nonNull(prefer) && prefer.contains(RESPOND_ASYNC)) {
+      String transferId = transferService.acceptTransfer(request);
+      log.info("Transfer accepted: {}", transferId);
+      return ResponseEntity.accepted()
+          .location(URI.create("/transfers/" + transferId))
+          .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+          .body(transferId);
+    }
+
+    // Waits for a slot in the single lane, outside the circuit breaker so a shed request is not
+    // reported as a failed transfer
+    String status =
+        executionLanes.run(
+            ExecutionLanes.Lane.SINGLE, () -> transferService.createTransfer(request));
     log.info("Transfer status: {}", status);
     return ResponseEntity.ok(status);
   }
@@ -49,6 +100,7 @@ public class TransferController {
       responses = {
         @ApiResponse(responseCode = "200", description = "Batch processed successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content),
+        @ApiResponse(responseCode = "429", description = "Overloaded, retry later"),
         @ApiResponse(
             responseCode = "500",
             description = "Internal server error",
@@ -60,6 +112,41 @@ public class TransferController {
     return ResponseEntity.ok(transferService.createBatch(requests));
   }
 
+  @PostMapping(
+      value = "/stream",
+      consumes = MediaType.APPLICATION_NDJSON_VALUE,
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(
+      summary = "Stream a file of transfers",
+      description =
+          "Creates any number of newline-delimited transfers, streaming each result as it"
+              + " completes",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Stream accepted"),
+        @ApiResponse(responseCode = "429", description = "Overloaded, retry later"),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error",
+            content = @Content)
+      })
+  public Flux<TransferResultDTO> createStream(HttpServletRequest request) throws IOException {
+    log.info("Received transfer stream");
+    final InputStream body = request.getInputStream();
+
+    // Parse one line at a time, only as far as the pipeline has asked for
+    final Flux<TransferDTO> requests =
+        Flux.using(
+                () -> new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)),
+                reader ->
+                    Flux.fromStream(reader.lines())
+                        .filter(line -> !line.isBlank())
+                        .map(this::parseStreamLine),
+                this::close)
+            .subscribeOn(Schedulers.boundedElastic());
+
+    return transferService.createStream(requests);
+  }
+
   @GetMapping("/{id}")
   @Operation(
       summary = "Get transfer status",
@@ -76,4 +163,96 @@ public class TransferController {
     log.info("Received request: {}", id);
     return ResponseEntity.ok(transferService.getStatusByTransferId(id));
   }
+
+  @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Watch a transfer's status",
+      description =
+          "Streams the current status of a transfer as a \"status\" event, then every change,"
+              + " completing once it leaves UNKNOWN. An unknown ID gets a \"missing\" event.",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Subscribed successfully"),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error",
+            content = @Content)
+      })
+  public SseEmitter watchTransfer(@PathVariable String id) {
+    log.info("Received subscription: {}", id);
+    return transferEventRegistry.subscribe(List.of(id));
+  }
+
+  // A custom method rather than a sub-resource, so it cannot shadow a transfer with ID "events"
+  @GetMapping(value = "/events:watch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Watch several transfers' statuses",
+      description =
+          "Streams status events for up to transfer.events.maxIds transfers, completing once"
+              + " every one of them has left UNKNOWN or is missing",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Subscribed successfully"),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error",
+            content = @Content)
+      })
+  public SseEmitter watchTransfers(@RequestParam List<String> ids) {
+    log.info("Received subscription for {} transfers", ids.size());
+    return transferEventRegistry.subscribe(ids);
+  }
+
+  @PostMapping("/status:batchGet")
+  @Operation(
+      summary = "Get the statuses of several transfers",
+      description =
+          "Fetches the statuses of up to transfer.status.maxBatchSize transfers in one call,"
+              + " listing the IDs that do not exist instead of failing",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Statuses fetched successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error",
+            content = @Content)
+      })
+  public ResponseEntity<TransferStatusesDTO> getTransfers(
+      @Valid @RequestBody TransferStatusRequestDTO request) {
+    log.info("Received request for {} statuses", request.getTransferIds().size());
+    return ResponseEntity.ok(transferStatusService.getStatuses(request.getTransferIds()));
+  }
+
+  @ExceptionHandler(TransferOverloadedException.class)
+  public ResponseEntity<String> overloaded(TransferOverloadedException ex) {
+    log.warn("Transfer request shed: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+        .body(ex.getMessage());
+  }
+
+  // A line that does not parse is passed on with no more than its transferId, so it fails
+  // validation and is reported FAILED like any other invalid item instead of ending the stream
+  private TransferDTO parseStreamLine(String line) {
+    try {
+      return objectMapper.readValue(line, TransferDTO.class);
+    } catch (JsonProcessingException e) {
+      log.error("Unparseable stream line: {}", e.getOriginalMessage());
+      return TransferDTO.builder().transferId(transferIdOf(line)).build();
+    }
+  }
+
+  private String transferIdOf(String line) {
+    try {
+      return objectMapper.readTree(line).path("transferId").textValue();
+    } catch (JsonProcessingException e) {
+      return null;
+    }
+  }
+
+  private void close(BufferedReader reader) {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      log.warn("Failed to close transfer stream: {}", e.getMessage());
+    }
+  }
 }
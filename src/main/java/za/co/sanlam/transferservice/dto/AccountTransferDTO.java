@@ -0,0 +1,41 @@
+package za.co.sanlam.transferservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import za.co.sanlam.transferservice.model.TransferStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@ToString
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A transfer debiting or crediting an account")
+public class AccountTransferDTO {
+
+  @Schema(
+      description = "Unique ID for the transfer",
+      example = "a1b2c3d4-e5f6-7890-abcd-1234567890ef")
+  private String transferId;
+
+  @Schema(description = "Account ID from which funds were debited", example = "1")
+  private String fromAccountId;
+
+  @Schema(description = "Account ID to which funds were credited", example = "2")
+  private String toAccountId;
+
+  @Schema(description = "Amount transferred", example = "150.75")
+  private BigDecimal amount;
+
+  @Schema(description = "Status of the transfer", example = "SUCCESS")
+  private TransferStatus status;
+
+  @Schema(description = "When the transfer was created", example = "2025-06-01T10:15:30")
+  private LocalDateTime created;
+}
@@ -0,0 +1,25 @@
+package za.co.sanlam.transferservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+@ToString
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A page of an account's transfers, newest first")
+public class AccountTransfersPageDTO {
+
+  @Schema(description = "Transfers on this page")
+  private List<AccountTransferDTO> transfers;
+
+  @Schema(description = "Cursor for the next page, absent on the last page")
+  private String nextCursor;
+}
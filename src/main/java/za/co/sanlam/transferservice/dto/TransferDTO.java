@@ -6,6 +6,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
 import lombok.Data;
 import lombok.ToString;
+import za.co.sanlam.transferservice.model.Transfer;
 
 import java.math.BigDecimal;
 
@@ -33,4 +34,13 @@ public class TransferDTO {
   @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
   @NotNull(message = "Amount cannot be null")
   private BigDecimal amount;
+
+  public static TransferDTO from(Transfer transfer) {
+    return TransferDTO.builder()
+        .transferId(transfer.getId())
+        .fromAccountId(transfer.getFromAccountId())
+        .toAccountId(transfer.getToAccountId())
+        .amount(transfer.getAmount())
+        .build();
+  }
 }
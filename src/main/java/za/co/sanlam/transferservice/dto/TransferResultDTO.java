@@ -0,0 +1,26 @@
+package za.co.sanlam.transferservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import za.co.sanlam.transferservice.model.TransferStatus;
+
+@ToString
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a single transfer")
+public class TransferResultDTO {
+
+  @Schema(
+      description = "Unique ID for the transfer",
+      example = "a1b2c3d4-e5f6-7890-abcd-1234567890ef")
+  private String transferId;
+
+  @Schema(description = "Status of the transfer", example = "SUCCESS")
+  private TransferStatus status;
+}
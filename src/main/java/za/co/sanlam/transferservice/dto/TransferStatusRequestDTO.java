@@ -0,0 +1,27 @@
+package za.co.sanlam.transferservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+@ToString
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Transfers to look up in one call")
+public class TransferStatusRequestDTO {
+
+  @NotEmpty(message = "transferIds are required")
+  @Schema(
+      description = "IDs of the transfers to look up",
+      example = "[\"a1b2c3d4-e5f6-7890-abcd-1234567890ef\"]")
+  private List<@NotBlank(message = "transferIds must not be blank") String> transferIds;
+}
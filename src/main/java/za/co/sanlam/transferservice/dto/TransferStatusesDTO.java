@@ -0,0 +1,27 @@
+package za.co.sanlam.transferservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import za.co.sanlam.transferservice.model.TransferStatus;
+
+import java.util.List;
+import java.util.Map;
+
+@ToString
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Statuses of several transfers")
+public class TransferStatusesDTO {
+
+  @Schema(description = "Status by transferId, in request order")
+  private Map<String, TransferStatus> statuses;
+
+  @Schema(description = "Requested transferIds that do not exist")
+  private List<String> missing;
+}
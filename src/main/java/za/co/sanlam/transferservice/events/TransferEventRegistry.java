@@ -0,0 +1,201 @@
+package za.co.sanlam.transferservice.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
+import za.co.sanlam.transferservice.dto.TransferStatusesDTO;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.TransferEventsProperties;
+import za.co.sanlam.transferservice.service.TransferStatusService;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process registry of SSE subscriptions to transfer status changes. Subscribers are indexed by
+ * transferId in copy-on-write arrays, so delivering a status nobody watches is a single map
+ * lookup and delivering to watchers shares one event across all of them.
+ */
+@Slf4j
+@Component
+public class TransferEventRegistry {
+
+  private static final TransferSubscription[] NONE = new TransferSubscription[0];
+
+  private final TransferEventsProperties properties;
+  private final TransferStatusService transferStatusService;
+  private final Map<String, TransferSubscription[]> byTransferId = new ConcurrentHashMap<>();
+  private final Set<TransferSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+  private final ThreadPoolTaskScheduler dispatcher;
+  private final Counter droppedCounter;
+
+  public TransferEventRegistry(
+      TransferEventsProperties properties,
+      TransferStatusService transferStatusService,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.transferStatusService = transferStatusService;
+
+    this.dispatcher = new ThreadPoolTaskScheduler();
+    this.dispatcher.setPoolSize(properties.getDispatchThreads());
+    this.dispatcher.setThreadNamePrefix("transfer-events-");
+    this.dispatcher.setDaemon(true);
+    this.dispatcher.initialize();
+    this.dispatcher.scheduleAtFixedRate(this::heartbeat, properties.getHeartbeatInterval());
+
+    Gauge.builder("transfer.events.subscribers", subscriptions, Set::size)
+        .description("Open transfer status subscriptions")
+        .register(meterRegistry);
+    this.droppedCounter =
+        Counter.builder("transfer.events.dropped")
+            .description("Subscriptions disconnected for falling behind their buffer")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Subscribes to status changes of the given transfers. The current status of each transfer is
+   * sent first; the response completes once every transfer has left UNKNOWN or turned out not to
+   * exist, or after the configured timeout.
+   *
+   * @param transferIds transfers to watch, at most maxIds
+   * @return emitter streaming "status" and "missing" events
+   */
+  public SseEmitter subscribe(List<String> transferIds) {
+    final Set<String> unique = new LinkedHashSet<>(transferIds);
+    if (unique.isEmpty() || unique.size() > properties.getMaxIds()) {
+      log.error("Invalid subscription size: {}", unique.size());
+      throw new ValidationException(
+          "Subscription must watch between 1 and " + properties.getMaxIds() + " transfers");
+    }
+
+    final SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+    final TransferSubscription subscription =
+        new TransferSubscription(emitter, unique, properties.getBufferSize());
+    emitter.onCompletion(() -> unregister(subscription));
+    emitter.onTimeout(subscription::close);
+    emitter.onError(e -> unregister(subscription));
+
+    // Registered before the snapshot is read, so no committed change falls in between
+    register(subscription);
+
+    final TransferStatusesDTO snapshot;
+    try {
+      snapshot = transferStatusService.getStatuses(List.copyOf(unique));
+    } catch (RuntimeException e) {
+      unregister(subscription);
+      throw e;
+    }
+    snapshot
+        .getStatuses()
+        .forEach(
+            (transferId, status) ->
+                subscription.deliver(
+                    TransferResultDTO.builder().transferId(transferId).status(status).build()));
+    snapshot.getMissing().forEach(subscription::missing);
+
+    log.info("Subscribed to {} transfers", unique.size());
+    return emitter;
+  }
+
+  /**
+   * Publishes a status change to its subscribers once the surrounding transaction, if any,
+   * commits
+   *
+   * @param transferId transfer whose status changed
+   * @param status new status
+   */
+  public void publish(String transferId, TransferStatus status) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      deliver(transferId, status);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            deliver(transferId, status);
+          }
+        });
+  }
+
+  private void deliver(String transferId, TransferStatus status) {
+    final TransferSubscription[] subscribers = byTransferId.getOrDefault(transferId, NONE);
+    if (subscribers.length == 0) {
+      return;
+    }
+
+    final TransferResultDTO event =
+        TransferResultDTO.builder().transferId(transferId).status(status).build();
+    for (TransferSubscription subscription : subscribers) {
+      if (subscription.offer(event)) {
+        dispatcher.execute(subscription::drain);
+      } else {
+        // The client is not reading; it reconnects and starts from a fresh snapshot
+        log.warn("Subscription fell behind, disconnecting");
+        droppedCounter.increment();
+        subscription.close();
+      }
+    }
+  }
+
+  private void heartbeat() {
+    for (TransferSubscription subscription : subscriptions) {
+      subscription.heartbeat();
+    }
+  }
+
+  private void register(TransferSubscription subscription) {
+    subscriptions.add(subscription);
+    for (String transferId : subscription.transferIds()) {
+      byTransferId.merge(
+          transferId,
+          new TransferSubscription[] {subscription},
+          (current, added) -> {
+            final TransferSubscription[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = subscription;
+            return next;
+          });
+    }
+  }
+
+  private void unregister(TransferSubscription subscription) {
+    if (!subscriptions.remove(subscription)) {
+      return;
+    }
+    for (String transferId : subscription.transferIds()) {
+      byTransferId.computeIfPresent(
+          transferId,
+          (id, current) -> {
+            final TransferSubscription[] next =
+                Arrays.stream(current)
+                    .filter(other -> other != subscription)
+                    .toArray(TransferSubscription[]::new);
+            return next.length == 0 ? null : next;
+          });
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    subscriptions.forEach(TransferSubscription::close);
+    dispatcher.shutdown();
+  }
+
+  int subscriberCount(String transferId) {
+    return byTransferId.getOrDefault(transferId, NONE).length;
+  }
+}
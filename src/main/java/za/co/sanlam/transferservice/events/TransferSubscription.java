@@ -0,0 +1,138 @@
+package za.co.sanlam.transferservice.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
+import za.co.sanlam.transferservice.model.TransferStatus;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One SSE client watching a set of transfers. Events are queued in a bounded buffer by the
+ * publishing thread and written by a dispatch thread, one drain at a time, so a slow client never
+ * blocks a status update and never holds more than bufferSize events.
+ */
+@Slf4j
+final class TransferSubscription {
+
+  static final String STATUS_EVENT = "status";
+  static final String MISSING_EVENT = "missing";
+  private static final String HEARTBEAT = "heartbeat";
+
+  private final SseEmitter emitter;
+  private final Set<String> transferIds;
+  private final Set<String> watching = ConcurrentHashMap.newKeySet();
+  private final ArrayBlockingQueue<TransferResultDTO> buffer;
+  private final AtomicBoolean draining = new AtomicBoolean();
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  TransferSubscription(SseEmitter emitter, Collection<String> transferIds, int bufferSize) {
+    this.emitter = emitter;
+    this.transferIds = Set.copyOf(transferIds);
+    this.watching.addAll(transferIds);
+    this.buffer = new ArrayBlockingQueue<>(bufferSize);
+  }
+
+  SseEmitter emitter() {
+    return emitter;
+  }
+
+  /** Every transferId subscribed to, including those already settled */
+  Set<String> transferIds() {
+    return transferIds;
+  }
+
+  boolean isClosed() {
+    return closed.get();
+  }
+
+  /**
+   * Queues an event without blocking
+   *
+   * @return false when the buffer is full
+   */
+  boolean offer(TransferResultDTO event) {
+    return buffer.offer(event);
+  }
+
+  /** Writes queued events, completing the subscription once every transfer is settled */
+  void drain() {
+    while (!closed.get() && !buffer.isEmpty() && draining.compareAndSet(false, true)) {
+      try {
+        TransferResultDTO event;
+        while (!closed.get() && (event = buffer.poll()) != null) {
+          deliver(event);
+        }
+      } finally {
+        draining.set(false);
+      }
+    }
+  }
+
+  void heartbeat() {
+    try {
+      emitter.send(SseEmitter.event().comment(HEARTBEAT));
+    } catch (IOException | IllegalStateException e) {
+      fail(e);
+    }
+  }
+
+  void missing(String transferId) {
+    if (!watching.remove(transferId)) {
+      return;
+    }
+    try {
+      emitter.send(SseEmitter.event().name(MISSING_EVENT).data(transferId));
+    } catch (IOException | IllegalStateException e) {
+      fail(e);
+      return;
+    }
+    completeIfSettled();
+  }
+
+  /** Writes an event on the calling thread, bypassing the buffer, e.g. the initial snapshot */
+  void deliver(TransferResultDTO event) {
+    // Already settled, or a snapshot racing a status update that was delivered first
+    if (!watching.contains(event.getTransferId())) {
+      return;
+    }
+    try {
+      emitter.send(
+          SseEmitter.event().name(STATUS_EVENT).data(event, MediaType.APPLICATION_JSON));
+    } catch (IOException | IllegalStateException e) {
+      fail(e);
+      return;
+    }
+    if (event.getStatus() != TransferStatus.UNKNOWN) {
+      watching.remove(event.getTransferId());
+      completeIfSettled();
+    }
+  }
+
+  /** Completes the response; callers unregister through the emitter's completion callback */
+  void close() {
+    if (closed.compareAndSet(false, true)) {
+      emitter.complete();
+    }
+  }
+
+  private void completeIfSettled() {
+    if (watching.isEmpty()) {
+      close();
+    }
+  }
+
+  private void fail(Exception e) {
+    // Usually the client went away
+    log.debug("Subscription closed: {}", e.getMessage());
+    if (closed.compareAndSet(false, true)) {
+      emitter.completeWithError(e);
+    }
+  }
+}
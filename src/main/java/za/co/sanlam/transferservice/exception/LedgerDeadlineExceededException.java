@@ -0,0 +1,9 @@
+package za.co.sanlam.transferservice.exception;
+
+/** The request's deadline passed before the ledger answered; the transfer stays UNKNOWN */
+public class LedgerDeadlineExceededException extends RuntimeException {
+
+  public LedgerDeadlineExceededException(String message) {
+    super(message);
+  }
+}
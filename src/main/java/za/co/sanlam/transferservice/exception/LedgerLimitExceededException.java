@@ -0,0 +1,9 @@
+package za.co.sanlam.transferservice.exception;
+
+/** The ledger concurrency limit is reached; the call was not sent */
+public class LedgerLimitExceededException extends RuntimeException {
+
+  public LedgerLimitExceededException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,17 @@
+package za.co.sanlam.transferservice.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/** The service cannot take on more work right now; the client should retry after a delay */
+@Getter
+public class TransferOverloadedException extends RuntimeException {
+
+  private final Duration retryAfter;
+
+  public TransferOverloadedException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+}
@@ -2,6 +2,8 @@ package za.co.sanlam.transferservice.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.Version;
 import lombok.*;
@@ -33,6 +35,7 @@ public class Transfer {
   @Column(nullable = false)
   private BigDecimal amount;
 
+  @Enumerated(EnumType.STRING)
   @Column(nullable = false)
   private TransferStatus status;
 
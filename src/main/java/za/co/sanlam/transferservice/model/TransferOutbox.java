@@ -0,0 +1,45 @@
+package za.co.sanlam.transferservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/** A transfer accepted asynchronously that has not been sent to the ledger yet */
+@ToString
+@Entity
+@Table(name = "transfer_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferOutbox {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, updatable = false, unique = true)
+  private String transferId;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  // Not dispatched before this; while claimed, the end of the claim's lease
+  @Builder.Default
+  @Column(nullable = false)
+  private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+  // Dispatch run holding the entry, so two instances never send it at the same time
+  private String claimedBy;
+
+  @CreationTimestamp
+  @Column(updatable = false)
+  private LocalDateTime created;
+}
@@ -0,0 +1,37 @@
+package za.co.sanlam.transferservice.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/latency}: per phase latency percentiles of transfer requests since start or
+ * the last reset (DELETE), and the slowest recent requests with their phase breakdown.
+ */
+@Component
+@Endpoint(id = "latency")
+@RequiredArgsConstructor
+public class LatencyEndpoint {
+
+  private final PhaseRecorder phaseRecorder;
+
+  @ReadOperation
+  public Latency latency() {
+    return new Latency("microseconds", phaseRecorder.phases(), phaseRecorder.slowest());
+  }
+
+  @DeleteOperation
+  public void reset() {
+    phaseRecorder.reset();
+  }
+
+  public record Latency(
+      String unit,
+      Map<String, PhaseRecorder.PhaseLatency> phases,
+      List<PhaseRecorder.SlowRequest> slowest) {}
+}
@@ -0,0 +1,45 @@
+package za.co.sanlam.transferservice.monitoring;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+
+/**
+ * Traces single and batch transfer requests in the {@link PhaseRecorder}, from before admission
+ * until the response has been written. Streams are handled across threads and are not traced.
+ */
+@Component
+@RequiredArgsConstructor
+public class PhaseInterceptor implements HandlerInterceptor {
+
+  private static final List<String> PATHS = List.of("/transfers", "/transfers/batch");
+
+  private final PhaseRecorder phaseRecorder;
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getDispatcherType() == DispatcherType.REQUEST
+        && HttpMethod.POST.matches(request.getMethod())) {
+      final String path = request.getRequestURI().substring(request.getContextPath().length());
+      // Recorded with the shared constant rather than this request's copy of the path
+      final int traced = PATHS.indexOf(path);
+      if (traced >= 0) {
+        phaseRecorder.start(PATHS.get(traced), System.nanoTime());
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    phaseRecorder.finish(System.nanoTime());
+  }
+}
@@ -0,0 +1,269 @@
+package za.co.sanlam.transferservice.monitoring;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+import za.co.sanlam.transferservice.properties.TransferLatencyProperties;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency anatomy of transfer requests. The request thread keeps a reusable trace of how long
+ * each phase took: validation (until the first timed phase starts), the {@link
+ * TransferMetrics.Phase}s, and serialization of the response. When the request completes every
+ * phase is recorded in a wait-free HdrHistogram and, only if the request is among the slowest
+ * of the recent window, its breakdown is kept. Phases that run on other threads, e.g. the ledger
+ * calls of a batch, are not attributed to the request.
+ */
+@Component
+public class PhaseRecorder {
+
+  static final int VALIDATION = 0;
+  static final int SERIALIZATION = TransferMetrics.Phase.values().length + 1;
+  private static final String[] PHASES = phaseNames();
+  private static final long LOWEST_TRACKABLE_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+  private final boolean enabled;
+  private final long windowNanos;
+  private final long maxTrackableNanos;
+  private final Histogram[] phaseHistograms = new Histogram[PHASES.length];
+  private final Histogram totalHistogram;
+  private final ThreadLocal<Trace> traces = ThreadLocal.withInitial(Trace::new);
+
+  private final Kept[] slowest;
+  private final Object slowestLock = new Object();
+
+  // Requests no slower than keepAboveNanos are not kept, until the oldest kept one expires
+  private volatile long keepAboveNanos;
+  private volatile long expiryNanos;
+
+  public PhaseRecorder(TransferLatencyProperties properties) {
+    this.enabled = properties.isEnabled();
+    this.windowNanos = properties.getWindow().toNanos();
+    this.maxTrackableNanos = properties.getMaxTrackable().toNanos();
+    this.slowest = new Kept[Math.max(1, properties.getSlowestRequests())];
+
+    for (int i = 0; i < PHASES.length; i++) {
+      phaseHistograms[i] = histogram(properties);
+    }
+    this.totalHistogram = histogram(properties);
+  }
+
+  /** Starts tracing the request handled by this thread, received at {@code nowNanos} */
+  public void start(String path, long nowNanos) {
+    if (!enabled) {
+      return;
+    }
+    final Trace trace = traces.get();
+    Arrays.fill(trace.nanos, 0);
+    trace.occurred = 0;
+    trace.path = path;
+    trace.startNanos = nowNanos;
+    trace.serializingNanos = 0;
+    trace.serializing = false;
+    trace.active = true;
+  }
+
+  /** Adds a phase to the request traced by this thread, if any */
+  public void record(TransferMetrics.Phase phase, long startNanos, long endNanos) {
+    final Trace trace = traces.get();
+    if (trace.active) {
+      trace.validated(startNanos);
+      trace.add(phase.ordinal() + 1, endNanos - startNanos);
+    }
+  }
+
+  /** Marks the start of writing the response of the request traced by this thread */
+  public void serializing(long nowNanos) {
+    final Trace trace = traces.get();
+    if (trace.active && !trace.serializing) {
+      trace.validated(nowNanos);
+      trace.serializingNanos = nowNanos;
+      trace.serializing = true;
+    }
+  }
+
+  /** Completes the request traced by this thread, recording its phases */
+  public void finish(long nowNanos) {
+    final Trace trace = traces.get();
+    if (!trace.active) {
+      return;
+    }
+    trace.active = false;
+    trace.validated(nowNanos);
+    if (trace.serializing) {
+      trace.add(SERIALIZATION, nowNanos - trace.serializingNanos);
+    }
+
+    for (int i = 0; i < PHASES.length; i++) {
+      if ((trace.occurred & (1 << i)) != 0) {
+        phaseHistograms[i].recordValue(trackable(trace.nanos[i]));
+      }
+    }
+    final long totalNanos = nowNanos - trace.startNanos;
+    totalHistogram.recordValue(trackable(totalNanos));
+
+    if (totalNanos > keepAboveNanos || nowNanos - expiryNanos >= 0) {
+      keep(trace, totalNanos, nowNanos);
+    }
+  }
+
+  /** Latency percentiles of each phase and of whole requests, in microseconds */
+  public Map<String, PhaseLatency> phases() {
+    final Map<String, PhaseLatency> phases = new LinkedHashMap<>();
+    for (int i = 0; i < PHASES.length; i++) {
+      phases.put(PHASES[i], PhaseLatency.of(phaseHistograms[i].copy()));
+    }
+    phases.put("total", PhaseLatency.of(totalHistogram.copy()));
+    return phases;
+  }
+
+  /** Slowest requests of the recent window, slowest first */
+  public List<SlowRequest> slowest() {
+    final long now = System.nanoTime();
+    final List<Kept> kept = new ArrayList<>();
+    synchronized (slowestLock) {
+      for (Kept entry : slowest) {
+        if (Objects.nonNull(entry) && now - entry.finishedNanos() < windowNanos) {
+          kept.add(entry);
+        }
+      }
+    }
+    return kept.stream()
+        .sorted(Comparator.comparingLong(Kept::totalNanos).reversed())
+        .map(Kept::request)
+        .toList();
+  }
+
+  public void reset() {
+    for (Histogram histogram : phaseHistograms) {
+      histogram.reset();
+    }
+    totalHistogram.reset();
+    synchronized (slowestLock) {
+      Arrays.fill(slowest, null);
+      keepAboveNanos = 0;
+    }
+  }
+
+  private void keep(Trace trace, long totalNanos, long nowNanos) {
+    synchronized (slowestLock) {
+      // Expired entries make room first, then the fastest kept request
+      int victim = 0;
+      for (int i = 0; i < slowest.length; i++) {
+        if (Objects.nonNull(slowest[i]) && nowNanos - slowest[i].finishedNanos() >= windowNanos) {
+          slowest[i] = null;
+        }
+        if (totalNanos(slowest[i]) < totalNanos(slowest[victim])) {
+          victim = i;
+        }
+      }
+      if (totalNanos(slowest[victim]) < totalNanos) {
+        slowest[victim] = new Kept(nowNanos, totalNanos, trace.toSlowRequest(totalNanos));
+      }
+
+      long keepAbove = Long.MAX_VALUE;
+      long expiry = nowNanos + windowNanos;
+      for (Kept entry : slowest) {
+        keepAbove = Math.min(keepAbove, totalNanos(entry));
+        if (Objects.nonNull(entry) && entry.finishedNanos() + windowNanos - expiry < 0) {
+          expiry = entry.finishedNanos() + windowNanos;
+        }
+      }
+      keepAboveNanos = Math.max(keepAbove, 0);
+      expiryNanos = expiry;
+    }
+  }
+
+  private static long totalNanos(Kept entry) {
+    return Objects.isNull(entry) ? -1 : entry.totalNanos();
+  }
+
+  private long trackable(long nanos) {
+    return Math.min(Math.max(nanos, LOWEST_TRACKABLE_NANOS), maxTrackableNanos);
+  }
+
+  private static Histogram histogram(TransferLatencyProperties properties) {
+    return new ConcurrentHistogram(
+        LOWEST_TRACKABLE_NANOS,
+        properties.getMaxTrackable().toNanos(),
+        properties.getSignificantDigits());
+  }
+
+  private static String[] phaseNames() {
+    final String[] names = new String[SERIALIZATION + 1];
+    names[VALIDATION] = "validation";
+    for (TransferMetrics.Phase phase : TransferMetrics.Phase.values()) {
+      names[phase.ordinal() + 1] = phase.name().toLowerCase();
+    }
+    names[SERIALIZATION] = "serialization";
+    return names;
+  }
+
+  private static long micros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+
+  /** Phase durations of the request handled by a thread; reused from one request to the next */
+  private static final class Trace {
+    private final long[] nanos = new long[PHASES.length];
+    private int occurred;
+    private String path;
+    private long startNanos;
+    private long serializingNanos;
+    private boolean serializing;
+    private boolean active;
+
+    private void add(int phase, long phaseNanos) {
+      nanos[phase] += phaseNanos;
+      occurred |= 1 << phase;
+    }
+
+    // Validation lasts until whatever happens first after it
+    private void validated(long nowNanos) {
+      if (occurred == 0) {
+        add(VALIDATION, nowNanos - startNanos);
+      }
+    }
+
+    private SlowRequest toSlowRequest(long totalNanos) {
+      final Map<String, Long> phases = new LinkedHashMap<>();
+      for (int i = 0; i < PHASES.length; i++) {
+        if ((occurred & (1 << i)) != 0) {
+          phases.put(PHASES[i], micros(nanos[i]));
+        }
+      }
+      return new SlowRequest(path, Instant.now(), micros(totalNanos), phases);
+    }
+  }
+
+  private record Kept(long finishedNanos, long totalNanos, SlowRequest request) {}
+
+  /** Percentiles of one phase, in microseconds */
+  public record PhaseLatency(
+      long count, long p50, long p90, long p99, long p999, long max, double mean) {
+
+    private static PhaseLatency of(Histogram histogram) {
+      return new PhaseLatency(
+          histogram.getTotalCount(),
+          micros(histogram.getValueAtPercentile(50)),
+          micros(histogram.getValueAtPercentile(90)),
+          micros(histogram.getValueAtPercentile(99)),
+          micros(histogram.getValueAtPercentile(99.9)),
+          micros(histogram.getMaxValue()),
+          histogram.getMean() / 1000);
+    }
+  }
+
+  /** A slow request with the microseconds spent in each phase it went through */
+  public record SlowRequest(
+      String path, Instant finishedAt, long totalMicros, Map<String, Long> phaseMicros) {}
+}
@@ -0,0 +1,37 @@
+package za.co.sanlam.transferservice.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import za.co.sanlam.transferservice.controller.TransferController;
+
+/** Marks where a traced transfer request stops being handled and its response is written */
+@ControllerAdvice(assignableTypes = TransferController.class)
+@RequiredArgsConstructor
+public class SerializationPhaseAdvice implements ResponseBodyAdvice<Object> {
+
+  private final PhaseRecorder phaseRecorder;
+
+  @Override
+  public boolean supports(
+      MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(
+      Object body,
+      MethodParameter returnType,
+      MediaType selectedContentType,
+      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      ServerHttpRequest request,
+      ServerHttpResponse response) {
+    phaseRecorder.serializing(System.nanoTime());
+    return body;
+  }
+}
@@ -0,0 +1,92 @@
+package za.co.sanlam.transferservice.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import za.co.sanlam.transferservice.model.TransferStatus;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the transfer hot path. Every meter is registered up front with a fixed set of tags,
+ * so recording is a map lookup and an update with no allocation; callers time a phase with
+ * {@link System#nanoTime()} rather than a {@link Timer.Sample}. Phases are also added to the
+ * request traced by the {@link PhaseRecorder}.
+ */
+@Component
+public class TransferMetrics {
+
+  /** Steps of a single transfer, in the order they happen */
+  public enum Phase {
+    // Status of a transferId that already exists
+    LOOKUP,
+    // Insert of the transfer as UNKNOWN
+    INSERT,
+    // Ledger call
+    LEDGER,
+    // Ledger outcome applied to the transfer
+    UPDATE
+  }
+
+  private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+  private final Map<TransferStatus, Counter> outcomeCounters = new EnumMap<>(TransferStatus.class);
+  private final DistributionSummary batchSize;
+  private final PhaseRecorder phaseRecorder;
+
+  public TransferMetrics(MeterRegistry meterRegistry, PhaseRecorder phaseRecorder) {
+    this.phaseRecorder = phaseRecorder;
+    for (Phase phase : Phase.values()) {
+      phaseTimers.put(
+          phase,
+          Timer.builder("transfer.phase")
+              .description("Time spent in each step of creating a transfer")
+              .tag("phase", phase.name().toLowerCase())
+              .publishPercentileHistogram()
+              .minimumExpectedValue(Duration.ofMillis(1))
+              .maximumExpectedValue(Duration.ofSeconds(30))
+              .register(meterRegistry));
+    }
+    for (TransferStatus status : TransferStatus.values()) {
+      outcomeCounters.put(
+          status,
+          Counter.builder("transfer.outcome")
+              .description("Ledger outcomes; UNKNOWN when the ledger gave no answer")
+              .tag("status", status.name().toLowerCase())
+              .register(meterRegistry));
+    }
+    this.batchSize =
+        DistributionSummary.builder("transfer.batch.size")
+            .description("Transfers per batch request")
+            .baseUnit("transfers")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1.0)
+            .maximumExpectedValue(1000.0)
+            .register(meterRegistry);
+  }
+
+  /**
+   * Records a phase that started at {@code startNanos}, taken from {@link System#nanoTime()}
+   */
+  public void record(Phase phase, long startNanos) {
+    final long endNanos = System.nanoTime();
+    phaseTimers.get(phase).record(endNanos - startNanos, TimeUnit.NANOSECONDS);
+    phaseRecorder.record(phase, startNanos, endNanos);
+  }
+
+  public void outcome(TransferStatus status) {
+    outcomeCounters.get(status).increment();
+  }
+
+  public void outcome(TransferStatus status, int count) {
+    outcomeCounters.get(status).increment(count);
+  }
+
+  public void batch(int size) {
+    batchSize.record(size);
+  }
+}
@@ -0,0 +1,89 @@
+package za.co.sanlam.transferservice.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import za.co.sanlam.transferservice.properties.TransferExecutorProperties;
+
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads pinned to their carrier (blocking inside {@code synchronized} or native
+ * frames, e.g. JDBC drivers) using the JFR {@code jdk.VirtualThreadPinned} event.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.executor.mode", havingValue = "VIRTUAL")
+public class VirtualThreadPinningMonitor {
+
+  static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final int REPORTED_FRAMES = 8;
+
+  private final TransferExecutorProperties properties;
+  private final Counter pinnedCounter;
+
+  private RecordingStream recordingStream;
+
+  public VirtualThreadPinningMonitor(
+      TransferExecutorProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.pinnedCounter =
+        Counter.builder("transfer.executor.pinned")
+            .description("Virtual threads pinned to their carrier beyond the threshold")
+            .register(meterRegistry);
+  }
+
+  @PostConstruct
+  public void start() {
+    if (Runtime.version().feature() < 21) {
+      log.warn(
+          "Virtual thread pinning detection requires Java 21+, running on {}", Runtime.version());
+      return;
+    }
+
+    recordingStream = new RecordingStream();
+    recordingStream
+        .enable(PINNED_EVENT)
+        .withThreshold(properties.getPinnedThreshold())
+        .withStackTrace();
+    recordingStream.onEvent(PINNED_EVENT, this::report);
+    recordingStream.startAsync();
+    log.info(
+        "Virtual thread pinning detection started, threshold: {}",
+        properties.getPinnedThreshold());
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (Objects.nonNull(recordingStream)) {
+      recordingStream.close();
+    }
+  }
+
+  void report(RecordedEvent event) {
+    pinnedCounter.increment();
+
+    final String frames =
+        Objects.isNull(event.getStackTrace())
+            ? "n/a"
+            : event.getStackTrace().getFrames().stream()
+                .limit(REPORTED_FRAMES)
+                .map(RecordedFrame::getMethod)
+                .map(method -> method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining(" <- "));
+
+    log.warn(
+        "Virtual thread {} pinned for {} ms: {}",
+        Objects.isNull(event.getThread()) ? "n/a" : event.getThread().getJavaName(),
+        event.getDuration().toMillis(),
+        frames);
+  }
+}
@@ -4,10 +4,106 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "ledger.service.endpoint")
 public class LedgerServiceProperties {
   private String baseUrl;
   private String path;
+
+  // Bulk ledger path, used when batchEnabled so a batch costs one round-trip
+  private String batchPath;
+  private boolean batchEnabled;
+
+  private Client client = Client.BLOCKING;
+
+  // REACTIVE client: ledger calls of a batch kept in flight at the same time
+  private int maxInFlight = 256;
+
+  private Pool pool = new Pool();
+
+  private Limit limit = new Limit();
+
+  // Longest time the ledger calls of POST /transfers or /transfers/batch may take; a client may
+  // shorten it with deadlineHeader (milliseconds), which is sent on to the ledger as time left
+  private Duration deadline = Duration.ofSeconds(10);
+  private String deadlineHeader = "X-Request-Timeout";
+
+  private Hedge hedge = new Hedge();
+
+  public enum Client {
+    BLOCKING,
+    REACTIVE
+  }
+
+  /** Pooled, keep-alive HTTP transport to the ledger */
+  @Data
+  public static class Pool {
+    private int maxConnectionsPerRoute = 50;
+    private int maxConnectionsTotal = 100;
+
+    // Max wait for a pooled connection before the call fails
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+
+    // Keep-alive used when the ledger does not send a Keep-Alive header
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    // Idle connections are evicted in the background after this long
+    private Duration idleEviction = Duration.ofSeconds(10);
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(5);
+    private Duration responseTimeout = Duration.ofSeconds(10);
+
+    private boolean http2;
+  }
+
+  /**
+   * Adaptive (AIMD) limit on ledger calls in flight, shared by every ledger call of this
+   * instance. The limit grows by one per limit's worth of calls answered within tolerance of the
+   * baseline latency and is cut by backoffRatio when latency exceeds it or a call fails.
+   */
+  @Data
+  public static class Limit {
+    private boolean enabled = true;
+
+    private int initialLimit = 50;
+    private int minLimit = 5;
+    private int maxLimit = 200;
+
+    // Multiplier applied to the limit on a slow or failed call, at most once per baseline RTT
+    private double backoffRatio = 0.9;
+
+    // A call slower than baseline * tolerance signals queueing at the ledger
+    private double tolerance = 2.0;
+
+    // Weight of each new sample in the baseline latency
+    private double smoothing = 0.01;
+
+    // Max wait of a caller, blocking or not, for a free slot before the call is rejected
+    private Duration maxWait = Duration.ofMillis(100);
+  }
+
+  /**
+   * Hedged single transfer calls: when the ledger has not answered after the recent percentile
+   * latency, the same transfer is sent again and the first answer wins. Safe because the ledger
+   * treats the transferId as an idempotency key.
+   */
+  @Data
+  public static class Hedge {
+    private boolean enabled;
+
+    // Latency percentile after which a hedge is sent, and the floor of that delay
+    private double percentile = 0.95;
+    private Duration minDelay = Duration.ofMillis(10);
+
+    // Calls to observe before the percentile is trusted
+    private int minSamples = 20;
+
+    // Hedges earned per call made, and the most that can be saved up for a burst
+    private double budgetRatio = 0.1;
+    private int maxBurst = 10;
+  }
 }
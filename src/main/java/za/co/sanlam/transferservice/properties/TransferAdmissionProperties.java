@@ -0,0 +1,28 @@
+package za.co.sanlam.transferservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transfer.admission")
+public class TransferAdmissionProperties {
+  private boolean enabled = true;
+
+  // Longest estimated queueing delay a request is admitted with; batches give way first
+  private Duration singleMaxQueueDelay = Duration.ofSeconds(2);
+  private Duration batchMaxQueueDelay = Duration.ofMillis(500);
+
+  // Ledger calls a batch or stream request is assumed to need, a single transfer needing one
+  private int batchCost = 20;
+  private int streamCost = 20;
+
+  // Weight of each completed request in the average service time
+  private double smoothing = 0.1;
+
+  // Retry-After sent when the transfer executor rejects work despite admission
+  private Duration rejectedRetryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,27 @@
+package za.co.sanlam.transferservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transfer.archive")
+public class TransferArchiveProperties {
+  // Archives expired transfers to segment files before cleanup deletes them
+  private boolean enabled = true;
+
+  // One sub-directory per day the archived transfers were created
+  private Path directory = Path.of("/var/lib/transfer-service/archive");
+
+  // Transfers per compressed block; a lookup inflates one block
+  private int blockSize = 128;
+
+  // Bloom filters stay on the heap, about bloomBitsPerRow / 8 bytes per archived transfer
+  private int bloomBitsPerRow = 10;
+
+  // Segments kept memory-mapped for lookups; the least recently used mapping is dropped first
+  private int maxMappedSegments = 32;
+}
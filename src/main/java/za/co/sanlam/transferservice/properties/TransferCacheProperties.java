@@ -0,0 +1,23 @@
+package za.co.sanlam.transferservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transfer.cache")
+public class TransferCacheProperties {
+  private long maxSize = 100_000;
+
+  // UNKNOWN changes as soon as the ledger answers, so it is only cached briefly
+  private Duration unknownTtl = Duration.ofSeconds(2);
+
+  // SUCCESS and FAILED are terminal
+  private Duration terminalTtl = Duration.ofMinutes(10);
+
+  // Negative entries for transferIds that do not exist
+  private Duration notFoundTtl = Duration.ofSeconds(5);
+}
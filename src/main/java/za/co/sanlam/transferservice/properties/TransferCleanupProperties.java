@@ -0,0 +1,20 @@
+package za.co.sanlam.transferservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transfer.cleanup")
+public class TransferCleanupProperties {
+  private Duration retention = Duration.ofHours(24);
+
+  // Rows deleted per transaction
+  private int chunkSize = 1_000;
+
+  // Upper bound on rows deleted per second, so cleanup does not starve live traffic
+  private int maxRowsPerSecond = 5_000;
+}
@@ -0,0 +1,27 @@
+package za.co.sanlam.transferservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transfer.events")
+public class TransferEventsProperties {
+  // Most transferIds one subscription may watch
+  private int maxIds = 100;
+
+  // Undelivered events per subscriber; a subscriber that falls further behind is disconnected
+  private int bufferSize = 16;
+
+  // Comment sent to every subscriber so proxies keep idle connections open
+  private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+  // Subscriptions still watching a transfer are closed after this long
+  private Duration timeout = Duration.ofMinutes(5);
+
+  // Threads writing events and heartbeats to subscribers
+  private int dispatchThreads = 2;
+}
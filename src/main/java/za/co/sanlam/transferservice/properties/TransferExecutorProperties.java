@@ -0,0 +1,30 @@
+package za.co.sanlam.transferservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transfer.executor")
+public class TransferExecutorProperties {
+  private Mode mode = Mode.PLATFORM;
+
+  // PLATFORM mode thread pool sizing
+  private int corePoolSize = 10;
+  private int maxPoolSize = 20;
+  private int queueCapacity = 50;
+
+  // VIRTUAL mode: upper bound of transfers running at the same time
+  private int maxConcurrency = 200;
+
+  // VIRTUAL mode: pinned virtual threads blocked for longer than this are reported
+  private Duration pinnedThreshold = Duration.ofMillis(20);
+
+  public enum Mode {
+    PLATFORM,
+    VIRTUAL
+  }
+}
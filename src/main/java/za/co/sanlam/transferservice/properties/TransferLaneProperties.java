@@ -0,0 +1,46 @@
+package za.co.sanlam.transferservice.properties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transfer.lanes")
+public class TransferLaneProperties {
+  // Off: single transfers run as they arrive and batch items go straight to transferExecutor
+  private boolean enabled = true;
+
+  // Transfers running at the same time across both lanes
+  private int maxConcurrency = 30;
+
+  // Header naming the client a batch belongs to; the remote address when absent
+  private String clientHeader = "X-Client-Id";
+
+  // Synchronous POST /transfers
+  private Lane single = new Lane(20, 200, 3, Duration.ofSeconds(2));
+
+  // Items of POST /transfers/batch and of background settling, when sent one call per item
+  private Lane batch = new Lane(10, 500, 1, Duration.ofSeconds(2));
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Lane {
+    // Transfers of this lane running at the same time
+    private int maxConcurrency;
+
+    // Transfers waiting for a slot; more are rejected
+    private int queueCapacity;
+
+    // Share of freed slots while both lanes have transfers waiting
+    private int weight;
+
+    // A transfer waiting longer than this is rejected rather than run late
+    private Duration queueTimeout;
+  }
+}
@@ -0,0 +1,26 @@
+package za.co.sanlam.transferservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transfer.latency")
+public class TransferLatencyProperties {
+  private boolean enabled = true;
+
+  // Slowest requests kept with their phase breakdown
+  private int slowestRequests = 20;
+
+  // How long a slow request is kept before faster, newer requests may replace it
+  private Duration window = Duration.ofMinutes(5);
+
+  // Longer phases are recorded as this long
+  private Duration maxTrackable = Duration.ofMinutes(1);
+
+  // Decimal digits of precision kept by the phase histograms
+  private int significantDigits = 2;
+}
@@ -0,0 +1,35 @@
+package za.co.sanlam.transferservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transfer.outbox")
+public class TransferOutboxProperties {
+  // Runs the dispatcher that sends transfers accepted with "Prefer: respond-async" to the ledger
+  private boolean enabled = true;
+
+  private Duration pollInterval = Duration.ofMillis(500);
+
+  // Outbox entries read per poll
+  private int batchSize = 200;
+
+  // Transfers per ledger request, and chunks sent at the same time
+  private int chunkSize = 20;
+  private int parallelism = 2;
+
+  // A failed dispatch is retried after initialBackoff, doubling per attempt up to maxBackoff
+  private Duration initialBackoff = Duration.ofSeconds(1);
+  private Duration maxBackoff = Duration.ofMinutes(5);
+
+  // How long a dispatch run holds its entries; another instance may take them after that
+  private Duration lease = Duration.ofMinutes(2);
+
+  // After this many failed dispatches the transfer is left UNKNOWN for reconciliation, if the
+  // reconciler runs; otherwise it stays in the outbox and is retried every maxBackoff
+  private int maxAttempts = 10;
+}
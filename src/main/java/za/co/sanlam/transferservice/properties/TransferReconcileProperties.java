@@ -0,0 +1,29 @@
+package za.co.sanlam.transferservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transfer.reconcile")
+public class TransferReconcileProperties {
+  private boolean enabled = true;
+
+  private Duration interval = Duration.ofMinutes(1);
+
+  // Transfers younger than this may still be in flight or in the outbox
+  private Duration minAge = Duration.ofMinutes(5);
+
+  // Rows read per keyset page
+  private int pageSize = 200;
+
+  // Transfers per ledger request, and chunks sent at the same time
+  private int chunkSize = 20;
+  private int parallelism = 2;
+
+  // Ledger retries allowed per run, so a struggling ledger is not flooded by the backlog
+  private int retryBudget = 2_000;
+}
@@ -0,0 +1,16 @@
+package za.co.sanlam.transferservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transfer.status")
+public class TransferStatusProperties {
+  // Most transferIds accepted by one bulk status lookup
+  private int maxBatchSize = 1000;
+
+  // transferIds per IN query, kept under common database bind limits
+  private int chunkSize = 500;
+}
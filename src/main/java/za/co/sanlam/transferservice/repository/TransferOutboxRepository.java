@@ -0,0 +1,51 @@
+package za.co.sanlam.transferservice.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import za.co.sanlam.transferservice.model.TransferOutbox;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TransferOutboxRepository extends JpaRepository<TransferOutbox, Long> {
+
+  /**
+   * Ids of the entries that are due, oldest first, so transfers are dispatched in the order they
+   * were accepted
+   */
+  @Query("select o.id from TransferOutbox o where o.nextAttemptAt <= :now order by o.id")
+  List<Long> findDueIds(@Param("now") LocalDateTime now, Limit limit);
+
+  /**
+   * Claims entries that are still due for one dispatch run until the lease ends. An entry claimed
+   * by another instance in the meantime is no longer due, so it is skipped.
+   *
+   * @return number of entries claimed
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "update TransferOutbox o set o.claimedBy = :claim, o.nextAttemptAt = :leaseUntil"
+          + " where o.id in :ids and o.nextAttemptAt <= :now")
+  int claim(
+      @Param("ids") Collection<Long> ids,
+      @Param("claim") String claim,
+      @Param("now") LocalDateTime now,
+      @Param("leaseUntil") LocalDateTime leaseUntil);
+
+  List<TransferOutbox> findByClaimedBy(String claim);
+
+  /** Counts a failed dispatch and releases the claim until the next attempt is due */
+  @Transactional
+  @Modifying
+  @Query(
+      "update TransferOutbox o set o.attempts = o.attempts + 1, o.claimedBy = null,"
+          + " o.nextAttemptAt = :nextAttemptAt where o.id in :ids")
+  int retryAt(
+      @Param("ids") Collection<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+}
@@ -1,10 +1,121 @@
 package za.co.sanlam.transferservice.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import za.co.sanlam.transferservice.dto.AccountTransferDTO;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
 import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface TransferRepository extends JpaRepository<Transfer, String> {
-  void deleteByCreatedBefore(LocalDateTime cutoff);
+  /**
+   * Oldest transfers created before {@code cutoff} whose status is not {@code status}, served by
+   * the created index
+   */
+  List<Transfer> findByStatusNotAndCreatedBeforeOrderByCreatedAsc(
+      TransferStatus status, LocalDateTime cutoff, Limit limit);
+
+  @Query("select t.status from Transfer t where t.id = :id")
+  Optional<TransferStatus> findStatusById(@Param("id") String id);
+
+  /** Statuses of the given transfers, projected without loading entities */
+  @Query(
+      "select new za.co.sanlam.transferservice.dto.TransferResultDTO(t.id, t.status) "
+          + "from Transfer t where t.id in :ids")
+  List<TransferResultDTO> findStatusesByIdIn(@Param("ids") Collection<String> ids);
+
+  /**
+   * Inserts an UNKNOWN transfer in one statement unless the id already exists. Replaces a lookup
+   * followed by save, which merges the assigned id and so selects it again before inserting.
+   *
+   * @return 1 when inserted, 0 when the transfer already exists
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO transfer "
+              + "(id, version, from_account_id, to_account_id, amount, status, created) "
+              + "SELECT :id, 0, :fromAccountId, :toAccountId, :amount, 'UNKNOWN', :created "
+              + "WHERE NOT EXISTS (SELECT 1 FROM transfer WHERE id = :id)",
+      nativeQuery = true)
+  int insertIfAbsent(
+      @Param("id") String id,
+      @Param("fromAccountId") String fromAccountId,
+      @Param("toAccountId") String toAccountId,
+      @Param("amount") BigDecimal amount,
+      @Param("created") LocalDateTime created);
+
+  /**
+   * Moves a transfer from {@code expected} to {@code status} in one statement, bumping the version
+   * so concurrent entity updates still fail their optimistic lock check
+   *
+   * @return 1 when updated, 0 when the transfer is missing or no longer in {@code expected}
+   */
+  @Modifying
+  @Query(
+      "update Transfer t set t.status = :status, t.version = t.version + 1 "
+          + "where t.id = :id and t.status = :expected")
+  int updateStatusIf(
+      @Param("id") String id,
+      @Param("expected") TransferStatus expected,
+      @Param("status") TransferStatus status);
+
+  /**
+   * First page of a keyset scan over transfers in {@code status} created before {@code cutoff},
+   * served by the (status, created, id) index
+   */
+  List<Transfer> findByStatusAndCreatedBeforeOrderByCreatedAscIdAsc(
+      TransferStatus status, LocalDateTime cutoff, Limit limit);
+
+  /** Next page of the keyset scan, after the last (created, id) of the previous page */
+  @Query(
+      "select t from Transfer t where t.status = :status and t.created < :cutoff "
+          + "and (t.created > :created or (t.created = :created and t.id > :id)) "
+          + "order by t.created, t.id")
+  List<Transfer> findByStatusAndCreatedBeforeAfter(
+      @Param("status") TransferStatus status,
+      @Param("cutoff") LocalDateTime cutoff,
+      @Param("created") LocalDateTime created,
+      @Param("id") String id,
+      Limit limit);
+
+  long countByStatusAndCreatedBefore(TransferStatus status, LocalDateTime cutoff);
+
+  /**
+   * Newest transfers debiting {@code accountId} before the (created, id) cursor, projected
+   * without loading entities; served by the (from_account_id, created, id) index
+   */
+  @Query(
+      "select new za.co.sanlam.transferservice.dto.AccountTransferDTO("
+          + "t.id, t.fromAccountId, t.toAccountId, t.amount, t.status, t.created) "
+          + "from Transfer t where t.fromAccountId = :accountId "
+          + "and (t.created < :created or (t.created = :created and t.id < :id)) "
+          + "order by t.created desc, t.id desc")
+  List<AccountTransferDTO> findDebitsBefore(
+      @Param("accountId") String accountId,
+      @Param("created") LocalDateTime created,
+      @Param("id") String id,
+      Limit limit);
+
+  /** Same as {@link #findDebitsBefore} for transfers crediting {@code accountId} */
+  @Query(
+      "select new za.co.sanlam.transferservice.dto.AccountTransferDTO("
+          + "t.id, t.fromAccountId, t.toAccountId, t.amount, t.status, t.created) "
+          + "from Transfer t where t.toAccountId = :accountId "
+          + "and (t.created < :created or (t.created = :created and t.id < :id)) "
+          + "order by t.created desc, t.id desc")
+  List<AccountTransferDTO> findCreditsBefore(
+      @Param("accountId") String accountId,
+      @Param("created") LocalDateTime created,
+      @Param("id") String id,
+      Limit limit);
 }
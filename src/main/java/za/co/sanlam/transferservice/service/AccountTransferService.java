@@ -0,0 +1,120 @@
+package za.co.sanlam.transferservice.service;
+
+import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import za.co.sanlam.transferservice.dto.AccountTransferDTO;
+import za.co.sanlam.transferservice.dto.AccountTransfersPageDTO;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Lists an account's transfers newest first. Pages are read with a keyset on (created, id) from
+ * the debit and credit indexes and merged, so every page costs two index range scans of at most
+ * limit + 1 rows, however deep the page or large the table.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountTransferService {
+
+  static final int DEFAULT_LIMIT = 50;
+  static final int MAX_LIMIT = 200;
+
+  // Sorts after every real transfer, so the first page needs no separate query
+  private static final LocalDateTime FIRST_CREATED = LocalDateTime.of(9999, 12, 31, 0, 0);
+  private static final String CURSOR_SEPARATOR = "|";
+
+  private static final Comparator<AccountTransferDTO> NEWEST_FIRST =
+      Comparator.comparing(AccountTransferDTO::getCreated)
+          .thenComparing(AccountTransferDTO::getTransferId)
+          .reversed();
+
+  private final TransferRepository transferRepository;
+
+  /**
+   * Returns one page of transfers debiting or crediting an account
+   *
+   * @param accountId account to list
+   * @param cursor nextCursor of the previous page, or null for the first page
+   * @param limit page size, at most {@value #MAX_LIMIT}
+   * @return the page, with a cursor when more transfers follow
+   */
+  public AccountTransfersPageDTO getTransfers(String accountId, String cursor, Integer limit) {
+    final int pageSize = Objects.isNull(limit) ? DEFAULT_LIMIT : limit;
+    if (pageSize < 1 || pageSize > MAX_LIMIT) {
+      log.error("Invalid page size: {}", pageSize);
+      throw new ValidationException("Page size must be between 1 and " + MAX_LIMIT);
+    }
+
+    final Cursor position =
+        Objects.isNull(cursor) ? new Cursor(FIRST_CREATED, "") : Cursor.decode(cursor);
+    final LocalDateTime created = position.created();
+    final String id = position.id();
+
+    // One extra row tells whether another page follows
+    final Limit fetch = Limit.of(pageSize + 1);
+    final Set<String> seen = new HashSet<>();
+    final List<AccountTransferDTO> merged =
+        new ArrayList<>(
+            Stream.concat(
+                    transferRepository.findDebitsBefore(accountId, created, id, fetch).stream(),
+                    transferRepository.findCreditsBefore(accountId, created, id, fetch).stream())
+                // A transfer between an account and itself is both a debit and a credit
+                .filter(transfer -> seen.add(transfer.getTransferId()))
+                .sorted(NEWEST_FIRST)
+                .limit(pageSize + 1L)
+                .toList());
+
+    String nextCursor = null;
+    if (merged.size() > pageSize) {
+      merged.remove(pageSize);
+      final AccountTransferDTO last = merged.get(pageSize - 1);
+      nextCursor = new Cursor(last.getCreated(), last.getTransferId()).encode();
+    }
+
+    log.info("Account: {}, page of {} transfers", accountId, merged.size());
+    return AccountTransfersPageDTO.builder().transfers(merged).nextCursor(nextCursor).build();
+  }
+
+  // Position after the last transfer of a page, opaque to clients
+  private record Cursor(LocalDateTime created, String id) {
+
+    String encode() {
+      final String position = created + CURSOR_SEPARATOR + id;
+      return Base64.getUrlEncoder()
+          .withoutPadding()
+          .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decode(String cursor) {
+      try {
+        final String position =
+            new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        final int separator = position.indexOf(CURSOR_SEPARATOR);
+        if (separator < 0) {
+          throw new IllegalArgumentException("Missing separator");
+        }
+        return new Cursor(
+            LocalDateTime.parse(position.substring(0, separator)),
+            position.substring(separator + 1));
+      } catch (IllegalArgumentException | DateTimeParseException e) {
+        log.error("Invalid cursor: {}", cursor);
+        throw new ValidationException("Invalid cursor: " + cursor);
+      }
+    }
+  }
+}
@@ -1,26 +1,112 @@
 package za.co.sanlam.transferservice.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import za.co.sanlam.transferservice.archive.TransferArchive;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.TransferCleanupProperties;
 import za.co.sanlam.transferservice.repository.TransferRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TransferCleanupService {
 
+  private final TransferCleanupProperties properties;
   private final TransferRepository transferRepository;
+  private final TransferStatusCache transferStatusCache;
+  private final TransferArchive transferArchive;
+
+  private final DistributionSummary deleted;
+  private final Timer runs;
+
+  public TransferCleanupService(
+      TransferCleanupProperties properties,
+      TransferRepository transferRepository,
+      TransferStatusCache transferStatusCache,
+      TransferArchive transferArchive,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.transferRepository = transferRepository;
+    this.transferStatusCache = transferStatusCache;
+    this.transferArchive = transferArchive;
+
+    this.deleted =
+        DistributionSummary.builder("transfer.cleanup.deleted")
+            .description("Transfers deleted per cleanup run")
+            .register(meterRegistry);
+    this.runs =
+        Timer.builder("transfer.cleanup.run")
+            .description("Duration of a cleanup run")
+            .register(meterRegistry);
+  }
 
   // Runs every hour (adjust as needed)
   @Scheduled(cron = "0 0 * * * *")
   public void cleanupOldTransfers() {
-    LocalDateTime cutoff = LocalDateTime.now().minusHours(24);
+    runs.record(this::deleteOldTransfers);
+  }
+
+  /**
+   * Archives and deletes transfers older than the retention in chunks, each deleted in its own
+   * short transaction, so no run holds locks or a persistence context over more than chunkSize
+   * rows. Deleted rows leave the index range, so every chunk reads from its head again. A chunk is
+   * only deleted once its archive segment is on disk; if archiving fails the run stops. UNKNOWN
+   * transfers are kept whatever their age until the reconciler has settled them. The archive
+   * segments of days before the cutoff are then merged into one per day.
+   *
+   * @return number of transfers deleted
+   */
+  long deleteOldTransfers() {
+    LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
     log.info("Cleaning up transfers older than: {}", cutoff);
 
-    transferRepository.deleteByCreatedBefore(cutoff);
+    final long started = System.nanoTime();
+    long total = 0;
+    List<Transfer> chunk;
+    do {
+      chunk =
+          transferRepository.findByStatusNotAndCreatedBeforeOrderByCreatedAsc(
+              TransferStatus.UNKNOWN, cutoff, Limit.of(properties.getChunkSize()));
+      if (!chunk.isEmpty()) {
+        transferArchive.append(chunk);
+
+        final List<String> ids = chunk.stream().map(Transfer::getId).toList();
+        transferRepository.deleteAllByIdInBatch(ids);
+        ids.forEach(transferStatusCache::evict);
+        total += ids.size();
+        throttle(total, started);
+      }
+    } while (chunk.size() == properties.getChunkSize());
+
+    // Every transfer created before the cutoff's day has been archived, bar UNKNOWN ones settled
+    // later; those land in a new segment that the next run merges in
+    transferArchive.seal(cutoff.toLocalDate());
+
+    deleted.record(total);
+    log.info("Deleted {} transfers older than: {}", total, cutoff);
+    return total;
+  }
+
+  // Sleeps until the rows deleted so far fit within maxRowsPerSecond
+  private void throttle(long total, long started) {
+    final long dueNanos = TimeUnit.SECONDS.toNanos(total) / properties.getMaxRowsPerSecond();
+    final long aheadNanos = dueNanos - (System.nanoTime() - started);
+    if (aheadNanos > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(aheadNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
   }
 }
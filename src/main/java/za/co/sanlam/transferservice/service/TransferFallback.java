@@ -1,9 +1,13 @@
 package za.co.sanlam.transferservice.service;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import reactor.core.publisher.Mono;
 import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
 import za.co.sanlam.transferservice.model.TransferStatus;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 public interface TransferFallback {
@@ -11,8 +15,28 @@ public interface TransferFallback {
     return requests.stream().map(req -> TransferStatus.FAILED.name()).collect(Collectors.toList());
   }
 
+  // An open circuit rejects the call before the transfer is stored; any later failure leaves it
+  // UNKNOWN for the reconciler, so the client must not treat it as failed and send it again
   default String fallbackCreateTransfer(TransferDTO request, Throwable t) {
-    return TransferStatus.FAILED.name();
+    return t instanceof CallNotPermittedException
+        ? TransferStatus.FAILED.name()
+        : TransferStatus.UNKNOWN.name();
+  }
+
+  // No ledger result: the transfer stays UNKNOWN and is reported as such
+  default Optional<TransferStatus> fallbackPostToLedger(TransferDTO request, Throwable t) {
+    return Optional.empty();
+  }
+
+  // Called once the transfer is stored, so it stays UNKNOWN like a blocking call's
+  default Mono<String> fallbackSettleTransferReactive(TransferDTO request, Throwable t) {
+    return Mono.just(TransferStatus.UNKNOWN.name());
+  }
+
+  // No per-item results: every pending item of the batch stays and is reported UNKNOWN
+  default Optional<List<TransferResultDTO>> fallbackPostBatch(
+      List<TransferDTO> requests, Throwable t) {
+    return Optional.of(List.of());
   }
 
   default String fallbackGetStatus(String transferId, Throwable t) {
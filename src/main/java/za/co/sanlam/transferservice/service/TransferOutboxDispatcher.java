@@ -0,0 +1,148 @@
+package za.co.sanlam.transferservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferOutbox;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.TransferOutboxProperties;
+import za.co.sanlam.transferservice.properties.TransferReconcileProperties;
+import za.co.sanlam.transferservice.repository.TransferOutboxRepository;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the transfer outbox: due entries are claimed oldest first, sent to the ledger in chunks
+ * with a bounded number of chunks in flight, and removed once the ledger has answered. A claim
+ * holds the entries for a lease, so instances polling the same outbox do not send them twice.
+ * Entries that could not be sent stay in the outbox and are retried with exponential backoff; once
+ * out of attempts they are only removed when the reconciler will pick the transfer up. Sending a
+ * transfer twice, e.g. after a crash between the ledger call and the removal, is safe: the ledger
+ * is idempotent on transferId and the status is only applied while the transfer is still UNKNOWN.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    name = "transfer.outbox.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class TransferOutboxDispatcher {
+
+  private final TransferOutboxProperties properties;
+  private final TransferReconcileProperties reconcileProperties;
+  private final TransferOutboxRepository transferOutboxRepository;
+  private final TransferRepository transferRepository;
+  private final TransferService transferService;
+
+  @Scheduled(fixedDelayString = "${transfer.outbox.pollInterval:500ms}")
+  public void dispatch() {
+    // Keep draining while whole batches complete; a failing ledger waits for the next poll
+    while (dispatchBatch() == properties.getBatchSize()) {
+      log.debug("Outbox batch drained, polling again");
+    }
+  }
+
+  /**
+   * Claims one batch of due outbox entries and sends them to the ledger
+   *
+   * @return number of entries claimed
+   */
+  int dispatchBatch() {
+    final LocalDateTime now = LocalDateTime.now();
+    final List<Long> due =
+        transferOutboxRepository.findDueIds(now, Limit.of(properties.getBatchSize()));
+    if (due.isEmpty()) {
+      return 0;
+    }
+
+    // Entries another instance claimed first are skipped; they are due again if its lease ends
+    final String claim = UUID.randomUUID().toString();
+    transferOutboxRepository.claim(due, claim, now, now.plus(properties.getLease()));
+    final List<TransferOutbox> entries = transferOutboxRepository.findByClaimedBy(claim);
+    if (entries.isEmpty()) {
+      return 0;
+    }
+
+    final Map<String, Transfer> transfers =
+        transferRepository
+            .findAllById(entries.stream().map(TransferOutbox::getTransferId).toList())
+            .stream()
+            .collect(Collectors.toMap(Transfer::getId, Function.identity()));
+
+    // Transfers settled some other way, e.g. by a synchronous duplicate, need no ledger call
+    final List<TransferDTO> pending =
+        entries.stream()
+            .map(entry -> transfers.get(entry.getTransferId()))
+            .filter(Objects::nonNull)
+            .filter(transfer -> transfer.getStatus() == TransferStatus.UNKNOWN)
+            .map(TransferDTO::from)
+            .toList();
+
+    final Set<String> settled =
+        transferService
+            .settlePending(pending, properties.getChunkSize(), properties.getParallelism())
+            .keySet();
+
+    final List<Long> done = new ArrayList<>();
+    final Map<LocalDateTime, List<Long>> retry = new HashMap<>();
+    for (TransferOutbox entry : entries) {
+      final Transfer transfer = transfers.get(entry.getTransferId());
+      if (Objects.isNull(transfer)
+          || transfer.getStatus() != TransferStatus.UNKNOWN
+          || settled.contains(entry.getTransferId())) {
+        done.add(entry.getId());
+      } else if (entry.getAttempts() + 1 >= properties.getMaxAttempts()
+          && reconciled(transfer, now)) {
+        log.warn(
+            "Transfer: {}, not settled after {} attempts, left for reconciliation",
+            entry.getTransferId(),
+            entry.getAttempts() + 1);
+        done.add(entry.getId());
+      } else {
+        retry
+            .computeIfAbsent(now.plus(backoff(entry.getAttempts())), at -> new ArrayList<>())
+            .add(entry.getId());
+      }
+    }
+
+    transferOutboxRepository.deleteAllByIdInBatch(done);
+    retry.forEach((nextAttemptAt, ids) -> transferOutboxRepository.retryAt(ids, nextAttemptAt));
+
+    log.info(
+        "Outbox dispatched {} transfers, {} settled, {} to retry",
+        pending.size(),
+        settled.size(),
+        entries.size() - done.size());
+    return entries.size();
+  }
+
+  // The reconciler picks up UNKNOWN transfers older than its minAge, so only those may leave
+  private boolean reconciled(Transfer transfer, LocalDateTime now) {
+    return reconcileProperties.isEnabled()
+        && transfer.getCreated().isBefore(now.minus(reconcileProperties.getMinAge()));
+  }
+
+  // Delay before the next attempt after the given number of failed ones
+  private Duration backoff(int attempts) {
+    final Duration backoff =
+        properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts, 30));
+    return backoff.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : backoff;
+  }
+}
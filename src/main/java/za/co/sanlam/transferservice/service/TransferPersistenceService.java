@@ -0,0 +1,215 @@
+package za.co.sanlam.transferservice.service;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.events.TransferEventRegistry;
+import za.co.sanlam.transferservice.model.TransferOutbox;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.monitoring.TransferMetrics;
+import za.co.sanlam.transferservice.repository.TransferOutboxRepository;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Short, self-contained transactions around the transfer lifecycle. None of these are held open
+ * across a ledger call: a transfer is inserted as UNKNOWN and committed, the ledger is called with
+ * no connection held, and the outcome is applied in a second transaction only while the row is
+ * still UNKNOWN. A crash in between leaves the row UNKNOWN for reconciliation, never half-written.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferPersistenceService {
+
+  private static final String INSERT_IF_ABSENT =
+      "INSERT INTO transfer (id, version, from_account_id, to_account_id, amount, status, created)"
+          + " SELECT ?, 0, ?, ?, ?, 'UNKNOWN', ?"
+          + " WHERE NOT EXISTS (SELECT 1 FROM transfer WHERE id = ?)";
+
+  private static final String SELECT_STATUSES =
+      "SELECT id, status FROM transfer WHERE id IN (:ids)";
+
+  private static final String UPDATE_IF_UNKNOWN =
+      "UPDATE transfer SET status = ?, version = version + 1 WHERE id = ? AND status = 'UNKNOWN'";
+
+  private final TransferRepository transferRepository;
+  private final TransferOutboxRepository transferOutboxRepository;
+  private final TransferStatusCache transferStatusCache;
+  private final TransferEventRegistry transferEventRegistry;
+  private final TransferMetrics transferMetrics;
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+  /**
+   * Persists the request as {@link TransferStatus#UNKNOWN} unless it already exists
+   *
+   * @param request transfer with its transferId resolved
+   * @return status of the existing transfer, or empty when it was inserted
+   */
+  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  public Optional<TransferStatus> insertPending(TransferDTO request) {
+    final long insertStart = System.nanoTime();
+    final int inserted =
+        transferRepository.insertIfAbsent(
+            request.getTransferId(),
+            request.getFromAccountId(),
+            request.getToAccountId(),
+            request.getAmount(),
+            LocalDateTime.now());
+    transferMetrics.record(TransferMetrics.Phase.INSERT, insertStart);
+
+    if (inserted == 0) {
+      // Only a duplicate pays for the extra lookup
+      final long lookupStart = System.nanoTime();
+      final Optional<TransferStatus> existing =
+          transferRepository.findStatusById(request.getTransferId());
+      transferMetrics.record(TransferMetrics.Phase.LOOKUP, lookupStart);
+      return existing;
+    }
+
+    transferStatusCache.put(request.getTransferId(), TransferStatus.UNKNOWN);
+    return Optional.empty();
+  }
+
+  /**
+   * Persists the request as {@link TransferStatus#UNKNOWN} together with its outbox entry, so the
+   * transfer is sent to the ledger by the outbox dispatcher even if this instance restarts
+   *
+   * @param request transfer with its transferId resolved
+   * @return status of the existing transfer, or empty when it was accepted
+   */
+  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  public Optional<TransferStatus> insertPendingWithOutbox(TransferDTO request) {
+    final Optional<TransferStatus> existing = insertPending(request);
+    if (existing.isEmpty()) {
+      transferOutboxRepository.save(
+          TransferOutbox.builder().transferId(request.getTransferId()).build());
+    }
+    return existing;
+  }
+
+  /**
+   * Persists every request that does not exist yet as {@link TransferStatus#UNKNOWN} in a single
+   * JDBC batch; only the requests that were already present pay for a follow-up lookup. The
+   * existence check is not atomic with the insert: a transferId committed concurrently in between
+   * fails the batch with a DataIntegrityViolationException and rolls all of it back.
+   *
+   * @param requests transfers with their transferId resolved
+   * @return statuses of the transfers that already existed, keyed by transferId
+   */
+  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  public Map<String, TransferStatus> persistPending(Collection<TransferDTO> requests) {
+    final List<TransferDTO> batch = List.copyOf(requests);
+    final LocalDateTime created = LocalDateTime.now();
+
+    final int[] counts =
+        jdbcTemplate.batchUpdate(
+            INSERT_IF_ABSENT,
+            batch.stream().map(request -> toInsertParams(request, created)).toList());
+
+    final List<String> existingIds = new ArrayList<>();
+    for (int i = 0; i < counts.length; i++) {
+      final String transferId = batch.get(i).getTransferId();
+      if (counts[i] == 0) {
+        existingIds.add(transferId);
+      } else {
+        // Statement.SUCCESS_NO_INFO is reported by some drivers and still means inserted
+        transferStatusCache.put(transferId, TransferStatus.UNKNOWN);
+      }
+    }
+
+    final Map<String, TransferStatus> existing = new HashMap<>();
+    if (!existingIds.isEmpty()) {
+      namedJdbcTemplate.query(
+          SELECT_STATUSES,
+          Map.of("ids", existingIds),
+          rs -> {
+            existing.put(rs.getString("id"), TransferStatus.valueOf(rs.getString("status")));
+          });
+    }
+
+    log.info(
+        "Persisted {} pending transfers, {} already exist",
+        batch.size() - existingIds.size(),
+        existingIds.size());
+    return existing;
+  }
+
+  /**
+   * Applies a ledger outcome while the transfer is still UNKNOWN
+   *
+   * @param transferId transfer to update
+   * @param status ledger status
+   * @return true when the status was applied
+   */
+  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  public boolean updateStatus(String transferId, TransferStatus status) {
+    final long start = System.nanoTime();
+    final boolean updated =
+        transferRepository.updateStatusIf(transferId, TransferStatus.UNKNOWN, status) == 1;
+    transferMetrics.record(TransferMetrics.Phase.UPDATE, start);
+    if (updated) {
+      transferStatusCache.put(transferId, status);
+      transferEventRegistry.publish(transferId, status);
+    }
+    return updated;
+  }
+
+  /**
+   * Applies ledger outcomes to the transfers that are still UNKNOWN in a single JDBC batch;
+   * transfers already settled, e.g. by a concurrent duplicate, keep their status
+   *
+   * @param statuses ledger statuses keyed by transferId
+   * @return transferIds whose status was applied
+   */
+  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  public List<String> updateStatuses(Map<String, TransferStatus> statuses) {
+    if (statuses.isEmpty()) {
+      return List.of();
+    }
+
+    final List<Map.Entry<String, TransferStatus>> batch = List.copyOf(statuses.entrySet());
+
+    // Bumps the version like a JPA update so optimistic locking still sees the change
+    final int[] counts =
+        jdbcTemplate.batchUpdate(
+            UPDATE_IF_UNKNOWN,
+            batch.stream()
+                .map(entry -> new Object[] {entry.getValue().name(), entry.getKey()})
+                .toList());
+
+    final List<String> applied = new ArrayList<>();
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] != 0) {
+        final Map.Entry<String, TransferStatus> entry = batch.get(i);
+        transferStatusCache.put(entry.getKey(), entry.getValue());
+        transferEventRegistry.publish(entry.getKey(), entry.getValue());
+        applied.add(entry.getKey());
+      }
+    }
+    return applied;
+  }
+
+  private Object[] toInsertParams(TransferDTO request, LocalDateTime created) {
+    return new Object[] {
+      request.getTransferId(),
+      request.getFromAccountId(),
+      request.getToAccountId(),
+      request.getAmount(),
+      created,
+      request.getTransferId()
+    };
+  }
+}
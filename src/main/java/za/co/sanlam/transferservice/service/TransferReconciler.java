@@ -0,0 +1,141 @@
+package za.co.sanlam.transferservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.TransferReconcileProperties;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves transfers left UNKNOWN by a ledger timeout, an open circuit or a crash. UNKNOWN rows
+ * older than minAge are read in keyset pages over the (status, created, id) index and sent to the
+ * ledger again; the ledger is idempotent on transferId, so a transfer it already processed just
+ * returns its outcome. Each run is capped by a retry budget and stops early when a whole page
+ * gets no answer, leaving the rest for the next run.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(
+    name = "transfer.reconcile.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class TransferReconciler {
+
+  private final TransferReconcileProperties properties;
+  private final TransferRepository transferRepository;
+  private final TransferService transferService;
+
+  private final Counter attempted;
+  private final Counter resolved;
+  private final Timer runs;
+  private final AtomicLong backlog = new AtomicLong();
+  private final AtomicLong lagSeconds = new AtomicLong();
+
+  public TransferReconciler(
+      TransferReconcileProperties properties,
+      TransferRepository transferRepository,
+      TransferService transferService,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.transferRepository = transferRepository;
+    this.transferService = transferService;
+
+    this.attempted =
+        Counter.builder("transfer.reconcile.attempted")
+            .description("UNKNOWN transfers sent to the ledger again")
+            .register(meterRegistry);
+    this.resolved =
+        Counter.builder("transfer.reconcile.resolved")
+            .description("UNKNOWN transfers moved to a terminal status")
+            .register(meterRegistry);
+    this.runs =
+        Timer.builder("transfer.reconcile.run")
+            .description("Duration of a reconciliation run")
+            .register(meterRegistry);
+    meterRegistry.gauge("transfer.reconcile.backlog", backlog);
+    meterRegistry.gauge("transfer.reconcile.lag.seconds", lagSeconds);
+  }
+
+  @Scheduled(
+      initialDelayString = "${transfer.reconcile.interval:1m}",
+      fixedDelayString = "${transfer.reconcile.interval:1m}")
+  public void reconcile() {
+    runs.record(this::reconcileOnce);
+  }
+
+  /**
+   * Runs one reconciliation pass
+   *
+   * @return number of transfers resolved
+   */
+  int reconcileOnce() {
+    final LocalDateTime cutoff = LocalDateTime.now().minus(properties.getMinAge());
+    int budget = properties.getRetryBudget();
+    int total = 0;
+
+    List<Transfer> page =
+        transferRepository.findByStatusAndCreatedBeforeOrderByCreatedAscIdAsc(
+            TransferStatus.UNKNOWN, cutoff, nextLimit(budget));
+
+    while (!page.isEmpty()) {
+      final Map<String, TransferStatus> settled =
+          transferService.settlePending(
+              page.stream().map(TransferDTO::from).toList(),
+              properties.getChunkSize(),
+              properties.getParallelism());
+
+      attempted.increment(page.size());
+      resolved.increment(settled.size());
+      budget -= page.size();
+      total += settled.size();
+
+      if (settled.isEmpty()) {
+        log.warn("Ledger resolved none of {} UNKNOWN transfers, stopping run", page.size());
+        break;
+      }
+      if (page.size() < properties.getPageSize() || budget <= 0) {
+        break;
+      }
+
+      // Resolved rows leave the scan set; the cursor only moves past what was read
+      final Transfer last = page.get(page.size() - 1);
+      page =
+          transferRepository.findByStatusAndCreatedBeforeAfter(
+              TransferStatus.UNKNOWN, cutoff, last.getCreated(), last.getId(), nextLimit(budget));
+    }
+
+    refreshBacklog(cutoff);
+    log.info("Reconciled {} UNKNOWN transfers, backlog: {}", total, backlog.get());
+    return total;
+  }
+
+  private Limit nextLimit(int budget) {
+    return Limit.of(Math.min(properties.getPageSize(), budget));
+  }
+
+  private void refreshBacklog(LocalDateTime cutoff) {
+    backlog.set(transferRepository.countByStatusAndCreatedBefore(TransferStatus.UNKNOWN, cutoff));
+    lagSeconds.set(
+        transferRepository
+            .findByStatusAndCreatedBeforeOrderByCreatedAscIdAsc(
+                TransferStatus.UNKNOWN, cutoff, Limit.of(1))
+            .stream()
+            .findFirst()
+            .map(oldest -> Duration.between(oldest.getCreated(), LocalDateTime.now()).toSeconds())
+            .orElse(0L));
+  }
+}
@@ -2,36 +2,64 @@ package za.co.sanlam.transferservice.service;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import za.co.sanlam.transferservice.admission.AdmissionControl;
+import za.co.sanlam.transferservice.admission.ExecutionLanes;
+import za.co.sanlam.transferservice.archive.TransferArchive;
+import za.co.sanlam.transferservice.client.LedgerClient;
+import za.co.sanlam.transferservice.client.LedgerDeadline;
 import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
 import za.co.sanlam.transferservice.exception.RecordNotFoundException;
-import za.co.sanlam.transferservice.model.Transfer;
 import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.monitoring.TransferMetrics;
 import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
 import za.co.sanlam.transferservice.repository.TransferRepository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class TransferService implements TransferFallback {
 
+  // Batch inserts tried before a conflict with concurrent duplicates is given up on
+  private static final int PERSIST_ATTEMPTS = 3;
+
   private final LedgerServiceProperties properties;
-  private final RestTemplate restTemplate;
+  private final LedgerClient ledgerClient;
   private final TransferRepository transferRepository;
+  private final TransferPersistenceService transferPersistenceService;
+  private final TransferStatusCache transferStatusCache;
+  private final TransferArchive transferArchive;
+  private final TransferSingleFlight transferSingleFlight;
+  private final AdmissionControl admissionControl;
+  private final ExecutionLanes executionLanes;
+  private final TransferMetrics transferMetrics;
   private final Executor transferExecutor;
+  private final Validator validator;
 
   // Self-injection so async calls use the Spring proxy (AOP applies)
   private final TransferService self;
@@ -40,52 +68,137 @@ public class TransferService implements TransferFallback {
   public TransferService(
       LedgerServiceProperties properties,
       TransferRepository transferRepository,
+      TransferPersistenceService transferPersistenceService,
+      TransferStatusCache transferStatusCache,
+      TransferArchive transferArchive,
+      TransferSingleFlight transferSingleFlight,
+      AdmissionControl admissionControl,
+      ExecutionLanes executionLanes,
+      TransferMetrics transferMetrics,
       @Qualifier("transferExecutor") Executor transferExecutor,
-      RestTemplate restTemplate,
+      LedgerClient ledgerClient,
+      Validator validator,
       @Lazy TransferService self) {
     this.properties = properties;
     this.transferRepository = transferRepository;
+    this.transferPersistenceService = transferPersistenceService;
+    this.transferStatusCache = transferStatusCache;
+    this.transferArchive = transferArchive;
+    this.transferSingleFlight = transferSingleFlight;
+    this.admissionControl = admissionControl;
+    this.executionLanes = executionLanes;
+    this.transferMetrics = transferMetrics;
     this.transferExecutor = transferExecutor;
-    this.restTemplate = restTemplate;
+    this.ledgerClient = ledgerClient;
+    this.validator = validator;
     this.self = self;
   }
 
-  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  /**
+   * Creates a transfer in short transactions: the transfer is committed as UNKNOWN, the ledger is
+   * called with no database connection held, and the outcome is applied only while the transfer
+   * is still UNKNOWN. A duplicate submission returns the stored status without calling the ledger,
+   * or, while the original is still in flight on this instance, waits for its status.
+   *
+   * @param request transfer to create
+   * @return ledger status, or the stored status when the transfer already exists
+   */
   @CircuitBreaker(name = "ledgerService", fallbackMethod = "fallbackCreateTransfer")
   public String createTransfer(TransferDTO request) {
+    final TransferDTO resolved = withTransferId(request);
+    return transferSingleFlight.execute(resolved.getTransferId(), () -> create(resolved));
+  }
 
-    final String url = String.format("%s%s", properties.getBaseUrl(), properties.getPath());
-    final String transferId =
-        request.getTransferId() != null ? request.getTransferId() : UUID.randomUUID().toString();
+  private String create(TransferDTO resolved) {
+    final String transferId = resolved.getTransferId();
 
-    // Check if transfer has been initiated
-    Optional<Transfer> transferOptional = transferRepository.findById(transferId);
-    if (transferOptional.isPresent()) {
-      log.warn("Transfer: {}, already exist", transferOptional);
-      return transferOptional.get().getStatus().name();
+    // Check if transfer has been initiated, inserting it as UNKNOWN if not
+    final Optional<TransferStatus> existing = insertPending(resolved);
+    if (existing.isPresent()) {
+      log.warn("Transfer: {}, already exist with status: {}", transferId, existing.get());
+      return existing.get().name();
     }
 
-    log.info("Create Transfer: url: {}, request: {}", url, request);
+    final String status = callLedger(resolved);
 
-    final Transfer transferEntity =
-        Transfer.builder()
-            .id(transferId)
-            .amount(request.getAmount())
-            .toAccountId(request.getToAccountId())
-            .fromAccountId(request.getFromAccountId())
-            .status(TransferStatus.UNKNOWN)
-            .build();
+    log.info("Transfer status: {}", status);
 
-    final Transfer pendingTransfer = transferRepository.save(transferEntity);
+    if (!transferPersistenceService.updateStatus(transferId, TransferStatus.valueOf(status))) {
+      log.warn("Transfer: {}, already settled, ledger status: {} not applied", transferId, status);
+    }
+    return status;
+  }
 
-    final String status = restTemplate.postForObject(url, request, String.class);
+  /**
+   * Accepts a transfer without calling the ledger: the transfer is committed as UNKNOWN together
+   * with an outbox entry, and the outbox dispatcher settles it in the background. Clients poll
+   * {@link #getStatusByTransferId} for the outcome.
+   *
+   * @param request transfer to accept
+   * @return transferId of the accepted, or already existing, transfer
+   */
+  public String acceptTransfer(TransferDTO request) {
+    final TransferDTO resolved = withTransferId(request);
+    final String transferId = resolved.getTransferId();
 
-    log.info("Transfer status: {}", status);
+    try {
+      transferPersistenceService
+          .insertPendingWithOutbox(resolved)
+          .ifPresent(
+              status ->
+                  log.warn("Transfer: {}, already exist with status: {}", transferId, status));
+    } catch (DataIntegrityViolationException ex) {
+      // A concurrent duplicate committed the same transferId first
+      log.warn("Transfer: {}, inserted concurrently", transferId);
+    }
+    return transferId;
+  }
 
-    pendingTransfer.setStatus(TransferStatus.valueOf(status));
-    transferRepository.save(pendingTransfer);
+  /**
+   * Sends transfers that have already been persisted as UNKNOWN to the ledger and applies their
+   * outcomes
+   *
+   * @param pending transfers with their transferId resolved
+   * @return ledger statuses keyed by transferId; transfers the ledger did not settle are absent
+   */
+  public Map<String, TransferStatus> settlePending(List<TransferDTO> pending) {
+    final Map<String, TransferStatus> settled = settle(pending);
+    transferPersistenceService.updateStatuses(settled);
+    return settled;
+  }
 
-    return status;
+  /**
+   * {@link #settlePending} for more transfers than fit in one ledger request: transfers are sent
+   * in chunks of {@code chunkSize}, with at most {@code parallelism} chunks in flight. A chunk that
+   * fails is left UNKNOWN without affecting the others.
+   *
+   * @param pending transfers with their transferId resolved
+   * @param chunkSize transfers per ledger request
+   * @param parallelism chunks in flight at the same time
+   * @return ledger statuses keyed by transferId; transfers the ledger did not settle are absent
+   */
+  public Map<String, TransferStatus> settlePending(
+      List<TransferDTO> pending, int chunkSize, int parallelism) {
+    final List<List<TransferDTO>> chunks = new ArrayList<>();
+    for (int i = 0; i < pending.size(); i += chunkSize) {
+      chunks.add(pending.subList(i, Math.min(i + chunkSize, pending.size())));
+    }
+
+    return Flux.fromIterable(chunks)
+        .flatMap(
+            chunk ->
+                Mono.fromCallable(() -> settlePending(chunk))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .onErrorResume(
+                        ex -> {
+                          log.error(
+                              "Chunk of {} transfers failed: {}", chunk.size(), ex.getMessage());
+                          return Mono.just(Map.of());
+                        }),
+            parallelism)
+        .flatMapIterable(Map::entrySet)
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+        .block();
   }
 
   @Transactional(Transactional.TxType.SUPPORTS)
@@ -101,33 +214,356 @@ public class TransferService implements TransferFallback {
     }
 
     log.info("Batch size: {}", requests.size());
+    transferMetrics.batch(requests.size());
+
+    if (!properties.isBatchEnabled()
+        && properties.getClient() == LedgerServiceProperties.Client.REACTIVE) {
+      return createBatchReactive(requests).block();
+    }
+
+    // Resolve ids up-front so ledger results can be mapped back to the requests
+    final List<TransferDTO> resolved = requests.stream().map(this::withTransferId).toList();
+
+    // Duplicates within the batch collapse to one transfer
+    final Map<String, TransferDTO> unique = new LinkedHashMap<>();
+    resolved.forEach(req -> unique.putIfAbsent(req.getTransferId(), req));
+
+    // Transfers already in flight elsewhere on this instance are awaited rather than sent again
+    final Map<String, TransferSingleFlight.Flight> flights = new LinkedHashMap<>();
+    unique.keySet().forEach(id -> flights.put(id, transferSingleFlight.claim(id)));
+
+    final Map<String, String> statuses = new HashMap<>();
+    try {
+      final List<TransferDTO> leading =
+          unique.values().stream()
+              .filter(req -> flights.get(req.getTransferId()).leader())
+              .toList();
+      if (!leading.isEmpty()) {
+        createLeading(leading).forEach((id, status) -> statuses.put(id, status.name()));
+      }
+
+      // Items without a ledger result stay UNKNOWN in the database and are reported as such, as
+      // the reconciler will still send them; our flights are completed before any other is awaited
+      flights.forEach(
+          (id, flight) -> {
+            if (flight.leader()) {
+              statuses.putIfAbsent(id, TransferStatus.UNKNOWN.name());
+              flight.future().complete(statuses.get(id));
+            }
+          });
+    } catch (RuntimeException ex) {
+      flights.values().stream()
+          .filter(TransferSingleFlight.Flight::leader)
+          .forEach(flight -> flight.future().completeExceptionally(ex));
+      throw ex;
+    } finally {
+      flights.forEach(transferSingleFlight::release);
+    }
+
+    flights.forEach(
+        (id, flight) -> {
+          if (!flight.leader()) {
+            statuses.put(id, awaitFlight(id, flight));
+          }
+        });
+
+    return resolved.stream().map(req -> statuses.get(req.getTransferId())).toList();
+  }
+
+  private Map<String, TransferStatus> createLeading(List<TransferDTO> leading) {
+    // One JDBC batch inserts every new transfer as UNKNOWN
+    final Map<String, TransferStatus> statuses = new HashMap<>(persistPending(leading));
+
+    final List<TransferDTO> pending =
+        leading.stream().filter(req -> !statuses.containsKey(req.getTransferId())).toList();
+
+    if (!pending.isEmpty()) {
+      // One JDBC batch applies every ledger outcome
+      final Map<String, TransferStatus> settled = settlePending(pending);
+      log.info("Ledger settled {} of {} transfers", settled.size(), pending.size());
+      statuses.putAll(settled);
+    }
+    return statuses;
+  }
+
+  private String awaitFlight(String transferId, TransferSingleFlight.Flight flight) {
+    try {
+      return transferSingleFlight.await(transferId, flight.future());
+    } catch (RuntimeException ex) {
+      // The transfer may still be settled by its leader or the reconciler
+      return TransferStatus.UNKNOWN.name();
+    }
+  }
+
+  /**
+   * Reactive version of {@link #createBatch}. Ledger calls are kept in flight concurrently on the
+   * ledger client's event loop; only the short database writes run on the bounded elastic pool,
+   * so no transferExecutor thread is held while waiting on the ledger.
+   *
+   * @param requests transfers of the batch
+   * @return statuses in request order
+   */
+  public Mono<List<String>> createBatchReactive(List<TransferDTO> requests) {
+    final List<TransferDTO> resolved = requests.stream().map(this::withTransferId).toList();
+
+    // Duplicates within the batch collapse to one transfer
+    final Map<String, TransferDTO> unique = new LinkedHashMap<>();
+    resolved.forEach(req -> unique.putIfAbsent(req.getTransferId(), req));
+
+    return Flux.fromIterable(unique.values())
+        .flatMap(
+            req ->
+                createTransferReactive(req)
+                    .onErrorResume(
+                        ex -> {
+                          log.error(
+                              "Reactive transfer failed for request {}: {}", req, ex.getMessage());
+                          return Mono.just(TransferStatus.UNKNOWN.name());
+                        })
+                    .map(status -> Map.entry(req.getTransferId(), status)),
+            properties.getMaxInFlight())
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+        .map(
+            statuses ->
+                resolved.stream().map(req -> statuses.get(req.getTransferId())).toList())
+        .contextWrite(LedgerDeadline.propagate());
+  }
+
+  /**
+   * Creates an unbounded stream of transfers. Items are requested from the source only as ledger
+   * calls complete, so at most maxInFlight transfers are held in memory, and each result is
+   * emitted as soon as its transfer settles rather than in request order. An invalid item is
+   * reported as FAILED, and one the ledger did not settle as UNKNOWN, without stopping the stream.
+   *
+   * @param requests transfers to create, e.g. parsed incrementally from an NDJSON body
+   * @return per-item results in completion order
+   */
+  public Flux<TransferResultDTO> createStream(Flux<TransferDTO> requests) {
+    return requests.flatMap(
+        req -> {
+          final Set<ConstraintViolation<TransferDTO>> violations = validator.validate(req);
+          if (!violations.isEmpty()) {
+            log.error("Invalid stream item {}: {}", req, violations);
+            return Mono.just(toResult(req.getTransferId(), TransferStatus.FAILED.name()));
+          }
+          return createTransferReactive(req)
+              .onErrorResume(
+                  ex -> {
+                    log.error("Stream transfer failed for request {}: {}", req, ex.getMessage());
+                    return Mono.just(TransferStatus.UNKNOWN.name());
+                  })
+              .map(status -> toResult(req.getTransferId(), status));
+        },
+        properties.getMaxInFlight());
+  }
+
+  /**
+   * Persists the transfer as UNKNOWN when it does not exist yet, then settles it with the ledger
+   *
+   * @param request transfer to create
+   * @return ledger status, or the stored status when the transfer already exists
+   */
+  public Mono<String> createTransferReactive(TransferDTO request) {
+    final TransferDTO resolved = withTransferId(request);
+
+    return transferSingleFlight.executeReactive(
+        resolved.getTransferId(),
+        () ->
+            Mono.fromCallable(() -> insertPending(resolved))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(
+                    existing -> {
+                      if (existing.isPresent()) {
+                        log.warn("Transfer: {}, already exist", resolved.getTransferId());
+                        return Mono.just(existing.get().name());
+                      }
+                      return self.settleTransferReactive(resolved);
+                    }));
+  }
+
+  /**
+   * Sends a single transfer that has already been persisted as UNKNOWN to the ledger
+   *
+   * @param request transfer with its transferId resolved
+   * @return ledger status, or empty when the ledger could not be reached
+   */
+  @CircuitBreaker(name = "ledgerService", fallbackMethod = "fallbackPostToLedger")
+  public Optional<TransferStatus> postToLedger(TransferDTO request) {
+    final String status = callLedger(request);
+
+    log.info("Transfer status: {}", status);
+    return Optional.of(TransferStatus.valueOf(status));
+  }
+
+  /**
+   * Sends a single transfer that has already been persisted as UNKNOWN to the ledger without
+   * blocking, then applies its outcome; the circuit breaker applies to the returned Mono
+   *
+   * @param request transfer with its transferId resolved
+   * @return ledger status
+   */
+  @CircuitBreaker(name = "ledgerService", fallbackMethod = "fallbackSettleTransferReactive")
+  public Mono<String> settleTransferReactive(TransferDTO request) {
+    return Mono.defer(
+        () -> {
+          final long start = System.nanoTime();
+          return ledgerClient
+              .transferAsync(request)
+              .doOnSuccess(status -> recordLedger(start, status))
+              .doOnError(ex -> recordLedger(start, null))
+              .publishOn(Schedulers.boundedElastic())
+              .map(
+                  status -> {
+                    log.info("Transfer status: {}", status);
+                    transferPersistenceService.updateStatus(
+                        request.getTransferId(), TransferStatus.valueOf(status));
+                    return status;
+                  });
+        });
+  }
+
+  /**
+   * Sends pending transfers to the ledger bulk path in one request
+   *
+   * @param requests transfers with their transferId resolved
+   * @return per-item ledger results, or empty when the ledger has no bulk path
+   */
+  @CircuitBreaker(name = "ledgerService", fallbackMethod = "fallbackPostBatch")
+  public Optional<List<TransferResultDTO>> postBatchToLedger(List<TransferDTO> requests) {
+    return ledgerClient.transferBatch(requests);
+  }
 
-    // Use self proxy so @Transactional/@CircuitBreaker apply in async threads
-    List<CompletableFuture<String>> futures =
-        requests.stream()
-            .map(
-                req ->
-                    CompletableFuture.supplyAsync(() -> self.createTransfer(req), transferExecutor)
-                        .exceptionally(
-                            ex -> {
-                              log.error(
-                                  "Async transfer failed for request {}: {}", req, ex.getMessage());
-                              return TransferStatus.FAILED.name();
-                            }))
-            .collect(Collectors.toList());
+  private Map<String, TransferStatus> settle(List<TransferDTO> pending) {
+    if (properties.isBatchEnabled()) {
+      final Optional<List<TransferResultDTO>> results = self.postBatchToLedger(pending);
+      if (results.isPresent()) {
+        final Map<String, TransferStatus> settled =
+            results.get().stream()
+                .filter(result -> Objects.nonNull(result.getTransferId()))
+                .filter(result -> Objects.nonNull(result.getStatus()))
+                .collect(
+                    Collectors.toMap(
+                        TransferResultDTO::getTransferId,
+                        TransferResultDTO::getStatus,
+                        (first, second) -> first));
+        settled.keySet().retainAll(pending.stream().map(TransferDTO::getTransferId).toList());
+        settled.values().forEach(transferMetrics::outcome);
+        transferMetrics.outcome(TransferStatus.UNKNOWN, pending.size() - settled.size());
+        return settled;
+      }
+      log.warn("Falling back to per-item ledger calls for {} transfers", pending.size());
+    }
+
+    // Use self proxy so @CircuitBreaker applies in async threads; the batch lane shares the
+    // workers between clients and leaves room for single transfers
+    final List<CompletableFuture<Optional<TransferStatus>>> futures = new ArrayList<>();
+    try {
+      for (TransferDTO req : pending) {
+        futures.add(
+            executionLanes
+                .submit(
+                    ExecutionLanes.Lane.BATCH, () -> self.postToLedger(req), transferExecutor)
+                .exceptionally(
+                    ex -> {
+                      log.error("Async transfer failed for request {}: {}", req, ex.getMessage());
+                      return Optional.empty();
+                    }));
+      }
+    } catch (RejectedExecutionException ex) {
+      // Transfers already sent are settled; the rest never reached the ledger and stay UNKNOWN
+      transferPersistenceService.updateStatuses(join(pending, futures));
+      throw admissionControl.executorRejected(pending.size() - futures.size());
+    }
+    return join(pending, futures);
+  }
 
-    // Join each future; failures already mapped to FAILED
-    return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+  // Join each future; failures already mapped to no ledger result
+  private static Map<String, TransferStatus> join(
+      List<TransferDTO> pending, List<CompletableFuture<Optional<TransferStatus>>> futures) {
+    final Map<String, TransferStatus> settled = new HashMap<>();
+    for (int i = 0; i < futures.size(); i++) {
+      final String transferId = pending.get(i).getTransferId();
+      futures.get(i).join().ifPresent(status -> settled.put(transferId, status));
+    }
+    return settled;
+  }
+
+  // Every single ledger call is timed and its outcome counted; no answer counts as UNKNOWN
+  private String callLedger(TransferDTO request) {
+    final long start = System.nanoTime();
+    String status = null;
+    try {
+      status = ledgerClient.transfer(request);
+      return status;
+    } finally {
+      recordLedger(start, status);
+    }
+  }
+
+  private void recordLedger(long start, String status) {
+    transferMetrics.record(TransferMetrics.Phase.LEDGER, start);
+    transferMetrics.outcome(
+        Objects.isNull(status) ? TransferStatus.UNKNOWN : TransferStatus.valueOf(status));
+  }
+
+  private Optional<TransferStatus> insertPending(TransferDTO request) {
+    try {
+      return transferPersistenceService.insertPending(request);
+    } catch (DataIntegrityViolationException ex) {
+      // A concurrent duplicate committed the same transferId first
+      log.warn("Transfer: {}, inserted concurrently", request.getTransferId());
+      return transferRepository.findStatusById(request.getTransferId());
+    }
+  }
+
+  private Map<String, TransferStatus> persistPending(List<TransferDTO> requests) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transferPersistenceService.persistPending(requests);
+      } catch (DataIntegrityViolationException ex) {
+        // A concurrent duplicate committed one of the transferIds after the existence check; the
+        // batch rolled back and is inserted again, now skipping it like any existing transfer
+        if (attempt == PERSIST_ATTEMPTS) {
+          throw ex;
+        }
+        log.warn("Batch of {} transfers inserted concurrently, retrying", requests.size());
+      }
+    }
+  }
+
+  private TransferResultDTO toResult(String transferId, String status) {
+    return TransferResultDTO.builder()
+        .transferId(transferId)
+        .status(TransferStatus.valueOf(status))
+        .build();
+  }
+
+  private TransferDTO withTransferId(TransferDTO request) {
+    if (Objects.nonNull(request.getTransferId())) {
+      return request;
+    }
+    return TransferDTO.builder()
+        .transferId(UUID.randomUUID().toString())
+        .fromAccountId(request.getFromAccountId())
+        .toAccountId(request.getToAccountId())
+        .amount(request.getAmount())
+        .build();
   }
 
   @CircuitBreaker(name = "ledgerService", fallbackMethod = "fallbackGetStatus")
   public String getStatusByTransferId(String transferId) {
     log.info("Get transfer status: {}", transferId);
 
+    // Read-through: misses, including unknown ids, reach the database once per TTL; transfers
+    // past the retention window are looked up in the archive
     final String status =
-        transferRepository
-            .findById(transferId)
-            .map(Transfer::getStatus)
+        transferStatusCache
+            .get(
+                transferId,
+                id ->
+                    transferRepository
+                        .findStatusById(id)
+                        .or(() -> transferArchive.findStatus(id)))
             .map(Enum::name)
             .orElseThrow(
                 () ->
@@ -0,0 +1,134 @@
+package za.co.sanlam.transferservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent requests for the same transferId within this instance: the first caller
+ * runs the transfer and every duplicate arriving while it is in flight waits for, and returns,
+ * the same status. The database insert remains the guard across instances.
+ */
+@Slf4j
+@Component
+public class TransferSingleFlight {
+
+  private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+  private final Counter coalescedCounter;
+
+  public TransferSingleFlight(MeterRegistry meterRegistry) {
+    this.coalescedCounter =
+        Counter.builder("transfer.singleflight.coalesced")
+            .description("Duplicate transfers that shared an in-flight execution")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Runs {@code work} unless the transfer is already in flight, in which case its result is
+   * awaited instead
+   *
+   * @param transferId transfer to run
+   * @param work creates the transfer and returns its status
+   * @return status of the single execution
+   */
+  public String execute(String transferId, Supplier<String> work) {
+    final Flight flight = claim(transferId);
+    if (!flight.leader()) {
+      return await(transferId, flight.future());
+    }
+
+    try {
+      final String status = work.get();
+      flight.future().complete(status);
+      return status;
+    } catch (RuntimeException ex) {
+      flight.future().completeExceptionally(ex);
+      throw ex;
+    } finally {
+      release(transferId, flight);
+    }
+  }
+
+  /**
+   * Non-blocking {@link #execute}: duplicates subscribe to the in-flight result
+   *
+   * @param transferId transfer to run
+   * @param work creates the transfer when subscribed to
+   * @return status of the single execution
+   */
+  public Mono<String> executeReactive(String transferId, Supplier<Mono<String>> work) {
+    return Mono.defer(
+        () -> {
+          final Flight flight = claim(transferId);
+          if (!flight.leader()) {
+            return Mono.fromFuture(flight.future(), true);
+          }
+
+          return work.get()
+              .doOnSuccess(status -> flight.future().complete(status))
+              .doOnError(ex -> flight.future().completeExceptionally(ex))
+              .doOnCancel(() -> flight.future().cancel(false))
+              .doFinally(signal -> release(transferId, flight));
+        });
+  }
+
+  /**
+   * Registers the caller as the one running the transfer, or returns the flight already running
+   * it. A leader must complete the future and {@link #release} it; callers holding several
+   * flights complete all they lead before awaiting any they follow, so two callers can never
+   * wait on each other.
+   *
+   * @param transferId transfer to run
+   * @return the flight, led by the caller when {@link Flight#leader()}
+   */
+  public Flight claim(String transferId) {
+    final CompletableFuture<String> future = new CompletableFuture<>();
+    final CompletableFuture<String> running = inFlight.putIfAbsent(transferId, future);
+    if (running == null) {
+      return new Flight(future, true);
+    }
+
+    log.warn("Transfer: {}, already in flight, sharing its result", transferId);
+    coalescedCounter.increment();
+    return new Flight(running, false);
+  }
+
+  /** Removes a completed flight so later requests see the stored status instead */
+  public void release(String transferId, Flight flight) {
+    if (flight.leader()) {
+      inFlight.remove(transferId, flight.future());
+    }
+  }
+
+  /**
+   * Waits for a flight led by another caller
+   *
+   * @return its status; the leader's exception is rethrown unwrapped
+   */
+  public String await(String transferId, CompletableFuture<String> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      log.warn("Transfer: {}, in-flight execution failed: {}", transferId, ex.getMessage());
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+
+  int inFlightCount() {
+    return inFlight.size();
+  }
+
+  /** A transfer in flight and whether the holder runs it */
+  public record Flight(CompletableFuture<String> future, boolean leader) {}
+}
@@ -0,0 +1,165 @@
+package za.co.sanlam.transferservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.TransferCacheProperties;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of transfer statuses keyed by transferId. Terminal statuses live
+ * longer than UNKNOWN, and transferIds that do not exist are cached as negative entries.
+ */
+@Component
+public class TransferStatusCache {
+
+  static final String CACHE_NAME = "transferStatus";
+
+  // Shared values, so caching a status does not allocate
+  private static final Optional<TransferStatus> NOT_FOUND = Optional.empty();
+  private static final Map<TransferStatus, Optional<TransferStatus>> FOUND =
+      new EnumMap<>(TransferStatus.class);
+
+  static {
+    for (TransferStatus status : TransferStatus.values()) {
+      FOUND.put(status, Optional.of(status));
+    }
+  }
+
+  private final Cache<String, Optional<TransferStatus>> cache;
+
+  @Autowired
+  public TransferStatusCache(TransferCacheProperties properties, MeterRegistry meterRegistry) {
+    this(properties, meterRegistry, Ticker.systemTicker());
+  }
+
+  TransferStatusCache(
+      TransferCacheProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(properties.getMaxSize())
+            .expireAfter(new StatusExpiry(properties))
+            .ticker(ticker)
+            .recordStats()
+            .build();
+
+    // cache.gets{result=hit|miss}, cache.evictions, cache.size under the transferStatus name
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  /**
+   * Reads a status through the cache
+   *
+   * @param transferId transfer to look up
+   * @param loader database lookup, invoked once per miss
+   * @return status, or empty when the transfer does not exist
+   */
+  public Optional<TransferStatus> get(
+      String transferId, Function<String, Optional<TransferStatus>> loader) {
+    return cache.get(transferId, id -> loader.apply(id).map(FOUND::get).orElse(NOT_FOUND));
+  }
+
+  /**
+   * Reads several statuses through the cache, loading every miss in one call
+   *
+   * @param transferIds transfers to look up
+   * @param loader database lookup of the missed transferIds; transfers it leaves out are cached
+   *     as not found
+   * @return status by transferId, empty when the transfer does not exist
+   */
+  public Map<String, Optional<TransferStatus>> getAll(
+      Collection<String> transferIds,
+      Function<Set<String>, Map<String, TransferStatus>> loader) {
+    return cache.getAll(
+        transferIds,
+        missed -> {
+          final Map<String, TransferStatus> loaded =
+              loader.apply(Collections.unmodifiableSet(missed));
+          final Map<String, Optional<TransferStatus>> entries = new HashMap<>();
+          for (String transferId : missed) {
+            final TransferStatus status = loaded.get(transferId);
+            entries.put(transferId, Objects.isNull(status) ? NOT_FOUND : FOUND.get(status));
+          }
+          return entries;
+        });
+  }
+
+  /**
+   * Writes a status through to the cache once the surrounding transaction, if any, commits
+   *
+   * @param transferId transfer whose status changed
+   * @param status new status
+   */
+  public void put(String transferId, TransferStatus status) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      cache.put(transferId, FOUND.get(status));
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            cache.put(transferId, FOUND.get(status));
+          }
+        });
+  }
+
+  public void evict(String transferId) {
+    cache.invalidate(transferId);
+  }
+
+  private record StatusExpiry(TransferCacheProperties properties)
+      implements Expiry<String, Optional<TransferStatus>> {
+
+    @Override
+    public long expireAfterCreate(
+        String transferId, Optional<TransferStatus> status, long currentTime) {
+      return ttlNanos(status);
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String transferId,
+        Optional<TransferStatus> status,
+        long currentTime,
+        long currentDuration) {
+      return ttlNanos(status);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String transferId,
+        Optional<TransferStatus> status,
+        long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+
+    private long ttlNanos(Optional<TransferStatus> status) {
+      if (status.isEmpty()) {
+        return properties.getNotFoundTtl().toNanos();
+      }
+      return status.get() == TransferStatus.UNKNOWN
+          ? properties.getUnknownTtl().toNanos()
+          : properties.getTerminalTtl().toNanos();
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package za.co.sanlam.transferservice.service;
+
+import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import za.co.sanlam.transferservice.archive.TransferArchive;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
+import za.co.sanlam.transferservice.dto.TransferStatusesDTO;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.TransferStatusProperties;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Looks up the statuses of many transfers in one call. Cached statuses are served first; the
+ * misses are read with chunked IN queries projecting only id and status, and whatever the
+ * database no longer holds is looked up in the archive.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferStatusService {
+
+  private final TransferStatusProperties properties;
+  private final TransferRepository transferRepository;
+  private final TransferStatusCache transferStatusCache;
+  private final TransferArchive transferArchive;
+
+  /**
+   * Returns the statuses of the given transfers
+   *
+   * @param transferIds transfers to look up, at most maxBatchSize
+   * @return status by transferId in request order, and the transferIds that do not exist
+   */
+  public TransferStatusesDTO getStatuses(List<String> transferIds) {
+    if (transferIds == null || transferIds.isEmpty()) {
+      log.error("Invalid status lookup: nothing to look up");
+      throw new ValidationException("Invalid status lookup: nothing to look up");
+    }
+
+    if (transferIds.size() > properties.getMaxBatchSize()) {
+      log.error("Status lookup size: {}", transferIds.size());
+      throw new ValidationException(
+          "Status lookup size is greater than allow max of " + properties.getMaxBatchSize());
+    }
+
+    final Set<String> unique = new LinkedHashSet<>(transferIds);
+    final Map<String, Optional<TransferStatus>> found =
+        transferStatusCache.getAll(unique, this::load);
+
+    final Map<String, TransferStatus> statuses = new LinkedHashMap<>();
+    final List<String> missing = new ArrayList<>();
+    for (String transferId : unique) {
+      found
+          .getOrDefault(transferId, Optional.empty())
+          .ifPresentOrElse(
+              status -> statuses.put(transferId, status), () -> missing.add(transferId));
+    }
+
+    log.info("Status lookup: {} found, {} missing", statuses.size(), missing.size());
+    return TransferStatusesDTO.builder().statuses(statuses).missing(missing).build();
+  }
+
+  private Map<String, TransferStatus> load(Set<String> transferIds) {
+    final List<String> ids = new ArrayList<>(transferIds);
+    final Map<String, TransferStatus> loaded = new HashMap<>();
+    final int chunkSize = properties.getChunkSize();
+    for (int i = 0; i < ids.size(); i += chunkSize) {
+      final List<String> chunk = ids.subList(i, Math.min(i + chunkSize, ids.size()));
+      for (TransferResultDTO result : transferRepository.findStatusesByIdIn(chunk)) {
+        loaded.put(result.getTransferId(), result.getStatus());
+      }
+    }
+
+    // Transfers past the retention window
+    for (String transferId : ids) {
+      if (!loaded.containsKey(transferId)) {
+        transferArchive.findStatus(transferId).ifPresent(status -> loaded.put(transferId, status));
+      }
+    }
+
+    log.info("Loaded {} of {} statuses", loaded.size(), ids.size());
+    return loaded;
+  }
+}
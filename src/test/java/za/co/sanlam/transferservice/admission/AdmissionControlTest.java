@@ -0,0 +1,116 @@
+package za.co.sanlam.transferservice.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import za.co.sanlam.transferservice.admission.AdmissionControl.Priority;
+import za.co.sanlam.transferservice.properties.TransferAdmissionProperties;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AdmissionControlTest {
+
+  private static final long UNIT = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private TransferAdmissionProperties properties;
+  private AdmissionControl admissionControl;
+
+  @BeforeEach
+  void setUp() {
+    properties = new TransferAdmissionProperties();
+    // Ten ledger calls in flight at a time, each taking 100ms
+    admissionControl = new AdmissionControl(properties, () -> 10, meterRegistry);
+    admissionControl.tryAdmit(Priority.SINGLE, 1);
+    admissionControl.complete(Priority.SINGLE, 1, UNIT);
+  }
+
+  private double shed(String priority, String reason) {
+    return meterRegistry
+        .get("transfer.admission.shed")
+        .tag("priority", priority)
+        .tag("reason", reason)
+        .counter()
+        .count();
+  }
+
+  @Test
+  void tryAdmit_shouldShedBatchesBeforeSingleTransfers() {
+    // Work beyond the limit queues: 100ms, 300ms, then 500ms for the third batch
+    for (int i = 0; i < 3; i++) {
+      assertThat(admissionControl.tryAdmit(Priority.BATCH, 20).admitted()).isTrue();
+    }
+
+    AdmissionControl.Decision batch = admissionControl.tryAdmit(Priority.BATCH, 20);
+    assertThat(batch.admitted()).isFalse();
+    assertThat(batch.retryAfter()).isEqualTo(Duration.ofSeconds(1));
+    assertThat(shed("batch", "queue_delay")).isEqualTo(1);
+
+    // A single transfer would wait 510ms, well within its budget
+    assertThat(admissionControl.tryAdmit(Priority.SINGLE, 1).admitted()).isTrue();
+    assertThat(admissionControl.getWork()).isEqualTo(61);
+  }
+
+  @Test
+  void tryAdmit_shouldShedSingleTransfersPastTheirBudget() {
+    AdmissionControl.Decision decision;
+    do {
+      decision = admissionControl.tryAdmit(Priority.SINGLE, 1);
+    } while (decision.admitted());
+
+    // The next one would wait 2.01s; Retry-After rounds up to whole seconds
+    assertThat(admissionControl.getWork()).isEqualTo(210);
+    assertThat(decision.retryAfter()).isEqualTo(Duration.ofSeconds(3));
+    assertThat(shed("single", "queue_delay")).isEqualTo(1);
+    assertThat(meterRegistry.get("transfer.admission.work").gauge().value()).isEqualTo(210);
+  }
+
+  @Test
+  void complete_shouldReleaseWork() {
+    for (int i = 0; i < 3; i++) {
+      admissionControl.tryAdmit(Priority.BATCH, 20);
+    }
+    for (int i = 0; i < 3; i++) {
+      admissionControl.complete(Priority.BATCH, 20, UNIT * 20);
+    }
+
+    assertThat(admissionControl.getWork()).isZero();
+    assertThat(admissionControl.tryAdmit(Priority.BATCH, 20).admitted()).isTrue();
+  }
+
+  @Test
+  void complete_shouldNotSampleTheServiceTimeOfBatchesOrStreams() {
+    for (int i = 0; i < 3; i++) {
+      admissionControl.tryAdmit(Priority.BATCH, 20);
+    }
+
+    // A long stream admitted at the assumed cost says nothing about a ledger call's duration
+    admissionControl.complete(Priority.BATCH, 20, TimeUnit.MINUTES.toNanos(5));
+
+    // 40 calls of work, 30 beyond the limit, still at 100ms per ten calls
+    assertThat(meterRegistry.get("transfer.admission.queue.delay").gauge().value())
+        .isCloseTo(0.3, within(1e-9));
+  }
+
+  @Test
+  void tryAdmit_shouldAdmitEverythingWhenDisabled() {
+    properties.setEnabled(false);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(admissionControl.tryAdmit(Priority.BATCH, 20).admitted()).isTrue();
+    }
+    assertThat(admissionControl.getWork()).isZero();
+  }
+
+  @Test
+  void executorRejected_shouldCountAndTellTheClientWhenToRetry() {
+    assertThat(admissionControl.executorRejected(5).getRetryAfter())
+        .isEqualTo(properties.getRejectedRetryAfter());
+    assertThat(shed("batch", "executor")).isEqualTo(1);
+  }
+}
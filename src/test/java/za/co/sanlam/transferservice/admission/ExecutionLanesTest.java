@@ -0,0 +1,151 @@
+package za.co.sanlam.transferservice.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import za.co.sanlam.transferservice.admission.ExecutionLanes.Lane;
+import za.co.sanlam.transferservice.exception.TransferOverloadedException;
+import za.co.sanlam.transferservice.properties.TransferAdmissionProperties;
+import za.co.sanlam.transferservice.properties.TransferLaneProperties;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExecutionLanesTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  // Tasks handed to the executor, run one at a time by the test
+  private final Deque<Runnable> tasks = new ArrayDeque<>();
+  private final Executor executor = tasks::add;
+  private final List<String> started = new ArrayList<>();
+
+  private TransferLaneProperties properties;
+
+  @BeforeEach
+  void setUp() {
+    // One transfer at a time, so every other transfer queues
+    properties = new TransferLaneProperties();
+    properties.setMaxConcurrency(1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransferClient.clear();
+  }
+
+  private ExecutionLanes lanes() {
+    return new ExecutionLanes(properties, new TransferAdmissionProperties(), meterRegistry);
+  }
+
+  private CompletableFuture<String> submit(ExecutionLanes lanes, Lane lane, String name) {
+    return lanes.submit(
+        lane,
+        () -> {
+          started.add(name);
+          return name;
+        },
+        executor);
+  }
+
+  private void drain() {
+    while (!tasks.isEmpty()) {
+      tasks.poll().run();
+    }
+  }
+
+  @Test
+  void submit_shouldServeClientsOfABatchLaneRoundRobin() {
+    ExecutionLanes lanes = lanes();
+
+    TransferClient.set("a");
+    submit(lanes, Lane.BATCH, "a1");
+    submit(lanes, Lane.BATCH, "a2");
+    submit(lanes, Lane.BATCH, "a3");
+    TransferClient.set("b");
+    submit(lanes, Lane.BATCH, "b1");
+    submit(lanes, Lane.BATCH, "b2");
+    assertThat(lanes.queued(Lane.BATCH)).isEqualTo(4);
+
+    drain();
+
+    // Client b's batch is not held up behind the rest of client a's
+    assertThat(started).containsExactly("a1", "a2", "b1", "a3", "b2");
+    assertThat(lanes.running(Lane.BATCH)).isZero();
+    assertThat(meterRegistry.get("transfer.lane.queue").tag("lane", "batch").timer().count())
+        .isEqualTo(5);
+  }
+
+  @Test
+  void submit_shouldShareSlotsBetweenLanesByWeight() {
+    ExecutionLanes lanes = lanes();
+    submit(lanes, Lane.BATCH, "first");
+    for (int i = 0; i < 12; i++) {
+      submit(lanes, Lane.SINGLE, "single");
+      submit(lanes, Lane.BATCH, "batch");
+    }
+
+    drain();
+
+    // Weights 3 and 1: about three singles for every batch item while both lanes wait
+    List<String> shared = started.subList(1, 17);
+    assertThat(shared.stream().filter("single"::equals).count()).isBetween(11L, 13L);
+    assertThat(started).hasSize(25);
+  }
+
+  @Test
+  void submit_shouldRejectWhenTheLaneQueueIsFull() {
+    properties.getBatch().setQueueCapacity(1);
+    ExecutionLanes lanes = lanes();
+    submit(lanes, Lane.BATCH, "running");
+    submit(lanes, Lane.BATCH, "queued");
+
+    assertThatThrownBy(() -> submit(lanes, Lane.BATCH, "rejected"))
+        .isInstanceOf(RejectedExecutionException.class);
+    assertThat(meterRegistry.get("transfer.lane.rejected").tag("lane", "batch").counter().count())
+        .isEqualTo(1);
+
+    drain();
+    assertThat(started).containsExactly("running", "queued");
+  }
+
+  @Test
+  void run_shouldGiveUpAfterTheQueueTimeout() {
+    properties.getSingle().setQueueTimeout(Duration.ofMillis(50));
+    ExecutionLanes lanes = lanes();
+    submit(lanes, Lane.BATCH, "running");
+
+    assertThatThrownBy(() -> lanes.run(Lane.SINGLE, () -> "late"))
+        .isInstanceOf(TransferOverloadedException.class);
+    assertThat(lanes.queued(Lane.SINGLE)).isZero();
+
+    // The slot is free again once the batch item is done
+    drain();
+    assertThat(lanes.run(Lane.SINGLE, () -> "next")).isEqualTo("next");
+    assertThat(lanes.running(Lane.SINGLE)).isZero();
+  }
+
+  @Test
+  void submit_shouldFailTransfersThatWaitedPastTheQueueTimeout() throws InterruptedException {
+    properties.getBatch().setQueueTimeout(Duration.ofMillis(20));
+    ExecutionLanes lanes = lanes();
+    submit(lanes, Lane.BATCH, "running");
+    CompletableFuture<String> late = submit(lanes, Lane.BATCH, "late");
+
+    Thread.sleep(50);
+    drain();
+
+    assertThat(late).isCompletedExceptionally();
+    assertThat(started).containsExactly("running");
+  }
+}
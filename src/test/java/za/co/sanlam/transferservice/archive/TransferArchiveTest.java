@@ -0,0 +1,212 @@
+package za.co.sanlam.transferservice.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.TransferArchiveProperties;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransferArchiveTest {
+
+  private static final LocalDateTime DAY_ONE = LocalDateTime.of(2025, 3, 1, 10, 15, 30);
+  private static final LocalDateTime DAY_TWO = DAY_ONE.plusDays(1);
+
+  @TempDir private Path directory;
+
+  private TransferArchiveProperties properties;
+
+  @BeforeEach
+  void setUp() {
+    properties = new TransferArchiveProperties();
+    properties.setDirectory(directory);
+    properties.setBlockSize(16);
+  }
+
+  private TransferArchive open() throws IOException {
+    TransferArchive archive = new TransferArchive(properties);
+    archive.init();
+    return archive;
+  }
+
+  private List<Path> segments(String day) throws IOException {
+    try (Stream<Path> files = Files.list(directory.resolve(day))) {
+      return files.toList();
+    }
+  }
+
+  private Transfer transfer(String id, TransferStatus status, LocalDateTime created) {
+    return Transfer.builder()
+        .id(id)
+        .version(1L)
+        .fromAccountId("A-" + id)
+        .toAccountId("B-" + id)
+        .amount(new BigDecimal("1234.56"))
+        .status(status)
+        .created(created)
+        .build();
+  }
+
+  @Test
+  void find_shouldReturnEveryArchivedTransferAfterRestart() throws IOException {
+    List<Transfer> transfers = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      transfers.add(
+          transfer(
+              UUID.randomUUID().toString(),
+              i % 3 == 0 ? TransferStatus.FAILED : TransferStatus.SUCCESS,
+              (i % 2 == 0 ? DAY_ONE : DAY_TWO).plusSeconds(i)));
+    }
+    open().append(transfers);
+
+    // One segment per creation day
+    try (Stream<Path> days = Files.list(directory)) {
+      assertThat(days.map(day -> day.getFileName().toString()))
+          .containsExactlyInAnyOrder("2025-03-01", "2025-03-02");
+    }
+
+    TransferArchive reopened = open();
+    for (Transfer expected : transfers) {
+      assertThat(reopened.find(expected.getId()))
+          .hasValueSatisfying(
+              actual -> {
+                assertThat(actual.getStatus()).isEqualTo(expected.getStatus());
+                assertThat(actual.getFromAccountId()).isEqualTo(expected.getFromAccountId());
+                assertThat(actual.getToAccountId()).isEqualTo(expected.getToAccountId());
+                assertThat(actual.getAmount()).isEqualByComparingTo(expected.getAmount());
+                assertThat(actual.getCreated()).isEqualTo(expected.getCreated());
+              });
+    }
+    assertThat(reopened.find(UUID.randomUUID().toString())).isEmpty();
+    assertThat(reopened.find("")).isEmpty();
+  }
+
+  @Test
+  void findStatus_shouldPreferTheMostRecentlyArchivedCopy() throws IOException {
+    TransferArchive archive = open();
+    archive.append(List.of(transfer("t-1", TransferStatus.UNKNOWN, DAY_ONE)));
+    archive.append(List.of(transfer("t-1", TransferStatus.SUCCESS, DAY_ONE)));
+
+    assertThat(archive.findStatus("t-1")).contains(TransferStatus.SUCCESS);
+    assertThat(open().findStatus("t-1")).contains(TransferStatus.SUCCESS);
+  }
+
+  @Test
+  void seal_shouldMergeTheSegmentsOfEveryClosedDay() throws IOException {
+    TransferArchive archive = open();
+    archive.append(List.of(transfer("t-1", TransferStatus.FAILED, DAY_ONE)));
+    archive.append(
+        List.of(
+            transfer("t-2", TransferStatus.SUCCESS, DAY_ONE),
+            transfer("t-3", TransferStatus.SUCCESS, DAY_ONE)));
+    archive.append(List.of(transfer("t-1", TransferStatus.SUCCESS, DAY_ONE)));
+    archive.append(List.of(transfer("t-4", TransferStatus.SUCCESS, DAY_TWO)));
+    archive.append(List.of(transfer("t-5", TransferStatus.SUCCESS, DAY_TWO)));
+
+    // Day two may still get transfers, so only day one is merged
+    archive.seal(DAY_TWO.toLocalDate());
+
+    assertThat(segments("2025-03-01")).hasSize(1);
+    assertThat(segments("2025-03-02")).hasSize(2);
+    for (TransferArchive reader : List.of(archive, open())) {
+      assertThat(reader.findStatus("t-1")).contains(TransferStatus.SUCCESS);
+      assertThat(reader.find("t-2")).isPresent();
+      assertThat(reader.find("t-3")).isPresent();
+      assertThat(reader.find("t-4")).isPresent();
+      assertThat(reader.find("t-5")).isPresent();
+    }
+  }
+
+  @Test
+  void find_shouldNotMissATransferWhileItsDayIsMerged() throws Exception {
+    // One mapping at a time, so lookups keep mapping segments a merge may just have deleted
+    properties.setMaxMappedSegments(1);
+    TransferArchive archive = open();
+    archive.append(List.of(transfer("t-0", TransferStatus.SUCCESS, DAY_ONE)));
+
+    AtomicBoolean merging = new AtomicBoolean(true);
+    AtomicInteger latest = new AtomicInteger();
+    AtomicInteger misses = new AtomicInteger();
+    ExecutorService readers = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> lookups = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        lookups.add(
+            readers.submit(
+                () -> {
+                  while (merging.get()) {
+                    for (String id : List.of("t-0", "t-" + latest.get())) {
+                      if (archive.find(id).isEmpty()) {
+                        misses.incrementAndGet();
+                      }
+                    }
+                  }
+                }));
+      }
+
+      for (int round = 1; round <= 200; round++) {
+        archive.append(List.of(transfer("t-" + round, TransferStatus.SUCCESS, DAY_ONE)));
+        latest.set(round);
+        archive.seal(DAY_TWO.toLocalDate());
+      }
+      merging.set(false);
+      for (Future<?> lookup : lookups) {
+        lookup.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      readers.shutdownNow();
+    }
+
+    assertThat(misses).hasValue(0);
+    assertThat(segments("2025-03-01")).hasSize(1);
+    assertThat(archive.mappedSegments()).isLessThanOrEqualTo(1);
+  }
+
+  @Test
+  void find_shouldKeepAtMostMaxMappedSegmentsMapped() throws IOException {
+    properties.setMaxMappedSegments(2);
+    TransferArchive archive = open();
+    for (int day = 0; day < 5; day++) {
+      archive.append(List.of(transfer("t-" + day, TransferStatus.SUCCESS, DAY_ONE.plusDays(day))));
+    }
+
+    for (int day = 0; day < 5; day++) {
+      assertThat(archive.find("t-" + day)).isPresent();
+      assertThat(archive.mappedSegments()).isLessThanOrEqualTo(2);
+    }
+
+    // Ids no segment holds are answered without mapping anything
+    TransferArchive reopened = open();
+    assertThat(reopened.find("unknown")).isEmpty();
+    assertThat(reopened.mappedSegments()).isZero();
+  }
+
+  @Test
+  void append_shouldWriteNothingWhenDisabled() throws IOException {
+    properties.setEnabled(false);
+
+    open().append(List.of(transfer("t-1", TransferStatus.SUCCESS, DAY_ONE)));
+
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+}
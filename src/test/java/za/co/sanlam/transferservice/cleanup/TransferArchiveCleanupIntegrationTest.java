@@ -0,0 +1,66 @@
+package za.co.sanlam.transferservice.cleanup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+import za.co.sanlam.transferservice.service.TransferCleanupService;
+import za.co.sanlam.transferservice.service.TransferService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "transfer.archive.directory=target/test-archive/${random.uuid}")
+@AutoConfigureTestDatabase
+class TransferArchiveCleanupIntegrationTest {
+
+  @Autowired private TransferCleanupService transferCleanupService;
+
+  @Autowired private TransferService transferService;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private void insert(String transferId, TransferStatus status, LocalDateTime created) {
+    jdbcTemplate.update(
+        "INSERT INTO transfer "
+            + "(id, version, from_account_id, to_account_id, amount, status, created) "
+            + "VALUES (?, 0, ?, ?, ?, ?, ?)",
+        transferId,
+        "A-" + transferId,
+        "B-" + transferId,
+        BigDecimal.TEN,
+        status.name(),
+        created);
+  }
+
+  @Test
+  void getStatusByTransferId_shouldFallBackToTheArchiveAfterCleanup() {
+    insert("expired", TransferStatus.FAILED, LocalDateTime.now().minusDays(3));
+    insert("live", TransferStatus.SUCCESS, LocalDateTime.now());
+
+    transferCleanupService.cleanupOldTransfers();
+
+    assertThat(transferRepository.existsById("expired")).isFalse();
+    assertThat(transferRepository.existsById("live")).isTrue();
+
+    assertThat(transferService.getStatusByTransferId("expired")).isEqualTo("FAILED");
+    assertThat(transferService.getStatusByTransferId("live")).isEqualTo("SUCCESS");
+  }
+
+  @Test
+  void cleanupOldTransfers_shouldKeepUnknownTransfersForTheReconciler() {
+    insert("unsettled", TransferStatus.UNKNOWN, LocalDateTime.now().minusDays(3));
+
+    transferCleanupService.cleanupOldTransfers();
+
+    assertThat(transferRepository.existsById("unsettled")).isTrue();
+    assertThat(transferService.getStatusByTransferId("unsettled")).isEqualTo("UNKNOWN");
+  }
+}
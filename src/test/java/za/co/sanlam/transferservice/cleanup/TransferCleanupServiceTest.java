@@ -1,35 +1,75 @@
 package za.co.sanlam.transferservice.cleanup;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
+import za.co.sanlam.transferservice.archive.TransferArchive;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.TransferCleanupProperties;
 import za.co.sanlam.transferservice.repository.TransferRepository;
 import za.co.sanlam.transferservice.service.TransferCleanupService;
+import za.co.sanlam.transferservice.service.TransferStatusCache;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class TransferCleanupServiceTest {
 
   private TransferRepository transferRepository;
+  private TransferStatusCache transferStatusCache;
+  private TransferArchive transferArchive;
+  private SimpleMeterRegistry meterRegistry;
   private TransferCleanupService transferCleanupService;
 
   @BeforeEach
   void setUp() {
+    TransferCleanupProperties properties = new TransferCleanupProperties();
+    properties.setChunkSize(2);
+    properties.setMaxRowsPerSecond(100);
+
     transferRepository = Mockito.mock(TransferRepository.class);
-    transferCleanupService = new TransferCleanupService(transferRepository);
+    transferStatusCache = Mockito.mock(TransferStatusCache.class);
+    transferArchive = Mockito.mock(TransferArchive.class);
+    meterRegistry = new SimpleMeterRegistry();
+    transferCleanupService =
+        new TransferCleanupService(
+            properties, transferRepository, transferStatusCache, transferArchive, meterRegistry);
+  }
+
+  private List<Transfer> transfers(String... ids) {
+    return Arrays.stream(ids).map(id -> Transfer.builder().id(id).build()).toList();
   }
 
   @Test
   void cleanupOldTransfers_deletesRecordsOlderThan24Hours() {
+    when(transferRepository.findByStatusNotAndCreatedBeforeOrderByCreatedAsc(
+            eq(TransferStatus.UNKNOWN), any(), eq(Limit.of(2))))
+        .thenReturn(transfers("t-1", "t-2"), transfers("t-3"));
+
     transferCleanupService.cleanupOldTransfers();
 
     ArgumentCaptor<LocalDateTime> captor = ArgumentCaptor.forClass(LocalDateTime.class);
-    verify(transferRepository, times(1)).deleteByCreatedBefore(captor.capture());
+    verify(transferRepository, times(2))
+        .findByStatusNotAndCreatedBeforeOrderByCreatedAsc(any(), captor.capture(), any());
 
     LocalDateTime cutoff = captor.getValue();
     LocalDateTime nowMinus24Hours = LocalDateTime.now().minusHours(24);
@@ -38,5 +78,45 @@ class TransferCleanupServiceTest {
         cutoff.isAfter(nowMinus24Hours.minusSeconds(5))
             && cutoff.isBefore(nowMinus24Hours.plusSeconds(5)),
         "Cutoff should be approx 24 hours ago");
+
+    // Each chunk is archived, then deleted in one short statement; a full chunk is followed by
+    // another read
+    InOrder inOrder = Mockito.inOrder(transferArchive, transferRepository);
+    inOrder.verify(transferArchive).append(transfers("t-1", "t-2"));
+    inOrder.verify(transferRepository).deleteAllByIdInBatch(List.of("t-1", "t-2"));
+    inOrder.verify(transferArchive).append(transfers("t-3"));
+    inOrder.verify(transferRepository).deleteAllByIdInBatch(List.of("t-3"));
+    verify(transferStatusCache).evict("t-3");
+    verify(transferArchive).seal(cutoff.toLocalDate());
+
+    assertEquals(3, meterRegistry.get("transfer.cleanup.deleted").summary().totalAmount());
+    assertEquals(1, meterRegistry.get("transfer.cleanup.run").timer().count());
+  }
+
+  @Test
+  void cleanupOldTransfers_throttlesToMaxRowsPerSecond() {
+    when(transferRepository.findByStatusNotAndCreatedBeforeOrderByCreatedAsc(any(), any(), any()))
+        .thenReturn(transfers("t-1", "t-2"), transfers("t-3", "t-4"), List.of());
+
+    long started = System.nanoTime();
+    transferCleanupService.cleanupOldTransfers();
+    long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+    // Four rows at 100 rows per second take at least 40ms
+    assertTrue(elapsedMillis >= 40, "Cleanup should be rate limited");
+    verify(transferRepository, times(2)).deleteAllByIdInBatch(any());
+  }
+
+  @Test
+  void cleanupOldTransfers_keepsTransfersWhenArchivingFails() {
+    when(transferRepository.findByStatusNotAndCreatedBeforeOrderByCreatedAsc(any(), any(), any()))
+        .thenReturn(transfers("t-1"));
+    doThrow(new UncheckedIOException(new IOException("disk full")))
+        .when(transferArchive)
+        .append(any());
+
+    assertThrows(UncheckedIOException.class, () -> transferCleanupService.cleanupOldTransfers());
+
+    verify(transferRepository, never()).deleteAllByIdInBatch(any());
   }
 }
@@ -0,0 +1,221 @@
+package za.co.sanlam.transferservice.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import reactor.core.publisher.Mono;
+import za.co.sanlam.transferservice.exception.LedgerLimitExceededException;
+import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LedgerConcurrencyLimiterTest {
+
+  private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final AtomicLong clock = new AtomicLong();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private LedgerServiceProperties.Limit properties;
+  private LedgerConcurrencyLimiter limiter;
+
+  @BeforeEach
+  void setUp() {
+    properties = new LedgerServiceProperties.Limit();
+    properties.setInitialLimit(10);
+    properties.setMinLimit(2);
+    properties.setMaxLimit(100);
+    properties.setMaxWait(Duration.ZERO);
+    limiter = new LedgerConcurrencyLimiter(properties, meterRegistry, clock::get);
+  }
+
+  /** Fills the current limit with calls that all answer after {@code rttNanos} */
+  private void round(long rttNanos) {
+    List<LedgerConcurrencyLimiter.Permit> permits = new ArrayList<>();
+    for (int i = 0; i < (int) limiter.getLimit(); i++) {
+      permits.add(limiter.acquire(0));
+    }
+    clock.addAndGet(rttNanos);
+    permits.forEach(permit -> permit.succeeded(true));
+  }
+
+  /** Keeps the limit in use with staggered calls, each answering after {@code rttNanos} */
+  private void steady(int calls, long rttNanos) {
+    Deque<LedgerConcurrencyLimiter.Permit> permits = new ArrayDeque<>();
+    Deque<Long> started = new ArrayDeque<>();
+    int completed = 0;
+    while (completed < calls) {
+      if (permits.size() < (int) limiter.getLimit()) {
+        permits.add(limiter.acquire(0));
+        started.add(clock.get());
+      }
+      clock.addAndGet(rttNanos / (int) limiter.getLimit());
+      while (!started.isEmpty() && clock.get() - started.peek() >= rttNanos) {
+        started.poll();
+        permits.poll().succeeded(true);
+        completed++;
+      }
+    }
+    permits.forEach(permit -> permit.succeeded(true));
+  }
+
+  @Test
+  void limit_shouldGrowByAboutOnePerLimitOfCallsWhileLatencyIsStable() {
+    steady(50, RTT);
+
+    assertThat(limiter.getLimit()).isBetween(13.5, 16.5);
+    assertThat(limiter.getInFlight()).isZero();
+    assertThat(meterRegistry.get("ledger.concurrency.limit").gauge().value())
+        .isEqualTo(limiter.getLimit());
+  }
+
+  @Test
+  void limit_shouldBackOffOncePerRoundWhenLatencyRises() {
+    round(RTT);
+    double stable = limiter.getLimit();
+
+    // Every call of the round is slow, yet the limit is cut once
+    round(RTT * 5);
+    assertThat(limiter.getLimit()).isCloseTo(stable * 0.9, within(0.01));
+
+    round(RTT * 5);
+    assertThat(limiter.getLimit()).isCloseTo(stable * 0.81, within(0.01));
+  }
+
+  @Test
+  void limit_shouldNotGrowWhileMostlyIdle() {
+    for (int i = 0; i < 50; i++) {
+      LedgerConcurrencyLimiter.Permit permit = limiter.acquire(0);
+      clock.addAndGet(RTT);
+      permit.succeeded(true);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(10);
+  }
+
+  @Test
+  void call_shouldRejectCallsOverTheLimit() {
+    properties.setInitialLimit(2);
+    limiter = new LedgerConcurrencyLimiter(properties, meterRegistry, clock::get);
+
+    LedgerConcurrencyLimiter.Permit first = limiter.acquire(0);
+    limiter.acquire(0);
+
+    assertThatThrownBy(() -> limiter.call(() -> "SUCCESS", true))
+        .isInstanceOf(LedgerLimitExceededException.class);
+    assertThatThrownBy(() -> limiter.callAsync(() -> Mono.just("SUCCESS")).block())
+        .isInstanceOf(LedgerLimitExceededException.class);
+    assertThat(meterRegistry.get("ledger.concurrency.rejected").counter().count()).isEqualTo(2);
+
+    first.released();
+    assertThat(limiter.call(() -> "SUCCESS", true)).isEqualTo("SUCCESS");
+  }
+
+  @Test
+  void acquire_shouldWaitUntilASlotIsReleased() throws InterruptedException {
+    properties.setInitialLimit(2);
+    limiter = new LedgerConcurrencyLimiter(properties, meterRegistry, clock::get);
+    LedgerConcurrencyLimiter.Permit first = limiter.acquire(0);
+    limiter.acquire(0);
+
+    AtomicReference<LedgerConcurrencyLimiter.Permit> waited = new AtomicReference<>();
+    Thread waiter = new Thread(() -> waited.set(limiter.acquire(TimeUnit.SECONDS.toNanos(5))));
+    waiter.start();
+    while (waiter.getState() != Thread.State.TIMED_WAITING && waiter.isAlive()) {
+      Thread.onSpinWait();
+    }
+
+    first.released();
+    waiter.join(TimeUnit.SECONDS.toMillis(5));
+
+    assertThat(waited.get()).isNotNull();
+    assertThat(limiter.getInFlight()).isEqualTo(2);
+    assertThat(meterRegistry.get("ledger.concurrency.rejected").counter().count()).isZero();
+  }
+
+  @Test
+  void callAsync_shouldWaitForASlotWithoutBlocking() {
+    properties.setInitialLimit(2);
+    properties.setMaxWait(Duration.ofSeconds(5));
+    limiter = new LedgerConcurrencyLimiter(properties, meterRegistry, clock::get);
+    LedgerConcurrencyLimiter.Permit first = limiter.acquire(0);
+    limiter.acquire(0);
+
+    CompletableFuture<String> result = limiter.callAsync(() -> Mono.just("SUCCESS")).toFuture();
+    assertThat(result).isNotDone();
+
+    first.released();
+
+    assertThat(result).succeedsWithin(Duration.ofSeconds(5)).isEqualTo("SUCCESS");
+    assertThat(limiter.getInFlight()).isEqualTo(1);
+    assertThat(meterRegistry.get("ledger.concurrency.rejected").counter().count()).isZero();
+  }
+
+  @Test
+  void callAsync_shouldRejectAfterMaxWaitAndLeaveTheQueue() {
+    properties.setInitialLimit(2);
+    properties.setMaxWait(Duration.ofMillis(50));
+    limiter = new LedgerConcurrencyLimiter(properties, meterRegistry, clock::get);
+    LedgerConcurrencyLimiter.Permit first = limiter.acquire(0);
+    limiter.acquire(0);
+
+    assertThatThrownBy(() -> limiter.callAsync(() -> Mono.just("SUCCESS")).block())
+        .isInstanceOf(LedgerLimitExceededException.class);
+    assertThat(meterRegistry.get("ledger.concurrency.rejected").counter().count()).isEqualTo(1);
+
+    // The slot freed later is not handed to the caller that gave up
+    first.released();
+    assertThat(limiter.getInFlight()).isEqualTo(1);
+  }
+
+  @Test
+  void call_shouldBackOffOnServerErrorsButNotClientErrors() {
+    assertThatThrownBy(
+            () ->
+                limiter.call(
+                    () -> {
+                      throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+                    },
+                    true))
+        .isInstanceOf(HttpClientErrorException.class);
+    assertThat(limiter.getLimit()).isEqualTo(10);
+
+    assertThatThrownBy(
+            () ->
+                limiter.call(
+                    () -> {
+                      throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+                    },
+                    false))
+        .isInstanceOf(HttpServerErrorException.class);
+    assertThat(limiter.getLimit()).isEqualTo(9);
+    assertThat(limiter.getInFlight()).isZero();
+  }
+
+  @Test
+  void acquire_shouldNotLimitWhenDisabled() {
+    properties.setEnabled(false);
+    properties.setInitialLimit(1);
+    limiter = new LedgerConcurrencyLimiter(properties, meterRegistry, clock::get);
+
+    for (int i = 0; i < 5; i++) {
+      limiter.acquire(0);
+    }
+    assertThat(limiter.getInFlight()).isZero();
+  }
+}
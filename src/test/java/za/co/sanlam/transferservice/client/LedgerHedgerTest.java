@@ -0,0 +1,205 @@
+package za.co.sanlam.transferservice.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import za.co.sanlam.transferservice.exception.LedgerDeadlineExceededException;
+import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LedgerHedgerTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final CountDownLatch stalled = new CountDownLatch(1);
+
+  private LedgerServiceProperties.Hedge properties;
+  private LedgerHedger hedger;
+
+  @BeforeEach
+  void setUp() {
+    properties = new LedgerServiceProperties.Hedge();
+    properties.setEnabled(true);
+    properties.setMinSamples(5);
+    properties.setMinDelay(Duration.ofMillis(20));
+    properties.setBudgetRatio(1);
+    hedger = new LedgerHedger(properties, meterRegistry, executor);
+  }
+
+  @AfterEach
+  void tearDown() {
+    stalled.countDown();
+    executor.shutdownNow();
+  }
+
+  /** Fills the latency window with fast calls so a hedge delay is known */
+  private void warmUp() {
+    for (int i = 0; i < properties.getMinSamples(); i++) {
+      hedger.call(Optional.empty(), () -> "SUCCESS");
+    }
+  }
+
+  /** The first attempt hangs until the test ends, every later one answers at once */
+  private Supplier<String> firstStalls(AtomicInteger attempts) {
+    return () -> {
+      if (attempts.incrementAndGet() == 1) {
+        await(stalled);
+        return "STALLED";
+      }
+      return "HEDGED";
+    };
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private double count(String name) {
+    return meterRegistry.get(name).counter().count();
+  }
+
+  @Test
+  void call_shouldTakeTheHedgeWhenTheFirstAttemptStalls() {
+    warmUp();
+    AtomicInteger attempts = new AtomicInteger();
+
+    long start = System.nanoTime();
+    String status = hedger.call(Optional.empty(), firstStalls(attempts));
+
+    assertThat(status).isEqualTo("HEDGED");
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    assertThat(attempts.get()).isEqualTo(2);
+    assertThat(count("ledger.hedge.sent")).isEqualTo(1);
+    assertThat(count("ledger.hedge.won")).isEqualTo(1);
+  }
+
+  @Test
+  void call_shouldNotHedgeWithoutBudget() {
+    properties.setBudgetRatio(0);
+    warmUp();
+    AtomicInteger attempts = new AtomicInteger();
+
+    String status =
+        hedger.call(
+            Optional.empty(),
+            () -> {
+              attempts.incrementAndGet();
+              sleep(200);
+              return "SLOW";
+            });
+
+    assertThat(status).isEqualTo("SLOW");
+    assertThat(attempts.get()).isEqualTo(1);
+    assertThat(count("ledger.hedge.sent")).isZero();
+  }
+
+  @Test
+  void call_shouldNotHedgeBeforeEnoughSamples() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    String status =
+        hedger.call(
+            Optional.empty(),
+            () -> {
+              attempts.incrementAndGet();
+              sleep(100);
+              return "SLOW";
+            });
+
+    assertThat(status).isEqualTo("SLOW");
+    assertThat(attempts.get()).isEqualTo(1);
+  }
+
+  @Test
+  void call_shouldFailAtTheDeadline() {
+    properties.setEnabled(false);
+    AtomicInteger attempts = new AtomicInteger();
+
+    long start = System.nanoTime();
+    assertThatThrownBy(
+            () ->
+                hedger.call(
+                    Optional.of(LedgerDeadline.after(Duration.ofMillis(100))),
+                    firstStalls(attempts)))
+        .isInstanceOf(LedgerDeadlineExceededException.class);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    assertThat(count("ledger.deadline.exceeded")).isEqualTo(1);
+  }
+
+  @Test
+  void call_shouldNotCallTheLedgerPastTheDeadline() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    assertThatThrownBy(
+            () ->
+                hedger.within(
+                    Optional.of(LedgerDeadline.after(Duration.ZERO)), attempts::incrementAndGet))
+        .isInstanceOf(LedgerDeadlineExceededException.class);
+    assertThat(attempts.get()).isZero();
+  }
+
+  @Test
+  void call_shouldReportAFailureWithoutWaitingForAHedge() {
+    warmUp();
+
+    assertThatThrownBy(
+            () ->
+                hedger.call(
+                    Optional.empty(),
+                    () -> {
+                      throw new IllegalStateException("ledger down");
+                    }))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("ledger down");
+    assertThat(count("ledger.hedge.sent")).isZero();
+  }
+
+  @Test
+  void callAsync_shouldCancelTheLosingAttempt() {
+    warmUp();
+    AtomicInteger attempts = new AtomicInteger();
+    CountDownLatch cancelled = new CountDownLatch(1);
+
+    String status =
+        hedger
+            .callAsync(
+                Optional.empty(),
+                () ->
+                    attempts.incrementAndGet() == 1
+                        ? Mono.<String>never().doOnCancel(cancelled::countDown)
+                        : Mono.just("HEDGED"))
+            .block(Duration.ofSeconds(5));
+
+    assertThat(status).isEqualTo("HEDGED");
+    // The loser is cancelled once the winner has completed the call
+    await(cancelled);
+    assertThat(cancelled.getCount()).isZero();
+    assertThat(count("ledger.hedge.won")).isEqualTo(1);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package za.co.sanlam.transferservice.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Reactive ledger transport, built as the REACTIVE client mode wires it */
+class AppConfigTest {
+
+  private final AppConfig appConfig = new AppConfig();
+  private final LedgerServiceProperties properties = new LedgerServiceProperties();
+
+  private StubLedger ledger;
+  private ConnectionProvider connectionProvider;
+
+  @BeforeEach
+  void setup() {
+    ledger = StubLedger.start();
+    properties.setBaseUrl(ledger.baseUrl());
+  }
+
+  @AfterEach
+  void shutdown() throws IOException {
+    if (Objects.nonNull(connectionProvider)) {
+      connectionProvider.dispose();
+    }
+    ledger.close();
+  }
+
+  @Test
+  void ledgerConnectionProvider_shouldBeBoundedByTheTotalConnections() {
+    properties.getPool().setMaxConnectionsPerRoute(50);
+    properties.getPool().setMaxConnectionsTotal(20);
+
+    connectionProvider = appConfig.ledgerConnectionProvider(properties);
+
+    assertThat(connectionProvider.maxConnections()).isEqualTo(20);
+  }
+
+  @Test
+  void ledgerWebClient_shouldKeepIdlePooledConnectionsPastTheReadTimeout()
+      throws InterruptedException {
+    properties.getPool().setReadTimeout(Duration.ofMillis(200));
+    connectionProvider = appConfig.ledgerConnectionProvider(properties);
+    WebClient webClient =
+        appConfig.ledgerWebClient(WebClient.builder(), properties, connectionProvider);
+
+    assertThat(transfer(webClient, "idle-1")).isNotBlank();
+    assertThat(ledger.lastSequenceNumber()).isZero();
+
+    // Idle in the pool for longer than the read timeout, then reused
+    Thread.sleep(500);
+    assertThat(transfer(webClient, "idle-2")).isNotBlank();
+    assertThat(ledger.lastSequenceNumber()).isEqualTo(1);
+  }
+
+  private String transfer(WebClient webClient, String transferId) {
+    return webClient
+        .post()
+        .uri(StubLedger.PATH)
+        .bodyValue(
+            Map.of(
+                "transferId", transferId,
+                "fromAccountId", "1",
+                "toAccountId", "2",
+                "amount", BigDecimal.TEN))
+        .retrieve()
+        .bodyToMono(String.class)
+        .block(Duration.ofSeconds(5));
+  }
+}
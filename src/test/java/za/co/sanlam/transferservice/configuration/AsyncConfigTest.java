@@ -0,0 +1,142 @@
+package za.co.sanlam.transferservice.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import za.co.sanlam.transferservice.client.LedgerDeadline;
+import za.co.sanlam.transferservice.monitoring.VirtualThreadPinningMonitor;
+import za.co.sanlam.transferservice.properties.TransferExecutorProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Wiring of the transfer executor in each mode; the throughput comparison is a benchmark */
+class AsyncConfigTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final TransferExecutorProperties properties = new TransferExecutorProperties();
+
+  private ThreadPoolTaskExecutor pool;
+
+  @AfterEach
+  void tearDown() {
+    LedgerDeadline.clear();
+    if (Objects.nonNull(pool)) {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void platformMode_shouldBuildABoundedPoolThatCountsRejections() throws InterruptedException {
+    properties.setCorePoolSize(1);
+    properties.setMaxPoolSize(1);
+    properties.setQueueCapacity(0);
+    Executor executor = new AsyncConfig(properties, meterRegistry).transferExecutor();
+
+    assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+    pool = (ThreadPoolTaskExecutor) executor;
+    assertThat(pool.getCorePoolSize()).isEqualTo(1);
+    assertThat(pool.getMaxPoolSize()).isEqualTo(1);
+
+    // The submitting thread's deadline is carried to the pool thread
+    LedgerDeadline deadline = LedgerDeadline.after(Duration.ofSeconds(5));
+    LedgerDeadline.set(deadline);
+    AtomicReference<Optional<LedgerDeadline>> seen = new AtomicReference<>();
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+    pool.execute(
+        () -> {
+          seen.set(LedgerDeadline.current());
+          awaitQuietly(release);
+          done.countDown();
+        });
+
+    assertThatThrownBy(() -> pool.execute(() -> {}))
+        .isInstanceOf(RejectedExecutionException.class);
+    assertThat(meterRegistry.get("executor.rejected").tag("name", "transfer").counter().count())
+        .isEqualTo(1);
+
+    release.countDown();
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(seen.get()).containsSame(deadline);
+  }
+
+  @Test
+  void virtualMode_shouldRunNoMoreTasksThanItsPermitsAtOnce() throws InterruptedException {
+    Semaphore permits = new Semaphore(2, true);
+    TaskDecorator decorator = AsyncConfig.boundedBy(permits);
+
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Runnable task =
+          decorator.decorate(
+              () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                awaitQuietly(release);
+                running.decrementAndGet();
+              });
+      Thread thread = new Thread(task);
+      thread.start();
+      threads.add(thread);
+    }
+
+    // Two tasks hold the permits, the other two wait for one
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while ((permits.getQueueLength() < 2 || running.get() < 2) && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+    assertThat(permits.getQueueLength()).isEqualTo(2);
+    assertThat(running.get()).isEqualTo(2);
+
+    release.countDown();
+    for (Thread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    assertThat(maxRunning.get()).isEqualTo(2);
+    assertThat(permits.availablePermits()).isEqualTo(2);
+  }
+
+  @Test
+  void pinningMonitor_shouldOnlyBeRegisteredInVirtualMode() {
+    ApplicationContextRunner runner =
+        new ApplicationContextRunner()
+            .withBean(TransferExecutorProperties.class, () -> properties)
+            .withBean(MeterRegistry.class, () -> meterRegistry)
+            .withUserConfiguration(VirtualThreadPinningMonitor.class);
+
+    runner
+        .withPropertyValues("transfer.executor.mode=VIRTUAL")
+        .run(context -> assertThat(context).hasSingleBean(VirtualThreadPinningMonitor.class));
+    runner
+        .withPropertyValues("transfer.executor.mode=PLATFORM")
+        .run(context -> assertThat(context).doesNotHaveBean(VirtualThreadPinningMonitor.class));
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package za.co.sanlam.transferservice.configuration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestTemplate;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.service.TransferService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+class LedgerTransportIntegrationTest {
+
+  private static final StubLedger ledger = StubLedger.start();
+
+  @Autowired private TransferService transferService;
+
+  @Autowired private RestTemplate restTemplate;
+
+  @Autowired private TestRestTemplate testRestTemplate;
+
+  @DynamicPropertySource
+  static void ledgerProperties(DynamicPropertyRegistry registry) {
+    registry.add("ledger.service.endpoint.baseUrl", ledger::baseUrl);
+    registry.add("ledger.service.endpoint.path", () -> StubLedger.PATH);
+    registry.add("ledger.service.endpoint.pool.readTimeout", () -> "500ms");
+    registry.add("ledger.service.endpoint.pool.responseTimeout", () -> "500ms");
+  }
+
+  @AfterAll
+  static void shutdown() throws IOException {
+    ledger.close();
+  }
+
+  @BeforeEach
+  void setup() {
+    ledger.reset();
+  }
+
+  private TransferDTO buildRequest(String transferId) {
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("1")
+        .toAccountId("2")
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  @Test
+  void restTemplate_shouldUsePooledTransport() {
+    assertThat(restTemplate.getRequestFactory())
+        .isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
+  }
+
+  @Test
+  void createTransfer_shouldTimeOutInsteadOfHangingOnSlowLedger() {
+    ledger.setDelayMillis(5_000);
+
+    long start = System.nanoTime();
+    String status = transferService.createTransfer(buildRequest("slow-1"));
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    assertThat(status).isEqualTo(TransferStatus.UNKNOWN.name());
+    assertThat(elapsed).isLessThan(Duration.ofSeconds(3));
+  }
+
+  @Test
+  void actuator_shouldExposeLedgerPoolStats() {
+    transferService.createTransfer(buildRequest("pooled-1"));
+
+    ResponseEntity<String> response =
+        testRestTemplate.getForEntity(
+            "/actuator/metrics/httpcomponents.httpclient.pool.total.connections", String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody()).contains("leased").contains("available");
+
+    assertThat(
+            testRestTemplate
+                .getForEntity(
+                    "/actuator/metrics/httpcomponents.httpclient.pool.total.pending", String.class)
+                .getStatusCode())
+        .isEqualTo(HttpStatus.OK);
+  }
+}
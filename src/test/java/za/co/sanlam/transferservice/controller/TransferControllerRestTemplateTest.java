@@ -8,9 +8,11 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
 import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.exception.TransferOverloadedException;
 import za.co.sanlam.transferservice.service.TransferService;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,6 +24,8 @@ import static org.mockito.Mockito.when;
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class TransferControllerRestTemplateTest {
 
+  private static final Duration ONE_SECOND = Duration.ofSeconds(1);
+
   @LocalServerPort private int port;
 
   @Autowired private TestRestTemplate restTemplate;
@@ -81,6 +85,22 @@ class TransferControllerRestTemplateTest {
     assertTrue(response.getBody().contains("OK2"));
   }
 
+  @Test
+  void testCreateBatchOverloaded() {
+    when(transferService.createBatch(any()))
+        .thenThrow(new TransferOverloadedException("Transfer executor is saturated", ONE_SECOND));
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    HttpEntity<List<TransferDTO>> entity = new HttpEntity<>(List.of(buildRequest("1")), headers);
+
+    ResponseEntity<String> response =
+        restTemplate.postForEntity(getBaseUrl() + "/batch", entity, String.class);
+
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+    assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+  }
+
   @Test
   void testGetTransferStatusById() {
     String transferId = UUID.randomUUID().toString();
@@ -0,0 +1,124 @@
+package za.co.sanlam.transferservice.controller;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "transfer.outbox.enabled=false",
+      "transfer.archive.directory=target/test-archive/${random.uuid}"
+    })
+class TransferDeadlineIntegrationTest {
+
+  private static final String TIMEOUT = "X-Request-Timeout";
+
+  private static final StubLedger ledger = StubLedger.start();
+
+  @LocalServerPort private int port;
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @DynamicPropertySource
+  static void ledgerProperties(DynamicPropertyRegistry registry) {
+    registry.add("ledger.service.endpoint.baseUrl", ledger::baseUrl);
+    registry.add("ledger.service.endpoint.path", () -> StubLedger.PATH);
+  }
+
+  @AfterAll
+  static void shutdown() throws IOException {
+    ledger.close();
+  }
+
+  @BeforeEach
+  void setup() {
+    ledger.reset();
+    transferRepository.deleteAll();
+  }
+
+  private String getBaseUrl() {
+    return "http://localhost:" + port + "/transfers";
+  }
+
+  private TransferDTO buildRequest(String transferId) {
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("A-" + transferId)
+        .toAccountId("B-" + transferId)
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  private <T> HttpEntity<T> entity(T body, String timeout) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    headers.set(TIMEOUT, timeout);
+    return new HttpEntity<>(body, headers);
+  }
+
+  @Test
+  void createTransfer_shouldSendTheTimeLeftToTheLedger() {
+    ResponseEntity<String> response =
+        restTemplate.postForEntity(
+            getBaseUrl(), entity(buildRequest("dl-1"), "3000"), String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody()).isEqualTo(TransferStatus.SUCCESS.name());
+    assertThat(Long.parseLong(ledger.lastHeader(TIMEOUT))).isBetween(1L, 3000L);
+  }
+
+  @Test
+  void createTransfer_shouldGiveUpOnTheLedgerAtTheDeadline() {
+    ledger.setDelayMillis(3000);
+
+    long start = System.nanoTime();
+    ResponseEntity<String> response =
+        restTemplate.postForEntity(
+            getBaseUrl(), entity(buildRequest("dl-2"), "300"), String.class);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    // Left for the reconciler, the ledger may still apply it
+    assertThat(response.getBody()).isEqualTo(TransferStatus.UNKNOWN.name());
+    assertThat(transferRepository.findStatusById("dl-2")).contains(TransferStatus.UNKNOWN);
+  }
+
+  @Test
+  void createBatch_shouldNotWaitForTheSlowestCallPastTheDeadline() {
+    ledger.setDelayMillis(3000);
+
+    long start = System.nanoTime();
+    ResponseEntity<List> response =
+        restTemplate.postForEntity(
+            getBaseUrl() + "/batch",
+            entity(List.of(buildRequest("dl-3"), buildRequest("dl-4")), "300"),
+            List.class);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    assertThat(response.getBody()).containsExactly("UNKNOWN", "UNKNOWN");
+  }
+}
@@ -0,0 +1,191 @@
+package za.co.sanlam.transferservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+import za.co.sanlam.transferservice.service.TransferPersistenceService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "transfer.outbox.enabled=false",
+      "transfer.events.heartbeatInterval=200ms",
+      "transfer.archive.directory=target/test-archive/${random.uuid}"
+    })
+@AutoConfigureTestDatabase
+class TransferEventsIntegrationTest {
+
+  private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT =
+      new ParameterizedTypeReference<>() {};
+
+  @LocalServerPort private int port;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @Autowired private TransferPersistenceService transferPersistenceService;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setup() {
+    transferRepository.deleteAll();
+  }
+
+  private void insert(String transferId, TransferStatus status) {
+    jdbcTemplate.update(
+        "INSERT INTO transfer "
+            + "(id, version, from_account_id, to_account_id, amount, status, created) "
+            + "VALUES (?, 0, ?, ?, ?, ?, ?)",
+        transferId,
+        "A-" + transferId,
+        "B-" + transferId,
+        BigDecimal.TEN,
+        status.name(),
+        LocalDateTime.now());
+  }
+
+  /** Subscribes in the background, collecting events until the server completes the stream */
+  private Subscription subscribe(String uri) {
+    Subscription subscription = new Subscription();
+    subscription.disposable =
+        WebClient.create("http://localhost:" + port)
+            .get()
+            .uri(uri)
+            .retrieve()
+            .bodyToFlux(EVENT)
+            .doOnComplete(subscription.completed::countDown)
+            .subscribe(subscription.events::add);
+    return subscription;
+  }
+
+  private ServerSentEvent<String> nextEvent(Subscription subscription)
+      throws InterruptedException {
+    ServerSentEvent<String> event;
+    do {
+      event = subscription.events.poll(5, TimeUnit.SECONDS);
+      assertThat(event).as("event").isNotNull();
+    } while (event.event() == null);
+    return event;
+  }
+
+  private TransferResultDTO status(ServerSentEvent<String> event) throws IOException {
+    assertThat(event.event()).isEqualTo("status");
+    return objectMapper.readValue(event.data(), TransferResultDTO.class);
+  }
+
+  private double subscribers() {
+    return meterRegistry.get("transfer.events.subscribers").gauge().value();
+  }
+
+  @Test
+  void watchTransfer_shouldPushTheStatusChangeAndComplete() throws Exception {
+    insert("sse-1", TransferStatus.UNKNOWN);
+    Subscription subscription = subscribe("/transfers/sse-1/events");
+
+    assertThat(status(nextEvent(subscription)).getStatus()).isEqualTo(TransferStatus.UNKNOWN);
+
+    transferPersistenceService.updateStatus("sse-1", TransferStatus.SUCCESS);
+
+    TransferResultDTO pushed = status(nextEvent(subscription));
+    assertThat(pushed.getTransferId()).isEqualTo("sse-1");
+    assertThat(pushed.getStatus()).isEqualTo(TransferStatus.SUCCESS);
+    assertThat(subscription.completed.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  void getTransfer_shouldFindATransferWhoseIdIsEvents() {
+    insert("events", TransferStatus.SUCCESS);
+
+    String status =
+        WebClient.create("http://localhost:" + port)
+            .get()
+            .uri("/transfers/events")
+            .retrieve()
+            .bodyToMono(String.class)
+            .block(Duration.ofSeconds(5));
+
+    assertThat(status).isEqualTo("SUCCESS");
+  }
+
+  @Test
+  void watchTransfers_shouldReportEachTransferAndMissingIds() throws Exception {
+    insert("sse-done", TransferStatus.FAILED);
+    insert("sse-pending", TransferStatus.UNKNOWN);
+    Subscription subscription =
+        subscribe("/transfers/events:watch?ids=sse-done,sse-pending,sse-nope");
+
+    List<String> snapshot = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      ServerSentEvent<String> event = nextEvent(subscription);
+      snapshot.add(
+          "missing".equals(event.event())
+              ? "missing:" + event.data()
+              : status(event).getTransferId() + ":" + status(event).getStatus());
+    }
+    assertThat(snapshot)
+        .containsExactlyInAnyOrder("sse-done:FAILED", "sse-pending:UNKNOWN", "missing:sse-nope");
+    assertThat(subscription.completed.getCount()).isEqualTo(1);
+
+    transferPersistenceService.updateStatuses(Map.of("sse-pending", TransferStatus.SUCCESS));
+
+    assertThat(status(nextEvent(subscription)).getStatus()).isEqualTo(TransferStatus.SUCCESS);
+    assertThat(subscription.completed.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  void watchTransfer_shouldSendHeartbeatsAndUnregisterOnDisconnect() throws Exception {
+    insert("sse-idle", TransferStatus.UNKNOWN);
+    Subscription subscription = subscribe("/transfers/sse-idle/events");
+    nextEvent(subscription);
+
+    ServerSentEvent<String> heartbeat = subscription.events.poll(5, TimeUnit.SECONDS);
+    assertThat(heartbeat).isNotNull();
+    assertThat(heartbeat.comment()).isEqualTo("heartbeat");
+    assertThat(subscribers()).isEqualTo(1);
+
+    // The next heartbeat write fails and removes the subscription
+    subscription.disposable.dispose();
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (subscribers() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertThat(subscribers()).isZero();
+  }
+
+  private static class Subscription {
+    private final BlockingQueue<ServerSentEvent<String>> events = new LinkedBlockingQueue<>();
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private Disposable disposable;
+  }
+}
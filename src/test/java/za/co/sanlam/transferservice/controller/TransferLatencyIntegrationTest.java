@@ -0,0 +1,103 @@
+package za.co.sanlam.transferservice.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "transfer.outbox.enabled=false",
+      "transfer.archive.directory=target/test-archive/${random.uuid}"
+    })
+class TransferLatencyIntegrationTest {
+
+  private static final StubLedger ledger = StubLedger.start();
+
+  @LocalServerPort private int port;
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @DynamicPropertySource
+  static void ledgerProperties(DynamicPropertyRegistry registry) {
+    registry.add("ledger.service.endpoint.baseUrl", ledger::baseUrl);
+    registry.add("ledger.service.endpoint.path", () -> StubLedger.PATH);
+  }
+
+  @AfterAll
+  static void shutdown() throws IOException {
+    ledger.close();
+  }
+
+  @BeforeEach
+  void setup() {
+    ledger.reset();
+    transferRepository.deleteAll();
+    restTemplate.delete(getLatencyUrl());
+  }
+
+  private String getLatencyUrl() {
+    return "http://localhost:" + port + "/actuator/latency";
+  }
+
+  private TransferDTO buildRequest(String transferId) {
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("A-" + transferId)
+        .toAccountId("B-" + transferId)
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  @Test
+  void latencyEndpoint_shouldBreakASlowTransferDownByPhase() {
+    ledger.setDelayMillis(200);
+    restTemplate.postForEntity(
+        "http://localhost:" + port + "/transfers", buildRequest("lat-1"), String.class);
+
+    ResponseEntity<JsonNode> response = restTemplate.getForEntity(getLatencyUrl(), JsonNode.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    JsonNode phases = response.getBody().get("phases");
+    assertThat(phases.get("ledger").get("count").asLong()).isEqualTo(1);
+    assertThat(phases.get("ledger").get("max").asLong()).isGreaterThanOrEqualTo(200_000);
+
+    JsonNode slowest = response.getBody().get("slowest").get(0);
+    assertThat(slowest.get("path").asText()).isEqualTo("/transfers");
+    assertThat(slowest.get("phaseMicros").fieldNames())
+        .toIterable()
+        .containsExactly("validation", "insert", "ledger", "update", "serialization");
+    assertThat(slowest.get("totalMicros").asLong())
+        .isGreaterThanOrEqualTo(slowest.get("phaseMicros").get("ledger").asLong());
+  }
+
+  @Test
+  void latencyEndpoint_shouldNotTraceStatusLookups() {
+    restTemplate.getForEntity(
+        "http://localhost:" + port + "/transfers/lat-missing", String.class);
+
+    ResponseEntity<JsonNode> response = restTemplate.getForEntity(getLatencyUrl(), JsonNode.class);
+
+    assertThat(response.getBody().get("phases").get("total").get("count").asLong()).isZero();
+    assertThat(response.getBody().get("slowest")).isEmpty();
+  }
+}
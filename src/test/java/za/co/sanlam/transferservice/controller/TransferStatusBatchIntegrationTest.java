@@ -0,0 +1,125 @@
+package za.co.sanlam.transferservice.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import za.co.sanlam.transferservice.dto.TransferStatusRequestDTO;
+import za.co.sanlam.transferservice.dto.TransferStatusesDTO;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      "transfer.outbox.enabled=false",
+      "transfer.status.maxBatchSize=300",
+      "transfer.status.chunkSize=100",
+      "transfer.archive.directory=target/test-archive/${random.uuid}"
+    })
+@AutoConfigureTestDatabase
+class TransferStatusBatchIntegrationTest {
+
+  private static final String URL = "/transfers/status:batchGet";
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setup() {
+    transferRepository.deleteAll();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  private void insert(String transferId, TransferStatus status) {
+    jdbcTemplate.update(
+        "INSERT INTO transfer "
+            + "(id, version, from_account_id, to_account_id, amount, status, created) "
+            + "VALUES (?, 0, ?, ?, ?, ?, ?)",
+        transferId,
+        "A-" + transferId,
+        "B-" + transferId,
+        BigDecimal.TEN,
+        status.name(),
+        LocalDateTime.now());
+  }
+
+  private ResponseEntity<TransferStatusesDTO> batchGet(List<String> transferIds) {
+    return restTemplate.postForEntity(
+        URL,
+        TransferStatusRequestDTO.builder().transferIds(transferIds).build(),
+        TransferStatusesDTO.class);
+  }
+
+  @Test
+  void batchGet_shouldResolveStatusesWithChunkedProjections() {
+    List<String> transferIds = new ArrayList<>();
+    for (int i = 0; i < 250; i++) {
+      String transferId = "batch-get-" + i;
+      insert(transferId, i % 2 == 0 ? TransferStatus.SUCCESS : TransferStatus.FAILED);
+      transferIds.add(transferId);
+    }
+    transferIds.add(1, "missing-1");
+    transferIds.add("missing-2");
+    transferIds.add("batch-get-0");
+
+    statistics.clear();
+    ResponseEntity<TransferStatusesDTO> response = batchGet(transferIds);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    TransferStatusesDTO body = response.getBody();
+    assertThat(body.getStatuses()).hasSize(250);
+    assertThat(body.getStatuses().keySet()).first().isEqualTo("batch-get-0");
+    assertThat(body.getStatuses())
+        .containsEntry("batch-get-0", TransferStatus.SUCCESS)
+        .containsEntry("batch-get-249", TransferStatus.FAILED);
+    assertThat(body.getMissing()).containsExactly("missing-1", "missing-2");
+
+    // 252 distinct ids in IN chunks of 100, projected without loading entities
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+
+    // Found and missing ids are both cached
+    statistics.clear();
+    assertThat(batchGet(transferIds).getBody()).isEqualTo(body);
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void batchGet_shouldRejectEmptyAndOversizedLookups() {
+    assertThat(batchGet(List.of()).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    assertThat(batchGet(Arrays.asList("id-1", null)).getStatusCode())
+        .isEqualTo(HttpStatus.BAD_REQUEST);
+    assertThat(batchGet(List.of("id-1", " ")).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+    List<String> tooMany = new ArrayList<>();
+    for (int i = 0; i < 301; i++) {
+      tooMany.add("id-" + i);
+    }
+    assertThat(batchGet(tooMany).getStatusCode().isError()).isTrue();
+  }
+}
@@ -0,0 +1,181 @@
+package za.co.sanlam.transferservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class TransferStreamIntegrationTest {
+
+  private static final int MAX_IN_FLIGHT = 8;
+
+  private static final StubLedger ledger = StubLedger.start();
+
+  @LocalServerPort private int port;
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @DynamicPropertySource
+  static void ledgerProperties(DynamicPropertyRegistry registry) {
+    registry.add("ledger.service.endpoint.baseUrl", ledger::baseUrl);
+    registry.add("ledger.service.endpoint.path", () -> StubLedger.PATH);
+    registry.add("ledger.service.endpoint.maxInFlight", () -> MAX_IN_FLIGHT);
+  }
+
+  @AfterAll
+  static void shutdown() throws IOException {
+    ledger.close();
+  }
+
+  @BeforeEach
+  void setup() {
+    ledger.reset();
+    transferRepository.deleteAll();
+  }
+
+  private TransferDTO buildRequest(String transferId) {
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("A-" + transferId)
+        .toAccountId("B-" + transferId)
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  private Map<String, TransferStatus> stream(List<TransferDTO> requests) throws IOException {
+    StringBuilder body = new StringBuilder();
+    for (TransferDTO request : requests) {
+      body.append(objectMapper.writeValueAsString(request)).append('\n');
+    }
+
+    List<TransferResultDTO> results = stream(body.toString());
+    assertThat(results).hasSize(requests.size());
+    return results.stream()
+        .collect(
+            Collectors.toMap(TransferResultDTO::getTransferId, TransferResultDTO::getStatus));
+  }
+
+  private List<TransferResultDTO> stream(String body) throws IOException {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_NDJSON);
+    headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+
+    ResponseEntity<String> response =
+        restTemplate.postForEntity(
+            "http://localhost:" + port + "/transfers/stream",
+            new HttpEntity<>(body, headers),
+            String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+    List<TransferResultDTO> results = new ArrayList<>();
+    for (String line : response.getBody().split("\n")) {
+      if (!line.isBlank()) {
+        results.add(objectMapper.readValue(line, TransferResultDTO.class));
+      }
+    }
+    return results;
+  }
+
+  @Test
+  void createStream_shouldSettleEveryItemBeyondTheBatchCap() throws IOException {
+    ledger.setDelayMillis(20);
+    ledger.outcome("s-7", TransferStatus.FAILED);
+
+    List<TransferDTO> requests = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      requests.add(buildRequest("s-" + i));
+    }
+
+    Map<String, TransferStatus> results = stream(requests);
+
+    assertThat(results).hasSize(100).containsEntry("s-7", TransferStatus.FAILED);
+    assertThat(results.values()).filteredOn(TransferStatus.SUCCESS::equals).hasSize(99);
+    assertThat(transferRepository.count()).isEqualTo(100);
+
+    // Items are pulled from the body only as ledger calls complete
+    assertThat(ledger.maxInFlight()).isGreaterThan(1).isLessThanOrEqualTo(MAX_IN_FLIGHT);
+  }
+
+  @Test
+  void createStream_shouldReportInvalidAndUnsettledItemsWithoutStoppingTheStream()
+      throws IOException {
+    ledger.fail("x-2");
+    TransferDTO invalid = buildRequest("x-3");
+    invalid.setAmount(BigDecimal.ZERO);
+
+    Map<String, TransferStatus> results =
+        stream(List.of(buildRequest("x-1"), buildRequest("x-2"), invalid, buildRequest("x-4")));
+
+    assertThat(results)
+        .containsEntry("x-1", TransferStatus.SUCCESS)
+        .containsEntry("x-2", TransferStatus.UNKNOWN)
+        .containsEntry("x-3", TransferStatus.FAILED)
+        .containsEntry("x-4", TransferStatus.SUCCESS);
+
+    // The ledger failure is left for reconciliation; the invalid item is never stored
+    assertThat(transferRepository.findById("x-2"))
+        .map(Transfer::getStatus)
+        .contains(TransferStatus.UNKNOWN);
+    assertThat(transferRepository.existsById("x-3")).isFalse();
+  }
+
+  @Test
+  void createStream_shouldReportMalformedLinesAndKeepReading() throws IOException {
+    String body =
+        objectMapper.writeValueAsString(buildRequest("p-1"))
+            + "\n{\"transferId\":\"p-2\",\"amount\":"
+            + "\n{\"transferId\":\"p-3\",\"fromAccountId\":\"A\",\"toAccountId\":\"B\","
+            + "\"amount\":\"lots\"}"
+            + "\nnot json\n\n"
+            + objectMapper.writeValueAsString(buildRequest("p-5"))
+            + "\n";
+
+    List<TransferResultDTO> results = stream(body);
+
+    // Lines that are not JSON have no transferId to report
+    assertThat(results)
+        .hasSize(5)
+        .contains(
+            new TransferResultDTO("p-1", TransferStatus.SUCCESS),
+            new TransferResultDTO("p-3", TransferStatus.FAILED),
+            new TransferResultDTO("p-5", TransferStatus.SUCCESS));
+    assertThat(results)
+        .filteredOn(result -> Objects.isNull(result.getTransferId()))
+        .extracting(TransferResultDTO::getStatus)
+        .containsExactly(TransferStatus.FAILED, TransferStatus.FAILED);
+    assertThat(transferRepository.count()).isEqualTo(2);
+  }
+}
@@ -2,6 +2,7 @@ package za.co.sanlam.transferservice.health;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
@@ -9,6 +10,8 @@ import org.springframework.http.ResponseEntity;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+// Tests export no metrics unless asked to
+@AutoConfigureObservability(tracing = false)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class ActuatorEndpointTest {
 
@@ -33,4 +36,20 @@ class ActuatorEndpointTest {
     assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
     assertThat(response.getBody()).contains("health");
   }
+
+  @Test
+  void prometheusEndpointShouldExposeHotPathMetrics() {
+    String url = "http://localhost:" + port + "/actuator/prometheus";
+    ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+    assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+    assertThat(response.getBody())
+        .contains("transfer_phase_seconds_bucket{", "phase=\"ledger\"")
+        .contains("transfer_batch_size_transfers_bucket{")
+        .contains("transfer_outcome_total{status=\"success\"}")
+        .contains("executor_active_threads{name=\"transfer\"}")
+        .contains("executor_queued_tasks{name=\"transfer\"}")
+        .contains("executor_rejected_total{name=\"transfer\"}")
+        .contains("resilience4j_circuitbreaker_state{");
+  }
 }
@@ -0,0 +1,285 @@
+package za.co.sanlam.transferservice.ledger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import za.co.sanlam.transferservice.model.TransferStatus;
+
+import javax.net.ServerSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MockWebServer stand-in for the ledger service. Serves the single transfer path and, when bulk
+ * support is enabled, the bulk path; otherwise the bulk path answers 404 like an older ledger.
+ * For load tests it can answer after a latency drawn from a distribution, fail a share of calls
+ * and stall a share of them for much longer.
+ */
+public class StubLedger extends Dispatcher implements AutoCloseable {
+
+  public static final String PATH = "/ledger/transfer";
+  public static final String BATCH_PATH = "/ledger/transfer/batch";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final MockWebServer server = new MockWebServer();
+  private final Map<String, TransferStatus> outcomes = new ConcurrentHashMap<>();
+  private final Set<String> failures = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger singleCalls = new AtomicInteger();
+  private final AtomicInteger batchCalls = new AtomicInteger();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  private volatile RecordedRequest lastRequest;
+  private volatile boolean bulkSupported = true;
+  private volatile Latency latency = Latency.fixed(0);
+  private volatile double errorRate;
+  private volatile double stallRate;
+  private volatile long stallMillis;
+
+  public static StubLedger start() {
+    try {
+      StubLedger ledger = new StubLedger();
+      ledger.server.setDispatcher(ledger);
+      ledger.server.setServerSocketFactory(new NoDelayServerSocketFactory());
+      ledger.server.start();
+      return ledger;
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to start stub ledger", e);
+    }
+  }
+
+  public String baseUrl() {
+    return "http://localhost:" + server.getPort();
+  }
+
+  public void setBulkSupported(boolean bulkSupported) {
+    this.bulkSupported = bulkSupported;
+  }
+
+  public void setDelayMillis(long delayMillis) {
+    this.latency = Latency.fixed(delayMillis);
+  }
+
+  public void setLatency(Latency latency) {
+    this.latency = latency;
+  }
+
+  /** Share of calls, on either path, answered 500 */
+  public void setErrorRate(double errorRate) {
+    this.errorRate = errorRate;
+  }
+
+  /** Share of calls answered only after {@code stallMillis} on top of their latency */
+  public void setStalls(double stallRate, long stallMillis) {
+    this.stallRate = stallRate;
+    this.stallMillis = stallMillis;
+  }
+
+  /** Outcome returned for a transferId; anything not registered is a SUCCESS */
+  public void outcome(String transferId, TransferStatus status) {
+    outcomes.put(transferId, status);
+  }
+
+  /** The ledger answers 500 for this transferId on the single transfer path */
+  public void fail(String transferId) {
+    failures.add(transferId);
+  }
+
+  public int singleCalls() {
+    return singleCalls.get();
+  }
+
+  public int batchCalls() {
+    return batchCalls.get();
+  }
+
+  /** Highest number of ledger calls being served at the same time */
+  public int maxInFlight() {
+    return maxInFlight.get();
+  }
+
+  /** Header of the last request the ledger received, null when absent */
+  public String lastHeader(String name) {
+    final RecordedRequest request = lastRequest;
+    return request == null ? null : request.getHeader(name);
+  }
+
+  /** Index of the last request on its connection; above 0 when a kept-alive one was reused */
+  public int lastSequenceNumber() {
+    final RecordedRequest request = lastRequest;
+    return request == null ? -1 : request.getSequenceNumber();
+  }
+
+  public void reset() {
+    outcomes.clear();
+    failures.clear();
+    singleCalls.set(0);
+    batchCalls.set(0);
+    maxInFlight.set(0);
+    bulkSupported = true;
+    latency = Latency.fixed(0);
+    errorRate = 0;
+    stallRate = 0;
+    stallMillis = 0;
+    lastRequest = null;
+    forgetRequests();
+  }
+
+  @NotNull
+  @Override
+  public MockResponse dispatch(@NotNull RecordedRequest request) {
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    lastRequest = request;
+    try {
+      delay();
+      if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+        return new MockResponse().setResponseCode(500);
+      }
+      if (PATH.equals(request.getPath())) {
+        singleCalls.incrementAndGet();
+        JsonNode transfer = objectMapper.readTree(request.getBody().readUtf8());
+        if (failures.contains(transfer.path("transferId").asText())) {
+          return new MockResponse().setResponseCode(500);
+        }
+        return new MockResponse().setBody(outcomeOf(transfer).name());
+      }
+
+      if (BATCH_PATH.equals(request.getPath())) {
+        batchCalls.incrementAndGet();
+        if (!bulkSupported) {
+          return new MockResponse().setResponseCode(404);
+        }
+        ArrayNode results = objectMapper.createArrayNode();
+        for (JsonNode transfer : objectMapper.readTree(request.getBody().readUtf8())) {
+          results
+              .addObject()
+              .put("transferId", transfer.path("transferId").asText())
+              .put("status", outcomeOf(transfer).name());
+        }
+        return new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody(objectMapper.writeValueAsString(results));
+      }
+
+      return new MockResponse().setResponseCode(404);
+    } catch (IOException e) {
+      return new MockResponse().setResponseCode(400);
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    server.shutdown();
+  }
+
+  private TransferStatus outcomeOf(JsonNode transfer) {
+    return outcomes.getOrDefault(transfer.path("transferId").asText(), TransferStatus.SUCCESS);
+  }
+
+  // MockWebServer records every request it serves, which adds up in long runs
+  private void forgetRequests() {
+    try {
+      while (server.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+        // Discarded
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Each connection is served on its own thread, so sleeping here keeps the call in flight
+  private void delay() {
+    long millis = latency.nextMillis();
+    if (stallRate > 0 && ThreadLocalRandom.current().nextDouble() < stallRate) {
+      millis += stallMillis;
+    }
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+
+  /** How long the ledger takes to answer a call */
+  @FunctionalInterface
+  public interface Latency {
+
+    long nextMillis();
+
+    static Latency fixed(long millis) {
+      return () -> millis;
+    }
+
+    /**
+     * Long-tailed latency, as measured from most real services
+     *
+     * @param medianMillis half of the calls are faster
+     * @param p99Millis 99% of the calls are faster
+     */
+    static Latency logNormal(double medianMillis, double p99Millis) {
+      // z-score of the 99th percentile of the standard normal distribution
+      final double sigma = Math.log(p99Millis / medianMillis) / 2.326;
+      final double mu = Math.log(medianMillis);
+      return () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+  }
+
+  /**
+   * Answers without waiting on Nagle's algorithm: MockWebServer writes the headers and body of a
+   * response separately, so the body would otherwise wait for the client's delayed ACK (~40ms)
+   */
+  private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+    @Override
+    public ServerSocket createServerSocket() throws IOException {
+      return new NoDelayServerSocket();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog, InetAddress address)
+        throws IOException {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static final class NoDelayServerSocket extends ServerSocket {
+
+    private NoDelayServerSocket() throws IOException {
+      super();
+    }
+
+    @Override
+    public Socket accept() throws IOException {
+      final Socket socket = new Socket();
+      implAccept(socket);
+      socket.setTcpNoDelay(true);
+      return socket;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package za.co.sanlam.transferservice.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Open-model load: requests are sent on a fixed schedule at the target rate whether or not
+ * earlier ones have been answered, as independent clients would. Each latency is measured from
+ * when the request was due rather than when it was sent, so a stall of the generator or the
+ * service is charged to every request it delayed instead of being hidden (coordinated
+ * omission).
+ */
+final class LoadGenerator {
+
+  private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+  private final HttpClient client;
+  private final List<Scenario> scenarios;
+  private final int totalWeight;
+
+  /**
+   * @param client sends requests asynchronously
+   * @param scenarios requests to send, mixed by weight
+   */
+  LoadGenerator(HttpClient client, List<Scenario> scenarios) {
+    this.client = client;
+    this.scenarios = List.copyOf(scenarios);
+    this.totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+  }
+
+  /** One kind of request, sent {@code weight} times in every {@code totalWeight} requests */
+  record Scenario(String name, int weight, LongFunction<HttpRequest> request) {}
+
+  /**
+   * Sends requests at {@code ratePerSecond} for {@code duration}, then waits for the stragglers
+   *
+   * @return results per scenario, in the order given
+   */
+  Map<String, ScenarioResult> run(double ratePerSecond, Duration duration, Duration drainTimeout) {
+    final Map<String, Recording> recordings = new LinkedHashMap<>();
+    scenarios.forEach(scenario -> recordings.put(scenario.name(), new Recording()));
+
+    final long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+    final long requests = duration.toNanos() / intervalNanos;
+    final List<CompletableFuture<?>> inFlight = new ArrayList<>();
+    final long startNanos = System.nanoTime();
+
+    for (long i = 0; i < requests; i++) {
+      final long dueNanos = startNanos + i * intervalNanos;
+      final long waitNanos = dueNanos - System.nanoTime();
+      if (waitNanos > 0) {
+        LockSupport.parkNanos(waitNanos);
+      }
+
+      final Scenario scenario = pick(i);
+      final Recording recording = recordings.get(scenario.name());
+      recording.sent.incrementAndGet();
+      inFlight.add(
+          client
+              .sendAsync(scenario.request().apply(i), HttpResponse.BodyHandlers.discarding())
+              .whenComplete(
+                  (response, ex) ->
+                      recording.record(
+                          dueNanos, ex == null ? response.statusCode() : 0, System.nanoTime())));
+    }
+
+    try {
+      CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+          .get(drainTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      // Unanswered requests are reported as missing
+    }
+
+    final Map<String, ScenarioResult> results = new LinkedHashMap<>();
+    recordings.forEach(
+        (name, recording) -> results.put(name, recording.result(duration)));
+    return results;
+  }
+
+  private Scenario pick(long sequence) {
+    long slot = sequence % totalWeight;
+    for (Scenario scenario : scenarios) {
+      slot -= scenario.weight();
+      if (slot < 0) {
+        return scenario;
+      }
+    }
+    return scenarios.get(scenarios.size() - 1);
+  }
+
+  private static final class Recording {
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private Recording() {
+      latency.setAutoResize(false);
+    }
+
+    private void record(long dueNanos, int status, long nowNanos) {
+      latency.recordValue(Math.min(nowNanos - dueNanos, MAX_LATENCY_NANOS));
+      if (status == 429) {
+        shed.incrementAndGet();
+      } else if (status < 200 || status >= 300) {
+        errors.incrementAndGet();
+      }
+    }
+
+    // Throughput is over the schedule: late answers count, but do not stretch the run
+    private ScenarioResult result(Duration duration) {
+      final Histogram snapshot = latency.copy();
+      final long answered = snapshot.getTotalCount();
+      final double seconds = duration.toNanos() / 1e9;
+      return new ScenarioResult(
+          sent.get(),
+          answered,
+          shed.get(),
+          errors.get(),
+          (answered - shed.get() - errors.get()) / seconds,
+          millis(snapshot.getValueAtPercentile(50)),
+          millis(snapshot.getValueAtPercentile(99)),
+          millis(snapshot.getValueAtPercentile(99.9)),
+          millis(snapshot.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+      return nanos / 1e6;
+    }
+  }
+
+  /**
+   * What one scenario saw: requests sent and answered before the drain timeout, of which {@code
+   * shed} got 429 and {@code errors} any other failure, successful responses per second of the
+   * run, and latency percentiles in ms
+   */
+  record ScenarioResult(
+      long sent,
+      long answered,
+      long shed,
+      long errors,
+      double throughput,
+      double p50,
+      double p99,
+      double p999,
+      double max) {
+
+    // Unanswered requests count as failed
+    double failureRate() {
+      return sent == 0 ? 0 : (double) (sent - answered + shed + errors) / sent;
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package za.co.sanlam.transferservice.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+import za.co.sanlam.transferservice.load.LoadGenerator.Scenario;
+import za.co.sanlam.transferservice.load.LoadGenerator.ScenarioResult;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives POST /transfers, POST /transfers/batch and GET /transfers/{id} with open-model load
+ * against a stub ledger with long-tailed latency, errors and stalls, then fails if any endpoint
+ * misses its latency or failure threshold or the service its throughput. Tagged "load" and only
+ * run with {@code mvn -Pload test}; every setting below is a system property, e.g.
+ * {@code -Dload.rate=500 -Dload.batch.max.p99=2s}. Latency thresholds are per endpoint ({@code
+ * single}, {@code batch}, {@code get}), falling back to {@code load.max.*}.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "transfer.outbox.enabled=false",
+      "transfer.reconcile.enabled=false",
+      "transfer.archive.directory=target/test-archive/${random.uuid}",
+      "spring.jpa.show-sql=false",
+      "logging.level.za.co.sanlam=WARN",
+      "logging.level.za.co.sanlam.transferservice.load=INFO"
+    })
+class TransferLoadTest {
+
+  // Offered load
+  private static final double RATE = number("load.rate", 200);
+  private static final Duration WARMUP = duration("load.warmup", "10s");
+  private static final Duration DURATION = duration("load.duration", "30s");
+  private static final Duration DRAIN_TIMEOUT = duration("load.drainTimeout", "30s");
+  private static final int BATCH_SIZE = (int) number("load.batchSize", 10);
+
+  // Where the results table is written
+  private static final Path REPORT =
+      Path.of(System.getProperty("load.report", "target/load-report.txt"));
+
+  private static final int SEEDED = 100;
+
+  // Share of each endpoint in the offered load
+  private static final int SINGLE_WEIGHT = (int) number("load.weights.single", 7);
+  private static final int BATCH_WEIGHT = (int) number("load.weights.batch", 1);
+  private static final int GET_WEIGHT = (int) number("load.weights.get", 2);
+
+  // Ledger behaviour
+  private static final Duration LEDGER_MEDIAN = duration("load.ledger.median", "20ms");
+  private static final Duration LEDGER_P99 = duration("load.ledger.p99", "200ms");
+  private static final double LEDGER_ERROR_RATE = number("load.ledger.errorRate", 0.01);
+  private static final double LEDGER_STALL_RATE = number("load.ledger.stallRate", 0.001);
+  private static final Duration LEDGER_STALL = duration("load.ledger.stall", "2s");
+
+  // Regression thresholds; a batch waits for the slowest of its ledger calls
+  private static final Thresholds SINGLE = Thresholds.of("single", "100ms", "1s", "5s");
+  private static final Thresholds BATCH = Thresholds.of("batch", "400ms", "3s", "5s");
+  private static final Thresholds GET = Thresholds.of("get", "50ms", "500ms", "2s");
+  private static final double MIN_THROUGHPUT_RATIO = number("load.min.throughputRatio", 0.9);
+
+  private static final StubLedger ledger = StubLedger.start();
+
+  @LocalServerPort private int port;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  private final HttpClient client =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(5))
+          .build();
+  private final String prefix = UUID.randomUUID().toString().substring(0, 8);
+  private final AtomicLong sequence = new AtomicLong();
+
+  @DynamicPropertySource
+  static void ledgerProperties(DynamicPropertyRegistry registry) {
+    registry.add("ledger.service.endpoint.baseUrl", ledger::baseUrl);
+    registry.add("ledger.service.endpoint.path", () -> StubLedger.PATH);
+  }
+
+  @AfterAll
+  static void shutdown() throws IOException {
+    ledger.close();
+  }
+
+  @Test
+  void transferEndpoints_shouldStayWithinThresholdsUnderLoad() throws Exception {
+    final List<String> seeded = seed();
+    ledger.setLatency(
+        StubLedger.Latency.logNormal(LEDGER_MEDIAN.toMillis(), LEDGER_P99.toMillis()));
+    ledger.setErrorRate(LEDGER_ERROR_RATE);
+    ledger.setStalls(LEDGER_STALL_RATE, LEDGER_STALL.toMillis());
+
+    final LoadGenerator generator =
+        new LoadGenerator(
+            client,
+            List.of(
+                new Scenario(SINGLE.name(), SINGLE_WEIGHT, i -> post("/transfers", nextTransfer())),
+                new Scenario(
+                    BATCH.name(), BATCH_WEIGHT, i -> post("/transfers/batch", nextBatch())),
+                new Scenario(
+                    GET.name(),
+                    GET_WEIGHT,
+                    i -> get("/transfers/" + seeded.get((int) (i % seeded.size()))))));
+
+    // JIT, connection pools and caches settle before anything is measured
+    generator.run(RATE, WARMUP, DRAIN_TIMEOUT);
+    final Map<String, ScenarioResult> results = generator.run(RATE, DURATION, DRAIN_TIMEOUT);
+    report(results);
+
+    final SoftAssertions softly = new SoftAssertions();
+    for (Thresholds thresholds : List.of(SINGLE, BATCH, GET)) {
+      thresholds.check(softly, results.get(thresholds.name()));
+    }
+    final double throughput =
+        results.values().stream().mapToDouble(ScenarioResult::throughput).sum();
+    softly
+        .assertThat(throughput)
+        .as("successful requests/s of %.0f offered", RATE)
+        .isGreaterThanOrEqualTo(RATE * MIN_THROUGHPUT_RATIO);
+    softly.assertAll();
+  }
+
+  // Transfers for GET /transfers/{id} to find, created before the ledger misbehaves
+  private List<String> seed() throws Exception {
+    final List<String> transferIds =
+        Stream.generate(this::nextTransfer).limit(SEEDED).map(TransferDTO::getTransferId).toList();
+    for (String transferId : transferIds) {
+      final HttpResponse<Void> response =
+          client.send(
+              post("/transfers", transfer(transferId)), HttpResponse.BodyHandlers.discarding());
+      assertThat(response.statusCode()).isEqualTo(200);
+    }
+    return transferIds;
+  }
+
+  // Logged, and written to a file so CI keeps it with the build's artifacts
+  private void report(Map<String, ScenarioResult> results) throws IOException {
+    final StringBuilder report = new StringBuilder();
+    report.append(
+        String.format(
+            "Load: %.0f requests/s for %ds, ledger median %dms p99 %dms, %.1f%% errors,"
+                + " %.2f%% stalls of %dms%n",
+            RATE,
+            DURATION.toSeconds(),
+            LEDGER_MEDIAN.toMillis(),
+            LEDGER_P99.toMillis(),
+            LEDGER_ERROR_RATE * 100,
+            LEDGER_STALL_RATE * 100,
+            LEDGER_STALL.toMillis()));
+    report.append(
+        String.format(
+            "%-8s %8s %8s %6s %6s %9s %9s %9s %9s %9s%n",
+            "endpoint", "sent", "answered", "429", "errors", "ok/s", "p50 ms", "p99 ms",
+            "p99.9 ms", "max ms"));
+    results.forEach(
+        (name, r) ->
+            report.append(
+                String.format(
+                    "%-8s %8d %8d %6d %6d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    name, r.sent(), r.answered(), r.shed(), r.errors(), r.throughput(), r.p50(),
+                    r.p99(), r.p999(), r.max())));
+
+    log.info("Load test results:\n{}", report);
+    Files.createDirectories(REPORT.toAbsolutePath().getParent());
+    Files.writeString(REPORT, report);
+  }
+
+  private HttpRequest post(String path, Object body) {
+    try {
+      return HttpRequest.newBuilder(uri(path))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+          .build();
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(uri(path)).GET().build();
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+
+  private TransferDTO nextTransfer() {
+    return transfer(prefix + "-" + sequence.incrementAndGet());
+  }
+
+  private List<TransferDTO> nextBatch() {
+    return Stream.generate(this::nextTransfer).limit(BATCH_SIZE).toList();
+  }
+
+  private static TransferDTO transfer(String transferId) {
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("A-" + transferId)
+        .toAccountId("B-" + transferId)
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  private static double millis(Duration duration) {
+    return duration.toNanos() / 1e6;
+  }
+
+  /** Latency and failure budget of one endpoint */
+  private record Thresholds(
+      String name, Duration p50, Duration p99, Duration p999, double failureRate) {
+
+    private static Thresholds of(String name, String p50, String p99, String p999) {
+      return new Thresholds(
+          name,
+          duration("load." + name + ".max.p50", System.getProperty("load.max.p50", p50)),
+          duration("load." + name + ".max.p99", System.getProperty("load.max.p99", p99)),
+          duration("load." + name + ".max.p999", System.getProperty("load.max.p999", p999)),
+          number("load.max.failureRate", 0.05));
+    }
+
+    private void check(SoftAssertions softly, ScenarioResult result) {
+      softly.assertThat(result.p50()).as(name + " p50 ms").isLessThanOrEqualTo(millis(p50));
+      softly.assertThat(result.p99()).as(name + " p99 ms").isLessThanOrEqualTo(millis(p99));
+      softly.assertThat(result.p999()).as(name + " p99.9 ms").isLessThanOrEqualTo(millis(p999));
+      softly
+          .assertThat(result.failureRate())
+          .as(name + " failure rate")
+          .isLessThanOrEqualTo(failureRate);
+    }
+  }
+
+  private static double number(String property, double defaultValue) {
+    final String value = System.getProperty(property);
+    return value == null ? defaultValue : Double.parseDouble(value);
+  }
+
+  private static Duration duration(String property, String defaultValue) {
+    return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+  }
+}
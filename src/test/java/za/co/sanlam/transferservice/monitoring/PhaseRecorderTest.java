@@ -0,0 +1,106 @@
+package za.co.sanlam.transferservice.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import za.co.sanlam.transferservice.monitoring.TransferMetrics.Phase;
+import za.co.sanlam.transferservice.properties.TransferLatencyProperties;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhaseRecorderTest {
+
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final String PATH = "/transfers";
+
+  private TransferLatencyProperties properties;
+  private PhaseRecorder phaseRecorder;
+
+  @BeforeEach
+  void setUp() {
+    properties = new TransferLatencyProperties();
+    properties.setSlowestRequests(2);
+    properties.setWindow(Duration.ofMinutes(1));
+    phaseRecorder = new PhaseRecorder(properties);
+  }
+
+  // Validation 1ms, insert 2ms, ledger takes ledgerMs, update 1ms, serialization 1ms
+  private void request(long atNanos, long ledgerMs) {
+    phaseRecorder.start(PATH, atNanos);
+    long now = atNanos + MS;
+    phaseRecorder.record(Phase.INSERT, now, now += 2 * MS);
+    phaseRecorder.record(Phase.LEDGER, now, now += ledgerMs * MS);
+    phaseRecorder.record(Phase.UPDATE, now, now += MS);
+    phaseRecorder.serializing(now);
+    phaseRecorder.finish(now + MS);
+  }
+
+  @Test
+  void finish_shouldRecordEachPhaseTheRequestWentThrough() {
+    request(System.nanoTime(), 10);
+
+    PhaseRecorder.PhaseLatency ledger = phaseRecorder.phases().get("ledger");
+    assertThat(ledger.count()).isEqualTo(1);
+    assertThat(ledger.max()).isBetween(9_900L, 10_100L);
+    assertThat(phaseRecorder.phases().get("validation").count()).isEqualTo(1);
+    assertThat(phaseRecorder.phases().get("serialization").count()).isEqualTo(1);
+    assertThat(phaseRecorder.phases().get("total").max()).isBetween(14_900L, 15_100L);
+    // No duplicate, so no lookup
+    assertThat(phaseRecorder.phases().get("lookup").count()).isZero();
+
+    PhaseRecorder.SlowRequest slow = phaseRecorder.slowest().get(0);
+    assertThat(slow.path()).isEqualTo(PATH);
+    assertThat(slow.totalMicros()).isEqualTo(15_000);
+    assertThat(slow.phaseMicros())
+        .containsExactly(
+            entry("validation", 1_000),
+            entry("insert", 2_000),
+            entry("ledger", 10_000),
+            entry("update", 1_000),
+            entry("serialization", 1_000));
+  }
+
+  @Test
+  void finish_shouldKeepOnlyTheSlowestRequests() {
+    long now = System.nanoTime();
+    request(now, 10);
+    request(now, 50);
+    request(now, 5);
+    request(now, 30);
+
+    assertThat(phaseRecorder.slowest())
+        .extracting(PhaseRecorder.SlowRequest::totalMicros)
+        .containsExactly(55_000L, 35_000L);
+  }
+
+  @Test
+  void finish_shouldReplaceSlowRequestsOnceTheyLeaveTheWindow() {
+    long start = System.nanoTime() - Duration.ofMinutes(2).toNanos();
+    request(start, 50);
+    request(start, 40);
+
+    // Faster, but the slow ones are past the window
+    long now = System.nanoTime();
+    request(now, 1);
+
+    assertThat(phaseRecorder.slowest())
+        .extracting(PhaseRecorder.SlowRequest::totalMicros)
+        .containsExactly(6_000L);
+  }
+
+  @Test
+  void record_shouldIgnoreThreadsNotHandlingATracedRequest() {
+    phaseRecorder.record(Phase.LEDGER, 0, 10 * MS);
+    phaseRecorder.finish(20 * MS);
+
+    assertThat(phaseRecorder.phases().get("ledger").count()).isZero();
+    assertThat(phaseRecorder.slowest()).isEmpty();
+  }
+
+  private static Map.Entry<String, Long> entry(String phase, long micros) {
+    return Map.entry(phase, micros);
+  }
+}
@@ -0,0 +1,123 @@
+package za.co.sanlam.transferservice.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ValidationException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import za.co.sanlam.transferservice.dto.AccountTransferDTO;
+import za.co.sanlam.transferservice.dto.AccountTransfersPageDTO;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(
+    properties = {
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      "transfer.outbox.enabled=false"
+    })
+@AutoConfigureTestDatabase
+class AccountTransferServiceIntegrationTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 9, 0);
+
+  @Autowired private AccountTransferService accountTransferService;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setup() {
+    transferRepository.deleteAll();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  private void insert(String transferId, String from, String to, LocalDateTime created) {
+    jdbcTemplate.update(
+        "INSERT INTO transfer "
+            + "(id, version, from_account_id, to_account_id, amount, status, created) "
+            + "VALUES (?, 0, ?, ?, ?, ?, ?)",
+        transferId,
+        from,
+        to,
+        BigDecimal.TEN,
+        TransferStatus.SUCCESS.name(),
+        created);
+  }
+
+  @Test
+  void getTransfers_shouldPageThroughDebitsAndCreditsNewestFirst() {
+    for (int i = 0; i < 7; i++) {
+      insert("d-" + i, "acc", "other", START.plusMinutes(i * 2));
+    }
+    for (int i = 0; i < 6; i++) {
+      insert("c-" + i, "other", "acc", START.plusMinutes(i * 2 + 1));
+    }
+    // Same created time as d-3: ties are broken by transferId
+    insert("t-tie", "other", "acc", START.plusMinutes(6));
+    insert("self", "acc", "acc", START.plusMinutes(20));
+    insert("noise", "other", "another", START.plusMinutes(30));
+
+    List<String> ids = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      statistics.clear();
+      AccountTransfersPageDTO page = accountTransferService.getTransfers("acc", cursor, 4);
+
+      // Two projected index scans per page, whatever its depth, and no entities
+      assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+      assertThat(statistics.getEntityLoadCount()).isZero();
+
+      page.getTransfers().stream().map(AccountTransferDTO::getTransferId).forEach(ids::add);
+      cursor = page.getNextCursor();
+      pages++;
+    } while (cursor != null);
+
+    assertThat(pages).isEqualTo(4);
+    assertThat(ids)
+        .containsExactly(
+            "self", "d-6", "c-5", "d-5", "c-4", "d-4", "c-3", "t-tie", "d-3", "c-2", "d-2",
+            "c-1", "d-1", "c-0", "d-0");
+  }
+
+  @Test
+  void getTransfers_shouldOmitTheCursorOnTheLastPage() {
+    insert("d-0", "acc", "other", START);
+
+    AccountTransfersPageDTO page = accountTransferService.getTransfers("acc", null, null);
+
+    assertThat(page.getTransfers())
+        .extracting(AccountTransferDTO::getTransferId)
+        .containsExactly("d-0");
+    assertThat(page.getNextCursor()).isNull();
+    assertThat(accountTransferService.getTransfers("nobody", null, 10).getTransfers()).isEmpty();
+  }
+
+  @Test
+  void getTransfers_shouldRejectInvalidCursorsAndPageSizes() {
+    assertThatThrownBy(() -> accountTransferService.getTransfers("acc", "not-a-cursor", 10))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> accountTransferService.getTransfers("acc", null, 0))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> accountTransferService.getTransfers("acc", null, 1_000))
+        .isInstanceOf(ValidationException.class);
+  }
+}
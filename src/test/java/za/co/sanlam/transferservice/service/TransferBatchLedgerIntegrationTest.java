@@ -0,0 +1,273 @@
+package za.co.sanlam.transferservice.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+class TransferBatchLedgerIntegrationTest {
+
+  private static final StubLedger ledger = StubLedger.start();
+
+  // Statements sent to the database; a JDBC batch counts as one round trip
+  private static final AtomicInteger roundTrips = new AtomicInteger();
+
+  @Autowired private TransferService transferService;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @Autowired private DataSource dataSource;
+
+  @DynamicPropertySource
+  static void ledgerProperties(DynamicPropertyRegistry registry) {
+    registry.add("ledger.service.endpoint.baseUrl", ledger::baseUrl);
+    registry.add("ledger.service.endpoint.path", () -> StubLedger.PATH);
+    registry.add("ledger.service.endpoint.batchPath", () -> StubLedger.BATCH_PATH);
+    registry.add("ledger.service.endpoint.batchEnabled", () -> true);
+  }
+
+  @AfterAll
+  static void shutdown() throws IOException {
+    ledger.close();
+  }
+
+  @BeforeEach
+  void setup() {
+    ledger.reset();
+    transferRepository.deleteAll();
+    roundTrips.set(0);
+  }
+
+  private TransferDTO buildRequest(String transferId) {
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("A-" + transferId)
+        .toAccountId("B-" + transferId)
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  @Test
+  void createBatch_shouldSendWholeBatchInOneLedgerRequest() {
+    ledger.outcome("b-2", TransferStatus.FAILED);
+
+    List<String> results =
+        transferService.createBatch(
+            List.of(buildRequest("b-1"), buildRequest("b-2"), buildRequest("b-3")));
+
+    assertThat(results).containsExactly("SUCCESS", "FAILED", "SUCCESS");
+    assertThat(ledger.batchCalls()).isEqualTo(1);
+    assertThat(ledger.singleCalls()).isZero();
+
+    assertThat(transferRepository.findById("b-1"))
+        .map(Transfer::getStatus)
+        .contains(TransferStatus.SUCCESS);
+    assertThat(transferRepository.findById("b-2"))
+        .map(Transfer::getStatus)
+        .contains(TransferStatus.FAILED);
+  }
+
+  @Test
+  void createBatch_shouldCollapseDuplicatesAndSkipExistingTransfers() {
+    transferService.createBatch(List.of(buildRequest("d-1")));
+    ledger.reset();
+
+    List<String> results =
+        transferService.createBatch(
+            List.of(buildRequest("d-1"), buildRequest("d-2"), buildRequest("d-2")));
+
+    assertThat(results).containsExactly("SUCCESS", "SUCCESS", "SUCCESS");
+    assertThat(ledger.batchCalls()).isEqualTo(1);
+    assertThat(transferRepository.count()).isEqualTo(2);
+  }
+
+  @Test
+  void createBatch_shouldFallBackToPerItemCallsWhenLedgerHasNoBulkPath() {
+    ledger.setBulkSupported(false);
+    ledger.outcome("f-1", TransferStatus.FAILED);
+
+    List<String> results =
+        transferService.createBatch(List.of(buildRequest("f-1"), buildRequest("f-2")));
+
+    assertThat(results).containsExactly("FAILED", "SUCCESS");
+    assertThat(ledger.batchCalls()).isEqualTo(1);
+    assertThat(ledger.singleCalls()).isEqualTo(2);
+
+    assertThat(transferRepository.findAll())
+        .extracting(Transfer::getStatus)
+        .containsExactlyInAnyOrder(TransferStatus.FAILED, TransferStatus.SUCCESS);
+  }
+
+  @Test
+  void createBatch_shouldReportItemsTheLedgerDidNotSettleAsTheyAreStored() {
+    ledger.setErrorRate(1);
+
+    List<String> results =
+        transferService.createBatch(List.of(buildRequest("u-1"), buildRequest("u-2")));
+
+    // The bulk call may have reached the ledger; the reconciler sends both again
+    assertThat(results).containsExactly("UNKNOWN", "UNKNOWN");
+    assertThat(transferRepository.findAll())
+        .extracting(Transfer::getStatus)
+        .containsOnly(TransferStatus.UNKNOWN);
+  }
+
+  @Test
+  void createBatch_shouldPersistAndSettleWholeBatchInTwoRoundTrips() {
+    List<TransferDTO> requests =
+        IntStream.range(0, 20).mapToObj(i -> buildRequest("r-" + i)).toList();
+
+    List<String> results = transferService.createBatch(requests);
+
+    assertThat(results).hasSize(20).containsOnly("SUCCESS");
+    assertThat(roundTrips.get()).isEqualTo(2);
+    assertThat(transferRepository.findAll())
+        .hasSize(20)
+        .extracting(Transfer::getVersion)
+        .containsOnly(1L);
+  }
+
+  @Test
+  void createBatch_shouldLookUpOnlyExistingTransfersAfterTheBatchInsert() {
+    transferService.createBatch(List.of(buildRequest("e-1")));
+    roundTrips.set(0);
+
+    List<String> results =
+        transferService.createBatch(List.of(buildRequest("e-1"), buildRequest("e-2")));
+
+    assertThat(results).containsExactly("SUCCESS", "SUCCESS");
+    // batch insert, lookup of e-1, batch update of e-2
+    assertThat(roundTrips.get()).isEqualTo(3);
+  }
+
+  @Test
+  void createBatch_shouldSkipATransferInsertedConcurrentlyAfterTheExistenceCheck()
+      throws Exception {
+    // Sent again, c-2 would be answered FAILED
+    ledger.outcome("c-2", TransferStatus.FAILED);
+
+    CompletableFuture<List<String>> results;
+    try (Connection other = dataSource.getConnection()) {
+      other.setAutoCommit(false);
+      try (PreparedStatement insert =
+          other.prepareStatement(
+              "INSERT INTO transfer (id, version, from_account_id, to_account_id, amount, status,"
+                  + " created) VALUES ('c-2', 0, 'A', 'B', 10, 'SUCCESS', CURRENT_TIMESTAMP)")) {
+        insert.executeUpdate();
+      }
+
+      results =
+          CompletableFuture.supplyAsync(
+              () ->
+                  transferService.createBatch(
+                      List.of(buildRequest("c-1"), buildRequest("c-2"), buildRequest("c-3"))));
+
+      // The batch does not see the uncommitted c-2 and waits on its key
+      awaitInsertOf("c-2");
+      other.commit();
+    }
+
+    assertThat(results.get(10, TimeUnit.SECONDS)).containsExactly("SUCCESS", "SUCCESS", "SUCCESS");
+    assertThat(transferRepository.count()).isEqualTo(3);
+    assertThat(transferRepository.findById("c-2"))
+        .map(Transfer::getStatus)
+        .contains(TransferStatus.SUCCESS);
+  }
+
+  // Waits until another session is executing the insert of transferId
+  private void awaitInsertOf(String transferId) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement sessions =
+            connection.prepareStatement(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS"
+                    + " WHERE EXECUTING_STATEMENT LIKE 'INSERT INTO transfer %' || ? || '%'")) {
+      sessions.setString(1, transferId);
+      while (System.nanoTime() < deadline) {
+        try (ResultSet rs = sessions.executeQuery()) {
+          rs.next();
+          if (rs.getInt(1) > 0) {
+            return;
+          }
+        }
+        Thread.sleep(10);
+      }
+    }
+    throw new AssertionError("Batch never reached the insert of " + transferId);
+  }
+
+  @TestConfiguration
+  static class RoundTripCountingConfig {
+
+    @Bean
+    static BeanPostProcessor roundTripCountingDataSource() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          return bean instanceof DataSource dataSource
+              ? counting(dataSource, DataSource.class)
+              : bean;
+        }
+      };
+    }
+
+    private static <T> T counting(T target, Class<T> type) {
+      InvocationHandler handler =
+          (proxy, method, args) -> {
+            Object result;
+            try {
+              result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+              throw ex.getCause();
+            }
+            if (result instanceof Connection connection) {
+              return counting(connection, Connection.class);
+            }
+            if (result instanceof PreparedStatement statement) {
+              return counting(statement, PreparedStatement.class);
+            }
+            if (result instanceof Statement statement) {
+              return counting(statement, Statement.class);
+            }
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+              roundTrips.incrementAndGet();
+            }
+            return result;
+          };
+      return type.cast(
+          Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+  }
+}
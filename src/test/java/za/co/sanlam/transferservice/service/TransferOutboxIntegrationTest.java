@@ -0,0 +1,242 @@
+package za.co.sanlam.transferservice.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferOutbox;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.TransferReconcileProperties;
+import za.co.sanlam.transferservice.repository.TransferOutboxRepository;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      // Dispatched explicitly by the tests
+      "transfer.outbox.pollInterval=1h",
+      "transfer.outbox.batchSize=10",
+      "transfer.outbox.chunkSize=4",
+      "transfer.outbox.maxAttempts=2"
+    })
+@AutoConfigureTestDatabase
+class TransferOutboxIntegrationTest {
+
+  private static final StubLedger ledger = StubLedger.start();
+
+  @LocalServerPort private int port;
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private TransferOutboxDispatcher dispatcher;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @Autowired private TransferOutboxRepository transferOutboxRepository;
+
+  @Autowired private TransferReconcileProperties reconcileProperties;
+
+  @DynamicPropertySource
+  static void ledgerProperties(DynamicPropertyRegistry registry) {
+    registry.add("ledger.service.endpoint.baseUrl", ledger::baseUrl);
+    registry.add("ledger.service.endpoint.path", () -> StubLedger.PATH);
+  }
+
+  @AfterAll
+  static void shutdown() throws IOException {
+    ledger.close();
+  }
+
+  @BeforeEach
+  void setup() {
+    ledger.reset();
+    transferOutboxRepository.deleteAll();
+    transferRepository.deleteAll();
+  }
+
+  private TransferDTO buildRequest(String transferId) {
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("A-" + transferId)
+        .toAccountId("B-" + transferId)
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  private ResponseEntity<String> accept(TransferDTO request) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    headers.set("Prefer", "respond-async");
+    return restTemplate.postForEntity(
+        "http://localhost:" + port + "/transfers",
+        new HttpEntity<>(request, headers),
+        String.class);
+  }
+
+  // Moves every entry's next attempt, or the end of its claim's lease, into the past
+  private void makeDue() {
+    List<TransferOutbox> entries = transferOutboxRepository.findAll();
+    entries.forEach(entry -> entry.setNextAttemptAt(LocalDateTime.now().minusSeconds(1)));
+    transferOutboxRepository.saveAll(entries);
+  }
+
+  private TransferStatus statusOf(String transferId) {
+    return transferRepository.findById(transferId).map(Transfer::getStatus).orElseThrow();
+  }
+
+  @Test
+  void createTransfer_shouldAcceptWithoutCallingTheLedger() {
+    ResponseEntity<String> response = accept(buildRequest("o-1"));
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    assertThat(response.getBody()).isEqualTo("o-1");
+    assertThat(response.getHeaders().getLocation()).hasPath("/transfers/o-1");
+    assertThat(response.getHeaders().getFirst("Preference-Applied")).isEqualTo("respond-async");
+
+    assertThat(ledger.singleCalls()).isZero();
+    assertThat(statusOf("o-1")).isEqualTo(TransferStatus.UNKNOWN);
+    assertThat(transferOutboxRepository.findAll())
+        .extracting(TransferOutbox::getTransferId)
+        .containsExactly("o-1");
+
+    // A duplicate is accepted again but not queued twice
+    assertThat(accept(buildRequest("o-1")).getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    assertThat(transferOutboxRepository.count()).isEqualTo(1);
+  }
+
+  @Test
+  void dispatch_shouldDrainTheOutboxAndSettleEveryTransfer() {
+    ledger.outcome("o-3", TransferStatus.FAILED);
+    for (int i = 0; i < 25; i++) {
+      accept(buildRequest("o-" + i));
+    }
+
+    dispatcher.dispatch();
+
+    assertThat(transferOutboxRepository.count()).isZero();
+    assertThat(ledger.singleCalls()).isEqualTo(25);
+    assertThat(statusOf("o-3")).isEqualTo(TransferStatus.FAILED);
+    assertThat(transferRepository.findAll())
+        .extracting(Transfer::getStatus)
+        .filteredOn(TransferStatus.SUCCESS::equals)
+        .hasSize(24);
+  }
+
+  @Test
+  void dispatch_shouldBackOffThenLeaveTheTransferToTheReconciler() {
+    ledger.fail("o-f");
+    accept(buildRequest("o-f"));
+    accept(buildRequest("o-s"));
+
+    dispatcher.dispatch();
+
+    assertThat(statusOf("o-s")).isEqualTo(TransferStatus.SUCCESS);
+    assertThat(transferOutboxRepository.findAll())
+        .singleElement()
+        .satisfies(
+            entry -> {
+              assertThat(entry.getTransferId()).isEqualTo("o-f");
+              assertThat(entry.getAttempts()).isEqualTo(1);
+              assertThat(entry.getClaimedBy()).isNull();
+              assertThat(entry.getNextAttemptAt()).isAfter(LocalDateTime.now());
+            });
+
+    // Not due again until the backoff has passed
+    dispatcher.dispatch();
+    assertThat(ledger.singleCalls()).isEqualTo(2);
+
+    // Out of attempts, and old enough for the reconciler to pick it up
+    makeDue();
+    reconcileProperties.setMinAge(Duration.ZERO);
+    try {
+      dispatcher.dispatch();
+    } finally {
+      reconcileProperties.setMinAge(Duration.ofMinutes(5));
+    }
+
+    assertThat(transferOutboxRepository.count()).isZero();
+    assertThat(statusOf("o-f")).isEqualTo(TransferStatus.UNKNOWN);
+    assertThat(ledger.singleCalls()).isEqualTo(3);
+  }
+
+  @Test
+  void dispatch_shouldKeepEntriesOutOfAttemptsWhileTheReconcilerIsDisabled() {
+    ledger.fail("o-k");
+    accept(buildRequest("o-k"));
+
+    reconcileProperties.setEnabled(false);
+    try {
+      dispatcher.dispatch();
+      makeDue();
+      dispatcher.dispatch();
+    } finally {
+      reconcileProperties.setEnabled(true);
+    }
+
+    assertThat(ledger.singleCalls()).isEqualTo(2);
+    assertThat(transferOutboxRepository.findAll())
+        .singleElement()
+        .satisfies(entry -> assertThat(entry.getAttempts()).isEqualTo(2));
+  }
+
+  @Test
+  void dispatch_shouldSkipEntriesClaimedByAnotherInstance() {
+    accept(buildRequest("o-c"));
+    LocalDateTime now = LocalDateTime.now();
+    List<Long> ids = transferOutboxRepository.findDueIds(now, Limit.of(10));
+    assertThat(transferOutboxRepository.claim(ids, "other", now, now.plusMinutes(1))).isOne();
+
+    dispatcher.dispatch();
+
+    assertThat(ledger.singleCalls()).isZero();
+    assertThat(transferOutboxRepository.findAll())
+        .singleElement()
+        .satisfies(entry -> assertThat(entry.getClaimedBy()).isEqualTo("other"));
+
+    // The other instance's lease ran out without it finishing
+    makeDue();
+    dispatcher.dispatch();
+
+    assertThat(transferOutboxRepository.count()).isZero();
+    assertThat(statusOf("o-c")).isEqualTo(TransferStatus.SUCCESS);
+  }
+
+  @Test
+  void dispatch_shouldSkipTransfersAlreadySettled() {
+    accept(buildRequest("o-d"));
+
+    // A synchronous duplicate settles the transfer before the dispatcher runs
+    Transfer transfer = transferRepository.findById("o-d").orElseThrow();
+    transfer.update(TransferStatus.SUCCESS);
+    transferRepository.save(transfer);
+
+    dispatcher.dispatch();
+
+    assertThat(transferOutboxRepository.count()).isZero();
+    assertThat(ledger.singleCalls()).isZero();
+    assertThat(statusOf("o-d")).isEqualTo(TransferStatus.SUCCESS);
+  }
+}
@@ -0,0 +1,136 @@
+package za.co.sanlam.transferservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+import za.co.sanlam.transferservice.client.LedgerClient;
+import za.co.sanlam.transferservice.client.WebClientLedgerClient;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.dto.TransferResultDTO;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+class TransferReactiveBatchIntegrationTest {
+
+  private static final StubLedger ledger = StubLedger.start();
+
+  // Below the stream's maxInFlight, so stream items queue for a ledger slot
+  private static final int LEDGER_LIMIT = 12;
+
+  @Autowired private TransferService transferService;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @Autowired private LedgerClient ledgerClient;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @DynamicPropertySource
+  static void ledgerProperties(DynamicPropertyRegistry registry) {
+    registry.add("ledger.service.endpoint.baseUrl", ledger::baseUrl);
+    registry.add("ledger.service.endpoint.path", () -> StubLedger.PATH);
+    registry.add("ledger.service.endpoint.client", () -> "REACTIVE");
+    registry.add("ledger.service.limit.initialLimit", () -> LEDGER_LIMIT);
+    registry.add("ledger.service.limit.maxWait", () -> "1s");
+  }
+
+  @AfterAll
+  static void shutdown() throws IOException {
+    ledger.close();
+  }
+
+  @BeforeEach
+  void setup() {
+    ledger.reset();
+    transferRepository.deleteAll();
+  }
+
+  private TransferDTO buildRequest(String transferId) {
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("A-" + transferId)
+        .toAccountId("B-" + transferId)
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  @Test
+  void reactiveClient_shouldBeSelectedByProperty() {
+    assertThat(ledgerClient).isInstanceOf(WebClientLedgerClient.class);
+  }
+
+  @Test
+  void createBatch_shouldSettleEveryTransferThroughWebClient() {
+    ledger.outcome("r-2", TransferStatus.FAILED);
+
+    List<String> results =
+        transferService.createBatch(List.of(buildRequest("r-1"), buildRequest("r-2")));
+
+    assertThat(results).containsExactly("SUCCESS", "FAILED");
+    assertThat(ledger.singleCalls()).isEqualTo(2);
+    assertThat(transferRepository.findAll())
+        .extracting(Transfer::getStatus)
+        .containsExactlyInAnyOrder(TransferStatus.SUCCESS, TransferStatus.FAILED);
+  }
+
+  @Test
+  void createBatchReactive_shouldKeepLedgerCallsInFlightConcurrently() {
+    ledger.setDelayMillis(300);
+    List<TransferDTO> requests =
+        IntStream.range(0, 20).mapToObj(i -> buildRequest("c-" + i)).toList();
+
+    List<String> results = transferService.createBatchReactive(requests).block();
+
+    assertThat(results).hasSize(20).containsOnly("SUCCESS");
+    assertThat(ledger.maxInFlight()).isGreaterThan(10);
+  }
+
+  @Test
+  void createStream_shouldQueueItemsOverTheLedgerLimitRatherThanFailThem() {
+    ledger.setDelayMillis(50);
+    double rejected = meterRegistry.get("ledger.concurrency.rejected").counter().count();
+    List<TransferDTO> requests =
+        IntStream.range(0, 5 * LEDGER_LIMIT).mapToObj(i -> buildRequest("q-" + i)).toList();
+
+    List<TransferResultDTO> results =
+        transferService.createStream(Flux.fromIterable(requests)).collectList().block();
+
+    assertThat(results)
+        .hasSize(requests.size())
+        .extracting(TransferResultDTO::getStatus)
+        .containsOnly(TransferStatus.SUCCESS);
+    assertThat(meterRegistry.get("ledger.concurrency.rejected").counter().count())
+        .isEqualTo(rejected);
+  }
+
+  @Test
+  void createBatch_shouldReportAndLeaveTransferUnknownWhenLedgerErrors() {
+    ledger.fail("e-1");
+
+    List<String> results =
+        transferService.createBatch(List.of(buildRequest("e-1"), buildRequest("e-2")));
+
+    assertThat(results).containsExactly("UNKNOWN", "SUCCESS");
+    assertThat(transferRepository.findById("e-1"))
+        .map(Transfer::getStatus)
+        .contains(TransferStatus.UNKNOWN);
+  }
+}
@@ -0,0 +1,125 @@
+package za.co.sanlam.transferservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    properties = {
+      // Reconciled explicitly by the tests
+      "transfer.reconcile.interval=1h",
+      "transfer.reconcile.minAge=1m",
+      "transfer.reconcile.pageSize=2",
+      "transfer.reconcile.retryBudget=4"
+    })
+@AutoConfigureTestDatabase
+class TransferReconcilerIntegrationTest {
+
+  private static final StubLedger ledger = StubLedger.start();
+
+  @Autowired private TransferReconciler reconciler;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @DynamicPropertySource
+  static void ledgerProperties(DynamicPropertyRegistry registry) {
+    registry.add("ledger.service.endpoint.baseUrl", ledger::baseUrl);
+    registry.add("ledger.service.endpoint.path", () -> StubLedger.PATH);
+  }
+
+  @AfterAll
+  static void shutdown() throws IOException {
+    ledger.close();
+  }
+
+  @BeforeEach
+  void setup() {
+    ledger.reset();
+    transferRepository.deleteAll();
+  }
+
+  private void insert(String transferId, TransferStatus status, LocalDateTime created) {
+    jdbcTemplate.update(
+        "INSERT INTO transfer "
+            + "(id, version, from_account_id, to_account_id, amount, status, created) "
+            + "VALUES (?, 0, ?, ?, ?, ?, ?)",
+        transferId,
+        "A-" + transferId,
+        "B-" + transferId,
+        BigDecimal.TEN,
+        status.name(),
+        created);
+  }
+
+  private TransferStatus statusOf(String transferId) {
+    return transferRepository.findById(transferId).map(Transfer::getStatus).orElseThrow();
+  }
+
+  private double gauge(String name) {
+    return meterRegistry.get(name).gauge().value();
+  }
+
+  @Test
+  void reconcile_shouldResolveOldUnknownTransfersWithinTheRetryBudget() {
+    LocalDateTime old = LocalDateTime.now().minusHours(2);
+    for (int i = 0; i < 5; i++) {
+      insert("u-" + i, TransferStatus.UNKNOWN, old.plusSeconds(i));
+    }
+    ledger.outcome("u-1", TransferStatus.FAILED);
+    insert("fresh", TransferStatus.UNKNOWN, LocalDateTime.now());
+    insert("done", TransferStatus.SUCCESS, old);
+
+    // Two pages of two fill the budget of four
+    assertThat(reconciler.reconcileOnce()).isEqualTo(4);
+    assertThat(ledger.singleCalls()).isEqualTo(4);
+    assertThat(statusOf("u-1")).isEqualTo(TransferStatus.FAILED);
+    assertThat(statusOf("u-4")).isEqualTo(TransferStatus.UNKNOWN);
+    assertThat(gauge("transfer.reconcile.backlog")).isEqualTo(1);
+
+    assertThat(reconciler.reconcileOnce()).isEqualTo(1);
+    assertThat(statusOf("u-4")).isEqualTo(TransferStatus.SUCCESS);
+    assertThat(gauge("transfer.reconcile.backlog")).isZero();
+    assertThat(gauge("transfer.reconcile.lag.seconds")).isZero();
+
+    // Too young to reconcile, may still be in flight
+    assertThat(statusOf("fresh")).isEqualTo(TransferStatus.UNKNOWN);
+    assertThat(ledger.singleCalls()).isEqualTo(5);
+  }
+
+  @Test
+  void reconcile_shouldStopWhenTheLedgerResolvesNothing() {
+    LocalDateTime old = LocalDateTime.now().minusHours(2);
+    for (int i = 0; i < 4; i++) {
+      insert("x-" + i, TransferStatus.UNKNOWN, old.plusSeconds(i));
+      ledger.fail("x-" + i);
+    }
+
+    assertThat(reconciler.reconcileOnce()).isZero();
+
+    // Only the first page was tried
+    assertThat(ledger.singleCalls()).isEqualTo(2);
+    assertThat(gauge("transfer.reconcile.backlog")).isEqualTo(4);
+    assertThat(gauge("transfer.reconcile.lag.seconds")).isGreaterThanOrEqualTo(7200);
+  }
+}
@@ -1,5 +1,8 @@
 package za.co.sanlam.transferservice.service;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +40,10 @@ class TransferServiceIntegrationTest {
 
   @Autowired private LedgerServiceProperties properties;
 
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Autowired private CircuitBreakerRegistry circuitBreakerRegistry;
+
   private MockRestServiceServer mockServer;
 
   @BeforeEach
@@ -115,6 +122,68 @@ class TransferServiceIntegrationTest {
     mockServer.verify();
   }
 
+  private long phaseCount(String phase) {
+    return meterRegistry.get("transfer.phase").tag("phase", phase).timer().count();
+  }
+
+  private double outcomeCount(String status) {
+    return meterRegistry.get("transfer.outcome").tag("status", status).counter().count();
+  }
+
+  @Test
+  void createTransfer_shouldTimeEachPhaseAndCountTheOutcome() {
+    mockServer
+        .expect(once(), requestTo(properties.getBaseUrl() + properties.getPath()))
+        .andExpect(method(HttpMethod.POST))
+        .andRespond(withSuccess(TransferStatus.FAILED.name(), MediaType.APPLICATION_JSON));
+
+    long inserts = phaseCount("insert");
+    long lookups = phaseCount("lookup");
+    long ledgerCalls = phaseCount("ledger");
+    long updates = phaseCount("update");
+    double failed = outcomeCount("failed");
+
+    TransferDTO request =
+        TransferDTO.builder()
+            .transferId("metrics-1")
+            .fromAccountId("M1")
+            .toAccountId("N1")
+            .amount(BigDecimal.TEN)
+            .build();
+    transferService.createTransfer(request);
+    // A duplicate only pays for the insert attempt and the lookup
+    transferService.createTransfer(request);
+
+    assertThat(phaseCount("insert")).isEqualTo(inserts + 2);
+    assertThat(phaseCount("lookup")).isEqualTo(lookups + 1);
+    assertThat(phaseCount("ledger")).isEqualTo(ledgerCalls + 1);
+    assertThat(phaseCount("update")).isEqualTo(updates + 1);
+    assertThat(outcomeCount("failed")).isEqualTo(failed + 1);
+    mockServer.verify();
+  }
+
+  @Test
+  void createTransfer_shouldFailWithoutStoringTheTransferWhenTheCircuitIsOpen() {
+    TransferDTO request =
+        TransferDTO.builder()
+            .transferId("open-1")
+            .fromAccountId("A1")
+            .toAccountId("B1")
+            .amount(BigDecimal.TEN)
+            .build();
+    CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("ledgerService");
+    circuitBreaker.transitionToOpenState();
+    try {
+      String status = transferService.createTransfer(request);
+
+      // Rejected before the insert, so there is nothing for the reconciler to send later
+      assertThat(status).isEqualTo(TransferStatus.FAILED.name());
+      assertThat(transferRepository.existsById("open-1")).isFalse();
+    } finally {
+      circuitBreaker.transitionToClosedState();
+    }
+  }
+
   @Test
   void getStatusByTransferId_shouldReturnPersistedStatus() {
     // Arrange
@@ -0,0 +1,151 @@
+package za.co.sanlam.transferservice.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.ledger.StubLedger;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "transfer.outbox.enabled=false")
+@AutoConfigureTestDatabase
+class TransferSingleFlightIntegrationTest {
+
+  private static final StubLedger ledger = StubLedger.start();
+
+  @Autowired private TransferService transferService;
+
+  @Autowired private TransferSingleFlight transferSingleFlight;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @DynamicPropertySource
+  static void ledgerProperties(DynamicPropertyRegistry registry) {
+    registry.add("ledger.service.endpoint.baseUrl", ledger::baseUrl);
+    registry.add("ledger.service.endpoint.path", () -> StubLedger.PATH);
+  }
+
+  @AfterAll
+  static void shutdown() throws IOException {
+    ledger.close();
+  }
+
+  @BeforeEach
+  void setup() {
+    ledger.reset();
+    // Keeps the first request in flight while its duplicates arrive
+    ledger.setDelayMillis(300);
+    transferRepository.deleteAll();
+  }
+
+  private TransferDTO buildRequest(String transferId) {
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("A-" + transferId)
+        .toAccountId("B-" + transferId)
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  /** Runs every task at the same time and returns their results in order */
+  private <T> List<T> concurrently(List<Supplier<T>> tasks) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<T>> futures =
+          tasks.stream()
+              .map(
+                  task ->
+                      executor.submit(
+                          () -> {
+                            start.await();
+                            return task.get();
+                          }))
+              .toList();
+      start.countDown();
+
+      List<T> results = new ArrayList<>();
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void createTransfer_shouldShareOneLedgerCallBetweenConcurrentDuplicates() throws Exception {
+    ledger.outcome("sf-1", TransferStatus.SUCCESS);
+
+    List<String> statuses =
+        concurrently(
+            IntStream.range(0, 8)
+                .<Supplier<String>>mapToObj(
+                    i -> () -> transferService.createTransfer(buildRequest("sf-1")))
+                .toList());
+
+    // Without coalescing, duplicates would return the UNKNOWN row the first request inserted
+    assertThat(statuses).containsOnly(TransferStatus.SUCCESS.name()).hasSize(8);
+    assertThat(ledger.singleCalls()).isEqualTo(1);
+    assertThat(transferSingleFlight.inFlightCount()).isZero();
+  }
+
+  @Test
+  void createBatch_shouldCollapseDuplicatesWithinAndAcrossBatches() throws Exception {
+    ledger.outcome("sf-x", TransferStatus.SUCCESS);
+    ledger.outcome("sf-y", TransferStatus.FAILED);
+    ledger.outcome("sf-z", TransferStatus.SUCCESS);
+
+    List<List<String>> statuses =
+        concurrently(
+            List.<Supplier<List<String>>>of(
+                () ->
+                    transferService.createBatch(
+                        List.of(
+                            buildRequest("sf-x"), buildRequest("sf-y"), buildRequest("sf-x"))),
+                () ->
+                    transferService.createBatch(
+                        List.of(buildRequest("sf-y"), buildRequest("sf-z")))));
+
+    assertThat(statuses.get(0)).containsExactly("SUCCESS", "FAILED", "SUCCESS");
+    assertThat(statuses.get(1)).containsExactly("FAILED", "SUCCESS");
+    assertThat(ledger.singleCalls()).isEqualTo(3);
+    assertThat(transferSingleFlight.inFlightCount()).isZero();
+  }
+
+  @Test
+  void createTransferReactive_shouldShareOneLedgerCallBetweenConcurrentDuplicates() {
+    ledger.outcome("sf-r", TransferStatus.SUCCESS);
+
+    List<CompletableFuture<String>> futures =
+        IntStream.range(0, 4)
+            .mapToObj(
+                i -> transferService.createTransferReactive(buildRequest("sf-r")).toFuture())
+            .toList();
+    List<String> statuses = futures.stream().map(CompletableFuture::join).toList();
+
+    assertThat(statuses).containsOnly(TransferStatus.SUCCESS.name());
+    assertThat(ledger.singleCalls()).isEqualTo(1);
+  }
+}
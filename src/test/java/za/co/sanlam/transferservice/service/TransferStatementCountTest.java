@@ -0,0 +1,113 @@
+package za.co.sanlam.transferservice.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@SpringBootTest(
+    properties = {
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      "transfer.outbox.enabled=false"
+    })
+@AutoConfigureTestDatabase
+class TransferStatementCountTest {
+
+  @Autowired private TransferService transferService;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @Autowired private TransferPersistenceService transferPersistenceService;
+
+  @Autowired private RestTemplate restTemplate;
+
+  @Autowired private LedgerServiceProperties properties;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private MockRestServiceServer mockServer;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setup() {
+    mockServer = MockRestServiceServer.createServer(restTemplate);
+    transferRepository.deleteAll();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  private TransferDTO buildRequest(String transferId) {
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("A1")
+        .toAccountId("B1")
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  @Test
+  void createTransfer_shouldCostTwoStatementsPerLedgerCall() {
+    mockServer
+        .expect(once(), requestTo(properties.getBaseUrl() + properties.getPath()))
+        .andRespond(withSuccess(TransferStatus.SUCCESS.name(), MediaType.TEXT_PLAIN));
+
+    String status = transferService.createTransfer(buildRequest("stmt-1"));
+
+    // insert-if-absent + conditional status update
+    assertThat(status).isEqualTo(TransferStatus.SUCCESS.name());
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    mockServer.verify();
+
+    Transfer transfer = transferRepository.findById("stmt-1").orElseThrow();
+    assertThat(transfer.getStatus()).isEqualTo(TransferStatus.SUCCESS);
+    assertThat(transfer.getVersion()).isEqualTo(1L);
+    assertThat(transfer.getCreated()).isNotNull();
+  }
+
+  @Test
+  void createTransfer_shouldNotCallLedgerForDuplicate() {
+    mockServer
+        .expect(once(), requestTo(properties.getBaseUrl() + properties.getPath()))
+        .andRespond(withSuccess(TransferStatus.FAILED.name(), MediaType.TEXT_PLAIN));
+    transferService.createTransfer(buildRequest("stmt-2"));
+    statistics.clear();
+
+    String status = transferService.createTransfer(buildRequest("stmt-2"));
+
+    // insert-if-absent finds the row, then one status lookup; no ledger call, no update
+    assertThat(status).isEqualTo(TransferStatus.FAILED.name());
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    mockServer.verify();
+  }
+
+  @Test
+  void updateStatus_shouldOnlyMoveTransfersOutOfUnknown() {
+    mockServer
+        .expect(once(), requestTo(properties.getBaseUrl() + properties.getPath()))
+        .andRespond(withSuccess(TransferStatus.SUCCESS.name(), MediaType.TEXT_PLAIN));
+    transferService.createTransfer(buildRequest("stmt-3"));
+
+    assertThat(transferPersistenceService.updateStatus("stmt-3", TransferStatus.FAILED)).isFalse();
+    assertThat(transferRepository.findStatusById("stmt-3")).contains(TransferStatus.SUCCESS);
+  }
+}
@@ -0,0 +1,98 @@
+package za.co.sanlam.transferservice.service;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.TransferCacheProperties;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransferStatusCacheTest {
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private SimpleMeterRegistry meterRegistry;
+  private TransferStatusCache transferStatusCache;
+
+  @BeforeEach
+  void setUp() {
+    TransferCacheProperties properties = new TransferCacheProperties();
+    properties.setUnknownTtl(Duration.ofSeconds(2));
+    properties.setTerminalTtl(Duration.ofMinutes(10));
+    properties.setNotFoundTtl(Duration.ofSeconds(5));
+
+    meterRegistry = new SimpleMeterRegistry();
+    Ticker ticker = nanos::get;
+    transferStatusCache = new TransferStatusCache(properties, meterRegistry, ticker);
+  }
+
+  private Function<String, Optional<TransferStatus>> loader(TransferStatus status) {
+    return id -> {
+      loads.incrementAndGet();
+      return Optional.ofNullable(status);
+    };
+  }
+
+  private void advance(Duration duration) {
+    nanos.addAndGet(duration.toNanos());
+  }
+
+  @Test
+  void get_shouldLoadOnceAndServeHitsFromCache() {
+    transferStatusCache.get("t-1", loader(TransferStatus.SUCCESS));
+    Optional<TransferStatus> status =
+        transferStatusCache.get("t-1", loader(TransferStatus.SUCCESS));
+
+    assertThat(status).contains(TransferStatus.SUCCESS);
+    assertThat(loads).hasValue(1);
+    assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void get_shouldCacheUnknownIdsAsNegativeEntries() {
+    assertThat(transferStatusCache.get("missing", loader(null))).isEmpty();
+    assertThat(transferStatusCache.get("missing", loader(null))).isEmpty();
+    assertThat(loads).hasValue(1);
+
+    advance(Duration.ofSeconds(6));
+    transferStatusCache.get("missing", loader(null));
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void get_shouldKeepTerminalStatusesLongerThanUnknown() {
+    transferStatusCache.get("pending", loader(TransferStatus.UNKNOWN));
+    transferStatusCache.get("settled", loader(TransferStatus.FAILED));
+
+    advance(Duration.ofSeconds(3));
+    transferStatusCache.get("pending", loader(TransferStatus.UNKNOWN));
+    transferStatusCache.get("settled", loader(TransferStatus.FAILED));
+
+    // Only the UNKNOWN entry expired and was reloaded
+    assertThat(loads).hasValue(3);
+  }
+
+  @Test
+  void put_shouldWriteThroughOverNegativeEntry() {
+    transferStatusCache.get("t-2", loader(null));
+
+    transferStatusCache.put("t-2", TransferStatus.UNKNOWN);
+    assertThat(transferStatusCache.get("t-2", loader(null))).contains(TransferStatus.UNKNOWN);
+
+    transferStatusCache.put("t-2", TransferStatus.SUCCESS);
+    assertThat(transferStatusCache.get("t-2", loader(null))).contains(TransferStatus.SUCCESS);
+    assertThat(loads).hasValue(1);
+  }
+}
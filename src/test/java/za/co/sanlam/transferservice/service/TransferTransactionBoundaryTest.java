@@ -0,0 +1,134 @@
+package za.co.sanlam.transferservice.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import za.co.sanlam.transferservice.dto.TransferDTO;
+import za.co.sanlam.transferservice.model.Transfer;
+import za.co.sanlam.transferservice.model.TransferStatus;
+import za.co.sanlam.transferservice.properties.LedgerServiceProperties;
+import za.co.sanlam.transferservice.repository.TransferRepository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/** Runs against the pooled datasource, limited to a single connection */
+@SpringBootTest(
+    properties = {"spring.datasource.hikari.maximum-pool-size=1", "transfer.outbox.enabled=false"})
+class TransferTransactionBoundaryTest {
+
+  @Autowired private TransferService transferService;
+
+  @Autowired private TransferRepository transferRepository;
+
+  @Autowired private TransferPersistenceService transferPersistenceService;
+
+  @Autowired private RestTemplate restTemplate;
+
+  @Autowired private LedgerServiceProperties properties;
+
+  @Autowired private DataSource dataSource;
+
+  private MockRestServiceServer mockServer;
+
+  @BeforeEach
+  void setup() {
+    mockServer = MockRestServiceServer.createServer(restTemplate);
+    transferRepository.deleteAll();
+  }
+
+  private TransferDTO buildRequest(String transferId) {
+    return TransferDTO.builder()
+        .transferId(transferId)
+        .fromAccountId("A1")
+        .toAccountId("B1")
+        .amount(BigDecimal.TEN)
+        .build();
+  }
+
+  @Test
+  void createTransfer_shouldNotHoldPooledConnectionDuringLedgerCall() throws SQLException {
+    HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+    TransferDTO request = buildRequest("tx-1");
+
+    AtomicInteger activeDuringCall = new AtomicInteger(-1);
+    AtomicLong rowsReadDuringCall = new AtomicLong(-1);
+    AtomicReference<Optional<TransferStatus>> otherNodeDuringCall = new AtomicReference<>();
+    AtomicReference<CompletableFuture<String>> duplicateDuringCall = new AtomicReference<>();
+
+    mockServer
+        .expect(once(), requestTo(properties.getBaseUrl() + properties.getPath()))
+        .andExpect(method(HttpMethod.POST))
+        .andRespond(
+            ledgerRequest -> {
+              activeDuringCall.set(pool.getActiveConnections());
+              // With one pooled connection, other requests only proceed if it was released
+              rowsReadDuringCall.set(
+                  CompletableFuture.supplyAsync(transferRepository::count)
+                      .orTimeout(5, TimeUnit.SECONDS)
+                      .join());
+              // Another instance only has the database to go by
+              otherNodeDuringCall.set(
+                  CompletableFuture.supplyAsync(
+                          () -> transferPersistenceService.insertPending(request))
+                      .orTimeout(5, TimeUnit.SECONDS)
+                      .join());
+              // A duplicate on this instance waits for the call in flight
+              duplicateDuringCall.set(
+                  CompletableFuture.supplyAsync(() -> transferService.createTransfer(request)));
+              return withSuccess(TransferStatus.SUCCESS.name(), MediaType.TEXT_PLAIN)
+                  .createResponse(ledgerRequest);
+            });
+
+    String status = transferService.createTransfer(request);
+
+    assertThat(status).isEqualTo(TransferStatus.SUCCESS.name());
+    assertThat(activeDuringCall).hasValue(0);
+    assertThat(rowsReadDuringCall).hasValue(1);
+    // Neither duplicate reaches the ledger again: the other instance sees the committed UNKNOWN
+    // row, and the local one shares the ledger status
+    assertThat(otherNodeDuringCall).hasValue(Optional.of(TransferStatus.UNKNOWN));
+    assertThat(duplicateDuringCall.get().orTimeout(5, TimeUnit.SECONDS).join())
+        .isEqualTo(TransferStatus.SUCCESS.name());
+    assertThat(transferRepository.findById("tx-1"))
+        .map(Transfer::getStatus)
+        .contains(TransferStatus.SUCCESS);
+
+    mockServer.verify();
+  }
+
+  @Test
+  void createTransfer_shouldLeaveCommittedTransferUnknownWhenLedgerFails() {
+    mockServer
+        .expect(once(), requestTo(properties.getBaseUrl() + properties.getPath()))
+        .andRespond(withServerError());
+
+    String status = transferService.createTransfer(buildRequest("tx-2"));
+
+    assertThat(status).isEqualTo(TransferStatus.UNKNOWN.name());
+    assertThat(transferRepository.findById("tx-2"))
+        .map(Transfer::getStatus)
+        .contains(TransferStatus.UNKNOWN);
+  }
+}